@@ -0,0 +1,132 @@
+package edu.ncsu.csc316.security_log.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.ncsu.csc316.security_log.dictionary.HashTable;
+
+/**
+ * Measures inserting into, looking up in and rehashing a HashTable
+ *
+ * @author Noah Benveniste
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HashTableBenchmark {
+
+	/** The number of values in the table */
+	@Param({"1000", "100000"})
+	public int size;
+
+	/** The values to insert */
+	private Integer[] values;
+	/** Values that are not in the table */
+	private Integer[] missing;
+	/** A table holding every value */
+	private HashTable<Integer> full;
+	/** A table to rehash, refilled before each invocation */
+	private HashTable<Integer> toRehash;
+
+	/**
+	 * Creates the values and the full table
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random r = new Random(316);
+		values = new Integer[size];
+		missing = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			// Even values are inserted and odd values are missing
+			values[i] = r.nextInt() & ~1;
+			missing[i] = r.nextInt() | 1;
+		}
+		full = fill();
+	}
+
+	/**
+	 * Refills the table to rehash
+	 */
+	@Setup(Level.Invocation)
+	public void refill() {
+		toRehash = fill();
+	}
+
+	/**
+	 * Creates a table holding every value
+	 *
+	 * @return the table
+	 */
+	private HashTable<Integer> fill() {
+		HashTable<Integer> ht = new HashTable<Integer>();
+		for (Integer v : values) {
+			ht.insert(v);
+		}
+		return ht;
+	}
+
+	/**
+	 * Inserts every value into an empty table
+	 *
+	 * @return the table
+	 */
+	@Benchmark
+	public HashTable<Integer> insert() {
+		return fill();
+	}
+
+	/**
+	 * Looks up every value that is in the table
+	 *
+	 * @param bh consumes the results
+	 */
+	@Benchmark
+	public void lookUpHit( Blackhole bh ) {
+		for (Integer v : values) {
+			bh.consume(full.lookUp(v));
+		}
+	}
+
+	/**
+	 * Looks up values that are not in the table
+	 *
+	 * @param bh consumes the results
+	 */
+	@Benchmark
+	public void lookUpMiss( Blackhole bh ) {
+		for (Integer v : missing) {
+			bh.consume(full.lookUp(v));
+		}
+	}
+
+	/**
+	 * Rehashes a full table
+	 *
+	 * @return the table
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Measurement(iterations = 20)
+	public HashTable<Integer> rehash() {
+		toRehash.rehash();
+		return toRehash;
+	}
+
+}
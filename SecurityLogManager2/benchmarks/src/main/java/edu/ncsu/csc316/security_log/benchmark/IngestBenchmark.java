@@ -0,0 +1,77 @@
+package edu.ncsu.csc316.security_log.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.io.SecurityLogIO;
+import edu.ncsu.csc316.security_log.list.ArrayList;
+
+/**
+ * Measures reading a log file into entries and into a columnar store
+ *
+ * @author Noah Benveniste
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class IngestBenchmark {
+
+	/** The number of rows in the log */
+	@Param({"10000", "1000000"})
+	public int rows;
+
+	/** The path of the log */
+	private String file;
+
+	/**
+	 * Writes the log if needed
+	 *
+	 * @throws IOException if the log cannot be written
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		file = SyntheticLogs.get(rows);
+	}
+
+	/**
+	 * Reads the log into a list of entries
+	 *
+	 * @return the entries
+	 *
+	 * @throws IOException if the log cannot be read
+	 */
+	@Benchmark
+	public ArrayList<LogEntry> readLogEntriesFromFile() throws IOException {
+		return new SecurityLogIO().readLogEntriesFromFile(file);
+	}
+
+	/**
+	 * Reads the log into a columnar store
+	 *
+	 * @return the store
+	 *
+	 * @throws IOException if the log cannot be read
+	 */
+	@Benchmark
+	public LogStore readLogStoreFromFile() throws IOException {
+		return new SecurityLogIO().readLogStoreFromFile(file);
+	}
+
+}
@@ -0,0 +1,86 @@
+package edu.ncsu.csc316.security_log.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc316.security_log.manager.SecurityLogManager;
+
+/**
+ * Measures generateOperationalProfile over windows of several widths. Windows
+ * start part way into an hour, so both of their edges fall inside buckets.
+ *
+ * @author Noah Benveniste
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ProfileBenchmark {
+
+	/** The number of rows in the log */
+	@Param({"10000", "1000000"})
+	public int rows;
+
+	/** The width of the window */
+	@Param({"HOUR", "DAY", "MONTH", "YEAR", "ALL"})
+	public String window;
+
+	/** The manager holding the log */
+	private SecurityLogManager manager;
+	/** The start of the window */
+	private String start;
+	/** The end of the window */
+	private String end;
+
+	/**
+	 * Loads the log and formats the window
+	 *
+	 * @throws IOException if the log cannot be written
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		manager = new SecurityLogManager(SyntheticLogs.get(rows));
+		LocalDateTime from = LocalDateTime.of(2016, 6, 1, 13, 17, 42);
+		LocalDateTime to;
+		if ("HOUR".equals(window)) {
+			to = from.plusHours(1);
+		} else if ("DAY".equals(window)) {
+			to = from.plusDays(1);
+		} else if ("MONTH".equals(window)) {
+			to = from.plusMonths(1);
+		} else if ("YEAR".equals(window)) {
+			to = from.plusYears(1);
+		} else {
+			from = SyntheticLogs.START.minusDays(1);
+			to = SyntheticLogs.START.plusYears(10);
+		}
+		start = from.format(SyntheticLogs.FORMAT);
+		end = to.format(SyntheticLogs.FORMAT);
+	}
+
+	/**
+	 * Generates the profile of the window
+	 *
+	 * @return the profile
+	 */
+	@Benchmark
+	public String generateOperationalProfile() {
+		return manager.generateOperationalProfile(start, end);
+	}
+
+}
@@ -0,0 +1,105 @@
+package edu.ncsu.csc316.security_log.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc316.security_log.comparator.ARComparator;
+import edu.ncsu.csc316.security_log.comparator.Comparator;
+import edu.ncsu.csc316.security_log.comparator.UserComparator;
+import edu.ncsu.csc316.security_log.comparator.UserOnlyComparator;
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.io.SecurityLogIO;
+import edu.ncsu.csc316.security_log.list.ArrayList;
+
+/**
+ * Measures sorting a list of log entries with each comparator, with both the
+ * introsort and the stable merge sort. Every invocation sorts a fresh copy of
+ * the entries in file order.
+ *
+ * @author Noah Benveniste
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SortBenchmark {
+
+	/** The number of rows in the log */
+	@Param({"10000", "1000000"})
+	public int rows;
+
+	/** The comparator to sort with */
+	@Param({"AR", "USER", "USER_ONLY"})
+	public String comparator;
+
+	/** The entries in file order */
+	private ArrayList<LogEntry> entries;
+	/** The comparator to sort with */
+	private Comparator<LogEntry> c;
+	/** The copy to sort */
+	private ArrayList<LogEntry> copy;
+
+	/**
+	 * Reads the log and picks the comparator
+	 *
+	 * @throws IOException if the log cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		entries = new SecurityLogIO().readLogEntriesFromFile(SyntheticLogs.get(rows));
+		if ("AR".equals(comparator)) {
+			c = new ARComparator();
+		} else if ("USER".equals(comparator)) {
+			c = new UserComparator();
+		} else {
+			c = new UserOnlyComparator();
+		}
+	}
+
+	/**
+	 * Copies the entries before each sort
+	 */
+	@Setup(Level.Invocation)
+	public void copy() {
+		copy = new ArrayList<LogEntry>(entries.size());
+		copy.addAll(entries);
+	}
+
+	/**
+	 * Sorts the copy
+	 *
+	 * @return the sorted copy
+	 */
+	@Benchmark
+	public ArrayList<LogEntry> sort() {
+		copy.sort(c);
+		return copy;
+	}
+
+	/**
+	 * Sorts the copy with the stable sort
+	 *
+	 * @return the sorted copy
+	 */
+	@Benchmark
+	public ArrayList<LogEntry> sortStable() {
+		copy.sortStable(c);
+		return copy;
+	}
+
+}
@@ -0,0 +1,65 @@
+package edu.ncsu.csc316.security_log.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import edu.ncsu.csc316.security_log.io.LogGenerator;
+
+/**
+ * Provides synthetic activity logs for the benchmarks. A log with a given
+ * number of rows is written by LogGenerator to java.io.tmpdir the first time
+ * it is asked for and reused afterwards, so large inputs are only generated
+ * once.
+ *
+ * Rows start at 01/01/2015 and cover three years. The 1000 users follow the
+ * generator's default Zipf skew, so HOT_USER is by far the most active user
+ * and COLD_USER is the least active one.
+ *
+ * @author Noah Benveniste
+ */
+public class SyntheticLogs {
+
+	/** Number of distinct users */
+	private static final int USERS = 1000;
+	/** Seed of the generator, so every run sees the same input */
+	private static final long SEED = 316;
+
+	/** The most active user */
+	public static final String HOT_USER = LogGenerator.getUserName(0);
+	/** The least active user */
+	public static final String COLD_USER = LogGenerator.getUserName(USERS - 1);
+	/** The time of the first row */
+	public static final LocalDateTime START = LocalDateTime.of(2015, 1, 1, 0, 0, 0);
+	/** Format of the time stamps in the log */
+	public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm:ssa", Locale.US);
+
+	/**
+	 * Gets a synthetic log with the given number of rows, writing it if needed
+	 *
+	 * @param rows the number of rows
+	 *
+	 * @return the path of the log file
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public static synchronized String get( int rows ) throws IOException {
+		File f = new File(System.getProperty("java.io.tmpdir"), "security-log-" + SEED + "-" + rows + ".txt");
+		if (!f.exists()) {
+			File tmp = File.createTempFile("security-log-", ".tmp", f.getParentFile());
+			LogGenerator g = new LogGenerator(rows);
+			g.setUsers(USERS);
+			g.setStart(START);
+			g.setSpan(1095L * 24 * 60 * 60);
+			g.setSeed(SEED);
+			g.write(tmp.getPath());
+			Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return f.getPath();
+	}
+
+}
@@ -0,0 +1,74 @@
+package edu.ncsu.csc316.security_log.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ncsu.csc316.security_log.manager.SecurityLogManager;
+
+/**
+ * Measures getUserReport for the most active user, the least active user
+ * and a user that is not in the log
+ *
+ * @author Noah Benveniste
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class UserReportBenchmark {
+
+	/** The number of rows in the log */
+	@Param({"10000", "1000000"})
+	public int rows;
+
+	/** Which user to report on */
+	@Param({"HOT", "COLD", "UNKNOWN"})
+	public String user;
+
+	/** The manager holding the log */
+	private SecurityLogManager manager;
+	/** The user name */
+	private String userID;
+
+	/**
+	 * Loads the log and picks the user
+	 *
+	 * @throws IOException if the log cannot be written
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		manager = new SecurityLogManager(SyntheticLogs.get(rows));
+		if ("HOT".equals(user)) {
+			userID = SyntheticLogs.HOT_USER;
+		} else if ("COLD".equals(user)) {
+			userID = SyntheticLogs.COLD_USER;
+		} else {
+			userID = "nobody";
+		}
+	}
+
+	/**
+	 * Generates the user's report
+	 *
+	 * @return the report
+	 */
+	@Benchmark
+	public String getUserReport() {
+		return manager.getUserReport(userID);
+	}
+
+}
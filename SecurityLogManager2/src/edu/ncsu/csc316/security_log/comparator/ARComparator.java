@@ -22,10 +22,10 @@ public class ARComparator implements Comparator<LogEntry> {
 		
 		if (e1.getFrequency() != e2.getFrequency()) {
 			return e2.getFrequency() - e1.getFrequency();
-		} else if (!e1.getAction().equals(e2.getAction())) {
-			return e1.getAction().compareTo(e2.getAction());
+		} else if (e1.compareAction(e2) != 0) {
+			return e1.compareAction(e2);
 		} else {
-			return e1.getResource().compareTo(e2.getResource());
+			return e1.compareResource(e2);
 		}
 		
 	}
@@ -0,0 +1,53 @@
+package edu.ncsu.csc316.security_log.comparator;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * A comparator whose order starts with two primitive keys: elements are
+ * ordered by their major key, then by their minor key, and only then by
+ * whatever else compareTo() looks at. Lists sorted with such a comparator can
+ * be radix sorted on the keys instead of compared element by element.
+ *
+ * compareTo() must agree with the keys: if one element's (major, minor) pair
+ * is smaller than another's, compareTo() must put it first.
+ *
+ * @author Noah Benveniste
+ *
+ * @param <E> the type of the elements compared
+ */
+public interface KeyedComparator<E> extends Comparator<E> {
+
+	/**
+	 * Checks whether the keys of two elements can be compared with each other.
+	 * A range can be sorted by its keys if this holds for its first element and
+	 * each of the others.
+	 *
+	 * @param e1 the first element
+	 * @param e2 the second element
+	 *
+	 * @return true if the keys of e1 and e2 are comparable
+	 */
+	public boolean encodable(E e1, E e2);
+
+	/**
+	 * Gets the keys elements are ordered by first. Every key the returned
+	 * function gives is worked out from the same state, so the keys of one
+	 * sort stay comparable with each other even if that state changes while
+	 * the sort runs.
+	 *
+	 * @param first an element whose keys can be compared with those of every
+	 *        element the function is given
+	 *
+	 * @return the function giving each element's major key
+	 */
+	public ToLongFunction<E> majorKeys(E first);
+
+	/**
+	 * Gets the key elements with equal major keys are ordered by
+	 *
+	 * @param e the element
+	 *
+	 * @return the minor key
+	 */
+	public long minorKey(E e);
+}
@@ -1,14 +1,18 @@
 package edu.ncsu.csc316.security_log.comparator;
 
+import java.util.function.ToLongFunction;
+
 import edu.ncsu.csc316.security_log.data.LogEntry;
 
 /**
  * Compares log entry objects by user first to sort log entries
- * into groupings corresponding to the same user.
+ * into groupings corresponding to the same user. Entries that share a
+ * dictionary are keyed by the alphabetical rank of their user and their
+ * packed time stamp, so lists of them can be radix sorted.
  * 
  * @author Noah Benveniste
  */
-public class UserComparator implements Comparator<LogEntry> {
+public class UserComparator implements KeyedComparator<LogEntry> {
 
 	/**
 	 * Sorts by user, timestamp, action, then resource
@@ -21,16 +25,61 @@ public class UserComparator implements Comparator<LogEntry> {
 	@Override
 	public int compareTo(LogEntry e1, LogEntry e2) {
 		
-		if (!e1.getUser().equals(e2.getUser())) {
-			return e1.getUser().compareTo(e2.getUser());
+		if (e1.compareUser(e2) != 0) {
+			return e1.compareUser(e2);
 		} else if (e1.getTimeStamp().compareTo(e2.getTimeStamp()) != 0) {
             return e1.getTimeStamp().compareTo(e2.getTimeStamp());
-        } else if (!e1.getAction().equals(e2.getAction())) {
-            return e1.getAction().compareTo(e2.getAction());
+        } else if (e1.compareAction(e2) != 0) {
+            return e1.compareAction(e2);
         } else {
-            return e1.getResource().compareTo(e2.getResource());
+            return e1.compareResource(e2);
         } 
 		
 	}
 
+	/**
+	 * Checks that two entries share a dictionary, so their user ids can be ranked together
+	 * 
+	 * @param e1 the first entry
+	 * @param e2 the second entry
+	 * 
+	 * @return true if the entries have the same dictionary
+	 */
+	@Override
+	public boolean encodable(LogEntry e1, LogEntry e2) {
+		return e1.getDictionary() == e2.getDictionary();
+	}
+
+	/**
+	 * Gets the alphabetical rank of each entry's user, all from one rank array
+	 * of the entries' dictionary, so strings interned during a sort cannot
+	 * change some of the keys
+	 * 
+	 * @param first an entry with the dictionary of every entry to be keyed
+	 * 
+	 * @return the function giving the rank of an entry's user id
+	 */
+	@Override
+	public ToLongFunction<LogEntry> majorKeys(LogEntry first) {
+		final int[] ranks = first.getDictionary().ranks();
+		return new ToLongFunction<LogEntry>() {
+			@Override
+			public long applyAsLong(LogEntry e) {
+				return ranks[e.getUserId()];
+			}
+		};
+	}
+
+	/**
+	 * Gets the entry's time stamp
+	 * 
+	 * @param e the entry
+	 * 
+	 * @return the packed yyyyMMddHHmmss time stamp
+	 */
+	@Override
+	public long minorKey(LogEntry e) {
+		return e.getTimeStamp().getVal();
+	}
+
 }
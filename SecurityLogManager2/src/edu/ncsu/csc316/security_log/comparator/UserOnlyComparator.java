@@ -1,13 +1,17 @@
 package edu.ncsu.csc316.security_log.comparator;
 
+import java.util.function.ToLongFunction;
+
 import edu.ncsu.csc316.security_log.data.LogEntry;
 
 /**
- * Comparator used for binary searching a list of log entries solely by user
+ * Comparator used for binary searching a list of log entries solely by user.
+ * Entries that share a dictionary are keyed by the alphabetical rank of their
+ * user, so lists of them can be radix sorted.
  * 
  * @author Noah Benveniste
  */
-public class UserOnlyComparator implements Comparator<LogEntry> {
+public class UserOnlyComparator implements KeyedComparator<LogEntry> {
 
 	/**
 	 * Sorts alphabetically by user
@@ -20,8 +24,53 @@ public class UserOnlyComparator implements Comparator<LogEntry> {
 	@Override
 	public int compareTo(LogEntry e1, LogEntry e2) {
 		
-		return e1.getUser().compareTo(e2.getUser());
+		return e1.compareUser(e2);
 		
 	}
 
+	/**
+	 * Checks that two entries share a dictionary, so their user ids can be ranked together
+	 * 
+	 * @param e1 the first entry
+	 * @param e2 the second entry
+	 * 
+	 * @return true if the entries have the same dictionary
+	 */
+	@Override
+	public boolean encodable(LogEntry e1, LogEntry e2) {
+		return e1.getDictionary() == e2.getDictionary();
+	}
+
+	/**
+	 * Gets the alphabetical rank of each entry's user, all from one rank array
+	 * of the entries' dictionary, so strings interned during a sort cannot
+	 * change some of the keys
+	 * 
+	 * @param first an entry with the dictionary of every entry to be keyed
+	 * 
+	 * @return the function giving the rank of an entry's user id
+	 */
+	@Override
+	public ToLongFunction<LogEntry> majorKeys(LogEntry first) {
+		final int[] ranks = first.getDictionary().ranks();
+		return new ToLongFunction<LogEntry>() {
+			@Override
+			public long applyAsLong(LogEntry e) {
+				return ranks[e.getUserId()];
+			}
+		};
+	}
+
+	/**
+	 * Entries are compared by user alone, so every entry has the same minor key
+	 * 
+	 * @param e the entry
+	 * 
+	 * @return zero
+	 */
+	@Override
+	public long minorKey(LogEntry e) {
+		return 0;
+	}
+
 }
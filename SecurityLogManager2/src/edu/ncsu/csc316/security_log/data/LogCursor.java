@@ -0,0 +1,107 @@
+package edu.ncsu.csc316.security_log.data;
+
+/**
+ * Steps through a range of rows of a LogStore. The cursor starts before the
+ * first row; each call to next() moves it one row forward, after which the
+ * row's columns can be read without creating any objects.
+ *
+ * <pre>
+ * LogCursor c = store.cursor();
+ * while (c.next()) {
+ *     if (c.time() &gt;= start) { ... }
+ * }
+ * </pre>
+ *
+ * @author Noah Benveniste
+ */
+public class LogCursor {
+
+	/** The store being read */
+	private LogStore store;
+	/** The current row */
+	private int row;
+	/** One past the last row of the range */
+	private int end;
+
+	/**
+	 * Constructs a cursor over the rows [from, to) of a store
+	 *
+	 * @param store the store to read
+	 * @param from the first row
+	 * @param to one past the last row
+	 */
+	LogCursor( LogStore store, int from, int to ) {
+		this.store = store;
+		this.row = from - 1;
+		this.end = to;
+	}
+
+	/**
+	 * Moves to the next row
+	 *
+	 * @return true if there is a next row, false if the end of the range was reached
+	 */
+	public boolean next() {
+		if (row + 1 >= end) {
+			row = end;
+			return false;
+		}
+		row++;
+		return true;
+	}
+
+	/**
+	 * Gets the position of the current row in the store
+	 *
+	 * @return the current row
+	 */
+	public int row() {
+		return row;
+	}
+
+	/**
+	 * Gets the packed time stamp of the current row
+	 *
+	 * @return the packed yyyyMMddHHmmss time stamp
+	 */
+	public long time() {
+		return store.getTime(row);
+	}
+
+	/**
+	 * Gets the user id of the current row
+	 *
+	 * @return the user id
+	 */
+	public int user() {
+		return store.getUser(row);
+	}
+
+	/**
+	 * Gets the action id of the current row
+	 *
+	 * @return the action id
+	 */
+	public int action() {
+		return store.getAction(row);
+	}
+
+	/**
+	 * Gets the resource id of the current row
+	 *
+	 * @return the resource id
+	 */
+	public int resource() {
+		return store.getResource(row);
+	}
+
+	/**
+	 * Builds a LogEntry for the current row
+	 *
+	 * @return a new entry holding the current row's values
+	 */
+	public LogEntry entry() {
+		return store.getEntry(row);
+	}
+
+}
@@ -8,23 +8,24 @@ package edu.ncsu.csc316.security_log.data;
  */
 public class LogEntry implements Comparable<LogEntry> {
 
-	/** The user */
-    private String user;
-    /** The action */
-    private String action;
-    /** The resource */
-    private String resource;
+	/** The dictionary the user, action and resource ids belong to */
+    private StringDictionary dictionary;
+	/** The id of the user */
+    private int user;
+    /** The id of the action */
+    private int action;
+    /** The id of the resource */
+    private int resource;
     /** The timestamp */
     private TimeStamp timeStamp;
     /** Used to store the entry's hash to avoid redundancy */
     private int hashCode;
     /** The number of times a log entry with this action/resource is looked up in the hash table */
     private int freq;
-    /** Keeps track of the total number of entries over a time interval */
-    public static int total = 0;
     
     /**
-     * Constructs a LogEntry
+     * Constructs a LogEntry with its own dictionary. Used for one-off entries;
+     * entries loaded from a file share the loader's dictionary instead.
      * 
      * @param user the user associated with the log entry
      * @param timeStamp the time at which the log entry was made
@@ -32,8 +33,36 @@ public class LogEntry implements Comparable<LogEntry> {
      * @param resource the resource that was affected by the action
      */
     public LogEntry( String user, String timeStamp, String action, String resource ) {
+        this(new StringDictionary(), user, timeStamp, action, resource);
+    }
+    
+    /**
+     * Constructs a LogEntry, interning its strings in the given dictionary
+     * 
+     * @param dictionary the dictionary to intern the user, action and resource in
+     * @param user the user associated with the log entry
+     * @param timeStamp the time at which the log entry was made
+     * @param action the action the user took
+     * @param resource the resource that was affected by the action
+     */
+    public LogEntry( StringDictionary dictionary, String user, String timeStamp, String action, String resource ) {
+        this(dictionary, dictionary.intern(user), new TimeStamp(timeStamp), dictionary.intern(action),
+                dictionary.intern(resource));
+    }
+    
+    /**
+     * Constructs a LogEntry from already interned strings
+     * 
+     * @param dictionary the dictionary the ids belong to
+     * @param user the id of the user associated with the log entry
+     * @param timeStamp the time at which the log entry was made
+     * @param action the id of the action the user took
+     * @param resource the id of the resource that was affected by the action
+     */
+    public LogEntry( StringDictionary dictionary, int user, TimeStamp timeStamp, int action, int resource ) {
+        this.dictionary = dictionary;
         this.user = user;
-        this.timeStamp = new TimeStamp(timeStamp);
+        this.timeStamp = timeStamp;
         this.action = action;
         this.resource = resource;
         this.hashCode = 0;
@@ -46,7 +75,7 @@ public class LogEntry implements Comparable<LogEntry> {
      * @return the user
      */
     public String getUser() {
-        return this.user;
+        return dictionary.get(this.user);
     }
     
     /**
@@ -55,7 +84,7 @@ public class LogEntry implements Comparable<LogEntry> {
      * @return the action
      */
     public String getAction() {
-        return this.action;
+        return dictionary.get(this.action);
     }
     
     /**
@@ -64,8 +93,90 @@ public class LogEntry implements Comparable<LogEntry> {
      * @return the resource
      */
     public String getResource() {
+        return dictionary.get(this.resource);
+    }
+    
+    /**
+     * Gets the dictionary the user, action and resource ids belong to
+     * 
+     * @return the dictionary
+     */
+    public StringDictionary getDictionary() {
+        return this.dictionary;
+    }
+    
+    /**
+     * Gets the dictionary id of the user
+     * 
+     * @return the user id
+     */
+    public int getUserId() {
+        return this.user;
+    }
+    
+    /**
+     * Gets the dictionary id of the action
+     * 
+     * @return the action id
+     */
+    public int getActionId() {
+        return this.action;
+    }
+    
+    /**
+     * Gets the dictionary id of the resource
+     * 
+     * @return the resource id
+     */
+    public int getResourceId() {
         return this.resource;
     }
+    
+    /**
+     * Compares the users of two entries alphabetically. Entries that share a
+     * dictionary and a user id are equal without looking at the strings.
+     * 
+     * @param other the other log entry
+     * 
+     * @return negative if this user comes first, positive if it comes second, zero if they are the same
+     */
+    public int compareUser( LogEntry other ) {
+        if (dictionary == other.dictionary) {
+            return dictionary.compare(user, other.user);
+        }
+        return getUser().compareTo(other.getUser());
+    }
+    
+    /**
+     * Compares the actions of two entries alphabetically. Entries that share a
+     * dictionary and an action id are equal without looking at the strings.
+     * 
+     * @param other the other log entry
+     * 
+     * @return negative if this action comes first, positive if it comes second, zero if they are the same
+     */
+    public int compareAction( LogEntry other ) {
+        if (dictionary == other.dictionary) {
+            return dictionary.compare(action, other.action);
+        }
+        return getAction().compareTo(other.getAction());
+    }
+    
+    /**
+     * Compares the resources of two entries alphabetically. Entries that share a
+     * dictionary and a resource id are equal without looking at the strings.
+     * 
+     * @param other the other log entry
+     * 
+     * @return negative if this resource comes first, positive if it comes second, zero if they are the same
+     */
+    public int compareResource( LogEntry other ) {
+        if (dictionary == other.dictionary) {
+            return dictionary.compare(resource, other.resource);
+        }
+        return getResource().compareTo(other.getResource());
+    }
+    
     /**
      * Gets the time stamp
      * 
@@ -91,6 +202,15 @@ public class LogEntry implements Comparable<LogEntry> {
     	freq++;
     }
     
+    /**
+     * Increases the frequency counter by n
+     * 
+     * @param n the amount to add
+     */
+    public void addFrequency( int n ) {
+    	freq += n;
+    }
+    
     /**
      * Unused method; comparisons done via comparators instead
      * 
@@ -109,19 +229,20 @@ public class LogEntry implements Comparable<LogEntry> {
      * @return a string representation of the log entry
      */
     public String toString() {
-    	return new StringBuilder().append(user)
+    	return new StringBuilder().append(getUser())
     							  .append(", ")
     							  .append(timeStamp.getOriginalString())
     							  .append(", ")
-    							  .append(action)
+    							  .append(getAction())
     							  .append(", ")
-    							  .append(resource).toString();
+    							  .append(getResource()).toString();
     }
 
 	/**
 	 * Generates a hash code for this log entry based on action and resource.
-	 * If the log entry is being hashed for the first time, save the hash
-	 * code to save on subsequent compression operations during rehashing.
+	 * Uses the hash codes the dictionary keeps for each id, so the strings are
+	 * not touched. If the log entry is being hashed for the first time, save the
+	 * hash code to save on subsequent compression operations during rehashing.
 	 * 
 	 * @return the hash code for this log entry
 	 */
@@ -130,8 +251,8 @@ public class LogEntry implements Comparable<LogEntry> {
 		if (this.hashCode == 0) {
 			final int prime = 31;
 			int result = 1;
-			result = prime * result + ((action == null) ? 0 : action.hashCode());
-			result = prime * result + ((resource == null) ? 0 : resource.hashCode());
+			result = prime * result + dictionary.hashCode(action);
+			result = prime * result + dictionary.hashCode(resource);
 			this.hashCode = result;
 			return result;
 		} else {
@@ -140,7 +261,8 @@ public class LogEntry implements Comparable<LogEntry> {
 	}
 
 	/**
-	 * Equals method that compares only action and resource
+	 * Equals method that compares only action and resource. Entries that share
+	 * a dictionary are compared by id.
 	 * 
 	 * @param obj the object to check for equality
 	 * 
@@ -155,17 +277,9 @@ public class LogEntry implements Comparable<LogEntry> {
 		if (getClass() != obj.getClass())
 			return false;
 		LogEntry other = (LogEntry) obj;
-		if (action == null) {
-			if (other.action != null)
-				return false;
-		} else if (!action.equals(other.action))
-			return false;
-		if (resource == null) {
-			if (other.resource != null)
-				return false;
-		} else if (!resource.equals(other.resource))
-			return false;
-		return true;
+		if (dictionary == other.dictionary)
+			return action == other.action && resource == other.resource;
+		return getAction().equals(other.getAction()) && getResource().equals(other.getResource());
 	}
 
 }
@@ -0,0 +1,107 @@
+package edu.ncsu.csc316.security_log.data;
+
+/**
+ * A read-only view of a LogStore together with the indexes the reports are
+ * answered from; a LogSnapshot is made of one or more segments. Everything is
+ * built in the constructor and never changed after, and every field is final,
+ * so once a segment is constructed any number of threads can query it at the
+ * same time without locking. Queries keep their own state, such as a
+ * PairCounts, and never write to the segment.
+ *
+ * The store must not be added to once it is in a segment.
+ *
+ * @author Noah Benveniste
+ */
+public final class LogSegment {
+
+	/** The entries, one row per entry */
+	private final LogStore store;
+	/** The rows of store in time stamp order */
+	private final TimeIndex timeIndex;
+	/** Per minute, hour and day counts of store */
+	private final TimeRollup rollup;
+	/** The rows of each user of store, in report order */
+	private final UserIndex userIndex;
+	/** The earliest time stamp in store */
+	private final long minTime;
+	/** The latest time stamp in store */
+	private final long maxTime;
+
+	/**
+	 * Builds a segment of every row in a store
+	 *
+	 * @param store the store, which must not be added to afterwards
+	 */
+	public LogSegment( LogStore store ) {
+		this.store = store;
+		this.timeIndex = new TimeIndex(store);
+		this.rollup = new TimeRollup(store, timeIndex);
+		this.userIndex = new UserIndex(store, timeIndex);
+		this.minTime = store.getMinTime();
+		this.maxTime = store.getMaxTime();
+	}
+
+	/**
+	 * Gets the store
+	 *
+	 * @return the store, which must not be added to
+	 */
+	public LogStore getStore() {
+		return store;
+	}
+
+	/**
+	 * Gets the time index of the store
+	 *
+	 * @return the time index
+	 */
+	public TimeIndex getTimeIndex() {
+		return timeIndex;
+	}
+
+	/**
+	 * Gets the per minute, hour and day counts of the store
+	 *
+	 * @return the rollup
+	 */
+	public TimeRollup getRollup() {
+		return rollup;
+	}
+
+	/**
+	 * Gets the per-user index of the store
+	 *
+	 * @return the user index
+	 */
+	public UserIndex getUserIndex() {
+		return userIndex;
+	}
+
+	/**
+	 * Gets the earliest time stamp in the segment
+	 *
+	 * @return the packed time stamp, or 0 if the segment is empty
+	 */
+	public long getMinTime() {
+		return minTime;
+	}
+
+	/**
+	 * Gets the latest time stamp in the segment
+	 *
+	 * @return the packed time stamp, or 0 if the segment is empty
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Gets the number of rows in the segment
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return store.size();
+	}
+
+}
@@ -0,0 +1,538 @@
+package edu.ncsu.csc316.security_log.data;
+
+import java.time.LocalDate;
+
+import edu.ncsu.csc316.security_log.list.RadixSort;
+
+/**
+ * An immutable view of every entry appended to a log up to some point, made of
+ * LogSegments that share one dictionary. The rows of the segments are numbered
+ * one after the other, in segment order, so a row of the snapshot is a row of
+ * exactly one segment.
+ *
+ * The segments are partitioned by time: every row of a segment has a time
+ * stamp on the same day, and the segments are kept in day order, oldest
+ * appended first within a day. A query over an interval only looks at the
+ * segments of the days the interval touches, and counts a segment whose
+ * earliest and latest time stamps are both inside the interval from its day
+ * totals without walking its rows. Old days can be dropped as whole segments,
+ * without touching the rest.
+ *
+ * append() never changes a snapshot; it returns a new one with the batch
+ * split into a segment per day, sharing the segments that did not change. To
+ * keep the number of segments of a day down, each new one is merged with the
+ * one before it on the same day for as long as it is at least half that one's
+ * size, as in a binary counter. A day of n rows therefore has O(log n)
+ * segments, and each row is copied O(log n) times over all the appends that
+ * build it.
+ *
+ * @author Noah Benveniste
+ */
+public final class LogSnapshot {
+
+	/** Divisor that turns a packed time stamp into its day */
+	private static final long DAY = 1000000L;
+
+	/** The dictionary every segment's ids belong to */
+	private final StringDictionary dictionary;
+	/** The segments, by day and then oldest first */
+	private final LogSegment[] segments;
+	/** The day of each segment, as its packed yyyyMMdd */
+	private final long[] days;
+	/** The first row of each segment, plus the number of rows */
+	private final int[] bases;
+	/** The earliest time stamp in any segment */
+	private final long minTime;
+	/** The latest time stamp in any segment */
+	private final long maxTime;
+
+	/**
+	 * Constructs an empty snapshot
+	 *
+	 * @param dictionary the dictionary the appended rows will use
+	 */
+	public LogSnapshot( StringDictionary dictionary ) {
+		this(dictionary, new LogSegment[0]);
+	}
+
+	/**
+	 * Constructs a snapshot of every row in a store
+	 *
+	 * @param store the store, which must not be added to afterwards
+	 */
+	public LogSnapshot( LogStore store ) {
+		this(store.getDictionary(), partition(store));
+	}
+
+	/**
+	 * Constructs a snapshot of a list of segments
+	 *
+	 * @param dictionary the dictionary of the segments
+	 * @param segments the segments, by day and then oldest first
+	 */
+	private LogSnapshot( StringDictionary dictionary, LogSegment[] segments ) {
+		this.dictionary = dictionary;
+		this.segments = segments;
+		this.days = new long[segments.length];
+		this.bases = new int[segments.length + 1];
+		long min = 0;
+		long max = 0;
+		for (int i = 0; i < segments.length; i++) {
+			LogSegment s = segments[i];
+			days[i] = s.getMinTime() / DAY;
+			bases[i + 1] = bases[i] + s.size();
+			if (i == 0 || s.getMinTime() < min) {
+				min = s.getMinTime();
+			}
+			if (i == 0 || s.getMaxTime() > max) {
+				max = s.getMaxTime();
+			}
+		}
+		this.minTime = min;
+		this.maxTime = max;
+	}
+
+	/**
+	 * Splits the rows of a store into a segment per day
+	 *
+	 * @param store the store, which must not be added to afterwards
+	 *
+	 * @return the segments, in day order, each with its rows in store order
+	 */
+	private static LogSegment[] partition( LogStore store ) {
+		LogStore[] parts = split(store);
+		LogSegment[] segments = new LogSegment[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			segments[i] = new LogSegment(parts[i]);
+		}
+		return segments;
+	}
+
+	/**
+	 * Splits the rows of a store by day. A store whose rows are all on one day,
+	 * as a batch appended to a live log usually is, is returned as it is.
+	 *
+	 * @param store the store
+	 *
+	 * @return a store per day, in day order, each with its rows in store order;
+	 *         none if the store is empty
+	 */
+	private static LogStore[] split( LogStore store ) {
+		int n = store.size();
+		if (n == 0) {
+			return new LogStore[0];
+		}
+		if (store.getMinTime() / DAY == store.getMaxTime() / DAY) {
+			return new LogStore[] {store};
+		}
+		long[] keys = new long[n];
+		int[] rows = new int[n];
+		for (int row = 0; row < n; row++) {
+			keys[row] = store.getTime(row) / DAY;
+			rows[row] = row;
+		}
+		// Stable, so each day keeps its rows in store order
+		RadixSort.sort(keys, rows, 0, n);
+		int parts = 1;
+		for (int i = 1; i < n; i++) {
+			if (keys[i] != keys[i - 1]) {
+				parts++;
+			}
+		}
+		LogStore[] split = new LogStore[parts];
+		int i = 0;
+		for (int p = 0; p < parts; p++) {
+			int j = i + 1;
+			while (j < n && keys[j] == keys[i]) {
+				j++;
+			}
+			split[p] = new LogStore(store.getDictionary(), j - i);
+			for (int k = i; k < j; k++) {
+				split[p].add(store, rows[k]);
+			}
+			i = j;
+		}
+		return split;
+	}
+
+	/**
+	 * Makes a new snapshot with the rows of a batch added after this one's
+	 *
+	 * @param batch the rows to add, which must not be added to afterwards
+	 *
+	 * @return the new snapshot, or this snapshot if the batch is empty
+	 *
+	 * @throws IllegalArgumentException if the batch does not use this snapshot's dictionary
+	 */
+	public LogSnapshot append( LogStore batch ) {
+		if (batch.getDictionary() != dictionary) {
+			throw new IllegalArgumentException("Stores must share a dictionary");
+		}
+		if (batch.size() == 0) {
+			return this;
+		}
+		LogSegment[] next = segments;
+		for (LogStore part : split(batch)) {
+			next = insert(next, part);
+		}
+		return new LogSnapshot(dictionary, next);
+	}
+
+	/**
+	 * Adds the rows of one day as the newest segment of that day, merging it
+	 * with the older segments of the day while it is at least half their size
+	 *
+	 * @param segments the segments, by day and then oldest first
+	 * @param part the rows, all on one day
+	 *
+	 * @return a new array of segments
+	 */
+	private LogSegment[] insert( LogSegment[] segments, LogStore part ) {
+		long day = part.getMinTime() / DAY;
+		// The day's segments are [first, end)
+		int end = 0;
+		while (end < segments.length && segments[end].getMinTime() / DAY <= day) {
+			end++;
+		}
+		int first = end;
+		while (first > 0 && segments[first - 1].getMinTime() / DAY == day) {
+			first--;
+		}
+		int k = end;
+		LogStore newest = part;
+		while (k > first && 2 * newest.size() >= segments[k - 1].size()) {
+			// Merge with the previous segment into a new store; the old one may still be read
+			LogStore older = segments[k - 1].getStore();
+			LogStore merged = new LogStore(dictionary, older.size() + newest.size());
+			merged.addAll(older);
+			merged.addAll(newest);
+			newest = merged;
+			k--;
+		}
+		LogSegment[] next = new LogSegment[k + 1 + segments.length - end];
+		System.arraycopy(segments, 0, next, 0, k);
+		next[k] = new LogSegment(newest);
+		System.arraycopy(segments, end, next, k + 1, segments.length - end);
+		return next;
+	}
+
+	/**
+	 * Makes a new snapshot without the days before the day of a time stamp.
+	 * Whole segments are dropped; the others are shared.
+	 *
+	 * @param time the packed time stamp; rows on its day and later are kept
+	 *
+	 * @return the new snapshot, or this snapshot if no day is dropped
+	 */
+	public LogSnapshot dropBefore( long time ) {
+		int cut = firstSegment(time / DAY);
+		if (cut == 0) {
+			return this;
+		}
+		LogSegment[] kept = new LogSegment[segments.length - cut];
+		System.arraycopy(segments, cut, kept, 0, kept.length);
+		return new LogSnapshot(dictionary, kept);
+	}
+
+	/**
+	 * Makes a new snapshot with only the rows of the latest days, counting
+	 * back from the day of the latest time stamp
+	 *
+	 * @param count the number of calendar days to keep, including the latest
+	 *
+	 * @return the new snapshot, or this snapshot if no day is dropped
+	 *
+	 * @throws IllegalArgumentException if count is less than 1
+	 */
+	public LogSnapshot retainDays( int count ) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Must keep at least one day");
+		}
+		if (segments.length == 0) {
+			return this;
+		}
+		long day = maxTime / DAY;
+		// Built up leniently, since time stamps are not checked to be real dates
+		LocalDate latest = LocalDate.of((int) (day / 10000), 1, 1).plusMonths(day / 100 % 100 - 1).plusDays(day % 100 - 1);
+		LocalDate oldest = latest.minusDays(count - 1);
+		long packed = oldest.getYear() * 10000L + oldest.getMonthValue() * 100 + oldest.getDayOfMonth();
+		return dropBefore(packed * DAY);
+	}
+
+	/**
+	 * Finds the first segment of the day of a time stamp, or of the first day
+	 * after it that has any
+	 *
+	 * @param time the packed time stamp
+	 *
+	 * @return the index of the segment, or the number of segments if every segment is earlier
+	 */
+	public int getSegmentStart( long time ) {
+		return firstSegment(time / DAY);
+	}
+
+	/**
+	 * Finds the end of the segments up to the day of a time stamp
+	 *
+	 * @param time the packed time stamp
+	 *
+	 * @return the index after the last segment of the day or any earlier one
+	 */
+	public int getSegmentEnd( long time ) {
+		return firstSegment(time / DAY + 1);
+	}
+
+	/**
+	 * Finds the first segment on or after a day
+	 *
+	 * @param day the packed yyyyMMdd day
+	 *
+	 * @return the index of the segment, or the number of segments if every segment is earlier
+	 */
+	private int firstSegment( long day ) {
+		int low = 0;
+		int high = segments.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (days[mid] < day) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Counts the action/resource pairs of the rows whose time stamps are within
+	 * [start, end] in every segment. Only the segments of the days from start
+	 * to end are looked at. The rows recorded in counts are rows of this
+	 * snapshot.
+	 *
+	 * @param start the packed start time, inclusive
+	 * @param end the packed end time, inclusive
+	 * @param counts the counts to add the pairs to
+	 *
+	 * @return the number of rows counted
+	 */
+	public int aggregate( long start, long end, PairCounts counts ) {
+		int total = 0;
+		long lastDay = end / DAY;
+		for (int i = firstSegment(start / DAY); i < segments.length && days[i] <= lastDay; i++) {
+			LogSegment s = segments[i];
+			if (s.getMaxTime() < start || s.getMinTime() > end) {
+				continue;
+			}
+			if (start <= s.getMinTime() && s.getMaxTime() <= end) {
+				total += s.getRollup().aggregateAll(counts, bases[i]);
+			} else {
+				total += s.getRollup().aggregate(start, end, counts, bases[i]);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the rows of a user in report order: by time stamp, then action, then
+	 * resource. Each segment's posting list is already in that order, and the
+	 * days follow each other, so only the segments of the same day are merged.
+	 *
+	 * @param user the user id, or -1 for an unknown user
+	 *
+	 * @return the rows of the snapshot, which is empty if the user has none
+	 */
+	public int[] getUserRows( int user ) {
+		int k = segments.length;
+		int[] pos = new int[k];
+		int[] end = new int[k];
+		int n = 0;
+		for (int i = 0; i < k; i++) {
+			UserIndex index = segments[i].getUserIndex();
+			pos[i] = index.getStart(user);
+			end[i] = index.getEnd(user);
+			n += end[i] - pos[i];
+		}
+		int[] rows = new int[n];
+		int out = 0;
+		int first = 0;
+		while (first < k) {
+			// The day's segments are [first, last)
+			int last = first + 1;
+			while (last < k && days[last] == days[first]) {
+				last++;
+			}
+			while (true) {
+				// Take the first of the segments' next rows, preferring older segments on ties
+				int best = -1;
+				for (int i = first; i < last; i++) {
+					if (pos[i] < end[i] && (best < 0 || compareRows(i, pos[i], best, pos[best]) < 0)) {
+						best = i;
+					}
+				}
+				if (best < 0) {
+					break;
+				}
+				rows[out++] = bases[best] + segments[best].getUserIndex().getRow(pos[best]++);
+			}
+			first = last;
+		}
+		return rows;
+	}
+
+	/**
+	 * Compares the rows at two positions of two segments' user indexes by time
+	 * stamp, then action, then resource
+	 *
+	 * @param s1 the first segment
+	 * @param p1 the position in the first segment's user index
+	 * @param s2 the second segment
+	 * @param p2 the position in the second segment's user index
+	 *
+	 * @return negative if the first row comes first, positive if it comes second, zero if they tie
+	 */
+	private int compareRows( int s1, int p1, int s2, int p2 ) {
+		LogStore a = segments[s1].getStore();
+		LogStore b = segments[s2].getStore();
+		int r1 = segments[s1].getUserIndex().getRow(p1);
+		int r2 = segments[s2].getUserIndex().getRow(p2);
+		int c = Long.compare(a.getTime(r1), b.getTime(r2));
+		if (c == 0) {
+			c = dictionary.compare(a.getAction(r1), b.getAction(r2));
+		}
+		if (c == 0) {
+			c = dictionary.compare(a.getResource(r1), b.getResource(r2));
+		}
+		return c;
+	}
+
+	/**
+	 * Finds the segment holding a row
+	 *
+	 * @param row the row of the snapshot
+	 *
+	 * @return the index of the segment
+	 *
+	 * @throws IndexOutOfBoundsException if the row is not in the snapshot
+	 */
+	private int segmentOf( int row ) {
+		if (row < 0 || row >= size()) {
+			throw new IndexOutOfBoundsException("Index is outside the acceptable range");
+		}
+		int low = 0;
+		int high = segments.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (bases[mid] <= row) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Builds a LogEntry for a row
+	 *
+	 * @param row the row of the snapshot
+	 *
+	 * @return a new entry with the row's values
+	 */
+	public LogEntry getEntry( int row ) {
+		int s = segmentOf(row);
+		return segments[s].getStore().getEntry(row - bases[s]);
+	}
+
+	/**
+	 * Gets the time stamp of a row, keeping its original text
+	 *
+	 * @param row the row of the snapshot
+	 *
+	 * @return a new time stamp
+	 */
+	public TimeStamp getTimeStamp( int row ) {
+		int s = segmentOf(row);
+		return segments[s].getStore().getTimeStamp(row - bases[s]);
+	}
+
+	/**
+	 * Gets the action id of a row
+	 *
+	 * @param row the row of the snapshot
+	 *
+	 * @return the action id
+	 */
+	public int getAction( int row ) {
+		int s = segmentOf(row);
+		return segments[s].getStore().getAction(row - bases[s]);
+	}
+
+	/**
+	 * Gets the resource id of a row
+	 *
+	 * @param row the row of the snapshot
+	 *
+	 * @return the resource id
+	 */
+	public int getResource( int row ) {
+		int s = segmentOf(row);
+		return segments[s].getStore().getResource(row - bases[s]);
+	}
+
+	/**
+	 * Gets the dictionary of every segment
+	 *
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Gets the number of segments
+	 *
+	 * @return the number of segments
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * Gets a segment
+	 *
+	 * @param i the index of the segment, from 0 for the first of the earliest day
+	 *
+	 * @return the segment
+	 */
+	public LogSegment getSegment( int i ) {
+		return segments[i];
+	}
+
+	/**
+	 * Gets the earliest time stamp in the snapshot
+	 *
+	 * @return the packed time stamp, or 0 if the snapshot is empty
+	 */
+	public long getMinTime() {
+		return minTime;
+	}
+
+	/**
+	 * Gets the latest time stamp in the snapshot
+	 *
+	 * @return the packed time stamp, or 0 if the snapshot is empty
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Gets the number of rows in the snapshot
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return bases[segments.length];
+	}
+
+}
@@ -0,0 +1,452 @@
+package edu.ncsu.csc316.security_log.data;
+
+/**
+ * A columnar (struct of arrays) store of log entries. Row i of the log is held
+ * at index i of four parallel primitive arrays: the packed time stamp and the
+ * dictionary ids of the user, action and resource. A scan over a column is a
+ * sequential read of a long[] or int[] rather than a walk over LogEntry,
+ * TimeStamp and String objects, and a row costs 20 bytes instead of a graph
+ * of objects.
+ *
+ * The few time stamps that TimeStamp.format() does not reproduce exactly
+ * (a "00" hour) keep their original text in a small side table.
+ *
+ * Rows are only ever appended; their positions never change.
+ *
+ * @author Noah Benveniste
+ */
+public class LogStore {
+
+	/** Default initial capacity of the columns */
+	private static final int INIT_SIZE = 1000;
+
+	/** The dictionary the user, action and resource ids belong to */
+	private StringDictionary dictionary;
+	/** The packed yyyyMMddHHmmss time stamp of each row */
+	private long[] times;
+	/** The user id of each row */
+	private int[] users;
+	/** The action id of each row */
+	private int[] actions;
+	/** The resource id of each row */
+	private int[] resources;
+	/** The number of rows */
+	private int size;
+	/** The earliest time stamp in the store */
+	private long minTime;
+	/** The latest time stamp in the store */
+	private long maxTime;
+	/** The rows whose time stamp text is kept, in ascending order */
+	private int[] rawTimeRows;
+	/** The kept time stamp text of each row in rawTimeRows */
+	private String[] rawTimes;
+	/** The number of rows whose time stamp text is kept */
+	private int rawCount;
+
+	/**
+	 * Constructs an empty store with a default initial capacity
+	 *
+	 * @param dictionary the dictionary the ids of added rows belong to
+	 */
+	public LogStore( StringDictionary dictionary ) {
+		this(dictionary, INIT_SIZE);
+	}
+
+	/**
+	 * Constructs an empty store
+	 *
+	 * @param dictionary the dictionary the ids of added rows belong to
+	 * @param capacity the initial capacity of the columns
+	 */
+	public LogStore( StringDictionary dictionary, int capacity ) {
+		this.dictionary = dictionary;
+		capacity = Math.max(capacity, 1);
+		this.times = new long[capacity];
+		this.users = new int[capacity];
+		this.actions = new int[capacity];
+		this.resources = new int[capacity];
+		this.size = 0;
+		this.minTime = 0;
+		this.maxTime = 0;
+		this.rawTimeRows = new int[0];
+		this.rawTimes = new String[0];
+		this.rawCount = 0;
+	}
+
+	/**
+	 * Constructs a store whose rows are the given columns. The store keeps the
+	 * arrays as its own columns rather than copying them, so they must not be
+	 * changed afterwards.
+	 *
+	 * @param dictionary the dictionary the ids belong to
+	 * @param times the packed yyyyMMddHHmmss time stamp of each row
+	 * @param users the user id of each row
+	 * @param actions the action id of each row
+	 * @param resources the resource id of each row
+	 * @param rawTimeRows the rows whose time stamp text is kept, in ascending order
+	 * @param rawTimes the kept time stamp text of each row in rawTimeRows
+	 *
+	 * @throws IllegalArgumentException if the columns or the kept time stamps
+	 *         differ in length, or a kept row is out of order or not in the store
+	 */
+	public LogStore( StringDictionary dictionary, long[] times, int[] users, int[] actions, int[] resources,
+			int[] rawTimeRows, String[] rawTimes ) {
+		int n = times.length;
+		if (users.length != n || actions.length != n || resources.length != n) {
+			throw new IllegalArgumentException("Columns must have the same length");
+		}
+		if (rawTimeRows.length != rawTimes.length) {
+			throw new IllegalArgumentException("Each kept time stamp must have a row");
+		}
+		for (int i = 0; i < rawTimeRows.length; i++) {
+			if (rawTimeRows[i] < 0 || rawTimeRows[i] >= n || (i > 0 && rawTimeRows[i] <= rawTimeRows[i - 1])) {
+				throw new IllegalArgumentException("Kept time stamp rows must be ascending rows of the store");
+			}
+		}
+		this.dictionary = dictionary;
+		this.times = times;
+		this.users = users;
+		this.actions = actions;
+		this.resources = resources;
+		this.size = n;
+		this.minTime = 0;
+		this.maxTime = 0;
+		for (int row = 0; row < n; row++) {
+			if (row == 0 || times[row] < minTime) {
+				minTime = times[row];
+			}
+			if (row == 0 || times[row] > maxTime) {
+				maxTime = times[row];
+			}
+		}
+		this.rawTimeRows = rawTimeRows;
+		this.rawTimes = rawTimes;
+		this.rawCount = rawTimeRows.length;
+	}
+
+	/**
+	 * Appends a row
+	 *
+	 * @param time the packed yyyyMMddHHmmss time stamp
+	 * @param rawTime the original time stamp text, or null if TimeStamp.format()
+	 *                reproduces it exactly
+	 * @param user the user id
+	 * @param action the action id
+	 * @param resource the resource id
+	 */
+	public void add( long time, String rawTime, int user, int action, int resource ) {
+		ensureCapacity(size + 1);
+		if (size == 0 || time < minTime) {
+			minTime = time;
+		}
+		if (size == 0 || time > maxTime) {
+			maxTime = time;
+		}
+		if (rawTime != null) {
+			addRawTime(size, rawTime);
+		}
+		times[size] = time;
+		users[size] = user;
+		actions[size] = action;
+		resources[size] = resource;
+		size++;
+	}
+
+	/**
+	 * Appends a log entry, interning its strings in this store's dictionary if
+	 * it uses a different one
+	 *
+	 * @param e the entry to append
+	 */
+	public void add( LogEntry e ) {
+		TimeStamp t = e.getTimeStamp();
+		String raw = t.getOriginalString();
+		if (raw.equals(TimeStamp.format(t.getVal()))) {
+			raw = null;
+		}
+		if (e.getDictionary() == dictionary) {
+			add(t.getVal(), raw, e.getUserId(), e.getActionId(), e.getResourceId());
+		} else {
+			add(t.getVal(), raw, dictionary.intern(e.getUser()), dictionary.intern(e.getAction()),
+					dictionary.intern(e.getResource()));
+		}
+	}
+
+	/**
+	 * Appends every row of another store that shares this store's dictionary
+	 *
+	 * @param other the store to append
+	 *
+	 * @throws IllegalArgumentException if the other store uses a different dictionary
+	 */
+	public void addAll( LogStore other ) {
+		if (other.dictionary != dictionary) {
+			throw new IllegalArgumentException("Stores must share a dictionary");
+		}
+		if (other.size == 0) {
+			return;
+		}
+		ensureCapacity(size + other.size);
+		if (size == 0 || other.minTime < minTime) {
+			minTime = other.minTime;
+		}
+		if (size == 0 || other.maxTime > maxTime) {
+			maxTime = other.maxTime;
+		}
+		for (int i = 0; i < other.rawCount; i++) {
+			addRawTime(size + other.rawTimeRows[i], other.rawTimes[i]);
+		}
+		System.arraycopy(other.times, 0, times, size, other.size);
+		System.arraycopy(other.users, 0, users, size, other.size);
+		System.arraycopy(other.actions, 0, actions, size, other.size);
+		System.arraycopy(other.resources, 0, resources, size, other.size);
+		size += other.size;
+	}
+
+	/**
+	 * Appends one row of another store that shares this store's dictionary
+	 *
+	 * @param other the store to copy the row from
+	 * @param row the row of the other store
+	 *
+	 * @throws IllegalArgumentException if the other store uses a different dictionary
+	 */
+	public void add( LogStore other, int row ) {
+		if (other.dictionary != dictionary) {
+			throw new IllegalArgumentException("Stores must share a dictionary");
+		}
+		int i = other.rawTimeIndex(row);
+		add(other.times[row], i < 0 ? null : other.rawTimes[i], other.users[row], other.actions[row], other.resources[row]);
+	}
+
+	/**
+	 * Grows the columns so they can hold at least n rows
+	 *
+	 * @param n the number of rows needed
+	 */
+	private void ensureCapacity( int n ) {
+		if (n <= times.length) {
+			return;
+		}
+		int capacity = Math.max(n, times.length * 2);
+		long[] newTimes = new long[capacity];
+		int[] newUsers = new int[capacity];
+		int[] newActions = new int[capacity];
+		int[] newResources = new int[capacity];
+		System.arraycopy(times, 0, newTimes, 0, size);
+		System.arraycopy(users, 0, newUsers, 0, size);
+		System.arraycopy(actions, 0, newActions, 0, size);
+		System.arraycopy(resources, 0, newResources, 0, size);
+		times = newTimes;
+		users = newUsers;
+		actions = newActions;
+		resources = newResources;
+	}
+
+	/**
+	 * Keeps the original time stamp text of a row. Rows are added in ascending order.
+	 *
+	 * @param row the row
+	 * @param rawTime the original time stamp text
+	 */
+	private void addRawTime( int row, String rawTime ) {
+		if (rawCount == rawTimeRows.length) {
+			int capacity = Math.max(4, rawCount * 2);
+			int[] newRows = new int[capacity];
+			String[] newTimes = new String[capacity];
+			System.arraycopy(rawTimeRows, 0, newRows, 0, rawCount);
+			System.arraycopy(rawTimes, 0, newTimes, 0, rawCount);
+			rawTimeRows = newRows;
+			rawTimes = newTimes;
+		}
+		rawTimeRows[rawCount] = row;
+		rawTimes[rawCount] = rawTime;
+		rawCount++;
+	}
+
+	/**
+	 * Gets the number of rows
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the dictionary the ids in this store belong to
+	 *
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Gets the earliest time stamp in the store
+	 *
+	 * @return the earliest time stamp, or 0 if the store is empty
+	 */
+	public long getMinTime() {
+		return minTime;
+	}
+
+	/**
+	 * Gets the latest time stamp in the store
+	 *
+	 * @return the latest time stamp, or 0 if the store is empty
+	 */
+	public long getMaxTime() {
+		return maxTime;
+	}
+
+	/**
+	 * Gets the packed time stamp of a row
+	 *
+	 * @param row the row
+	 *
+	 * @return the packed yyyyMMddHHmmss time stamp
+	 */
+	public long getTime( int row ) {
+		return times[row];
+	}
+
+	/**
+	 * Gets the user id of a row
+	 *
+	 * @param row the row
+	 *
+	 * @return the user id
+	 */
+	public int getUser( int row ) {
+		return users[row];
+	}
+
+	/**
+	 * Gets the action id of a row
+	 *
+	 * @param row the row
+	 *
+	 * @return the action id
+	 */
+	public int getAction( int row ) {
+		return actions[row];
+	}
+
+	/**
+	 * Gets the resource id of a row
+	 *
+	 * @param row the row
+	 *
+	 * @return the resource id
+	 */
+	public int getResource( int row ) {
+		return resources[row];
+	}
+
+	/**
+	 * Gets the time stamp of a row as a TimeStamp object
+	 *
+	 * @param row the row
+	 *
+	 * @return the time stamp
+	 */
+	public TimeStamp getTimeStamp( int row ) {
+		int i = rawTimeIndex(row);
+		return i < 0 ? new TimeStamp(times[row]) : new TimeStamp(rawTimes[i]);
+	}
+
+	/**
+	 * Finds the kept time stamp text of a row with a binary search
+	 *
+	 * @param row the row
+	 *
+	 * @return the index of the row's kept text, or -1 if its text is not kept
+	 */
+	private int rawTimeIndex( int row ) {
+		int low = 0;
+		int high = rawCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (rawTimeRows[mid] < row) {
+				low = mid + 1;
+			} else if (rawTimeRows[mid] > row) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the number of rows whose original time stamp text is kept because
+	 * TimeStamp.format() does not reproduce it
+	 *
+	 * @return the number of kept time stamps
+	 */
+	public int getRawTimeCount() {
+		return rawCount;
+	}
+
+	/**
+	 * Gets the row of a kept time stamp
+	 *
+	 * @param i the index of the kept time stamp, in row order
+	 *
+	 * @return the row
+	 */
+	public int getRawTimeRow( int i ) {
+		return rawTimeRows[i];
+	}
+
+	/**
+	 * Gets the text of a kept time stamp
+	 *
+	 * @param i the index of the kept time stamp, in row order
+	 *
+	 * @return the original time stamp text
+	 */
+	public String getRawTime( int i ) {
+		return rawTimes[i];
+	}
+
+	/**
+	 * Builds a LogEntry for a row
+	 *
+	 * @param row the row
+	 *
+	 * @return a new entry holding the row's values
+	 */
+	public LogEntry getEntry( int row ) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Index is outside the acceptable range");
+		}
+		return new LogEntry(dictionary, users[row], getTimeStamp(row), actions[row], resources[row]);
+	}
+
+	/**
+	 * Gets a cursor over every row, in order
+	 *
+	 * @return a cursor positioned before the first row
+	 */
+	public LogCursor cursor() {
+		return new LogCursor(this, 0, size);
+	}
+
+	/**
+	 * Gets a cursor over the rows [from, to), in order
+	 *
+	 * @param from the first row
+	 * @param to one past the last row
+	 *
+	 * @return a cursor positioned before row from
+	 */
+	public LogCursor cursor( int from, int to ) {
+		if (from < 0 || to > size || from > to) {
+			throw new IndexOutOfBoundsException("Index is outside the acceptable range");
+		}
+		return new LogCursor(this, from, to);
+	}
+
+}
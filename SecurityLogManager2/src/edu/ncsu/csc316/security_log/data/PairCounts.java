@@ -0,0 +1,160 @@
+package edu.ncsu.csc316.security_log.data;
+
+import edu.ncsu.csc316.security_log.dictionary.LongIntHashTable;
+
+/**
+ * Counts occurrences of action/resource pairs by their dictionary ids. Each
+ * distinct pair gets a dense index in the order it is first added, and keeps
+ * the store row of its first occurrence so an entry can be built for it later.
+ * A pair is looked up by the key (action &lt;&lt; 32 | resource) in a
+ * LongIntHashTable, so counting allocates nothing once the arrays are big
+ * enough.
+ *
+ * @author Noah Benveniste
+ */
+public class PairCounts {
+
+	/** Initial capacity of the pair arrays */
+	private static final int INIT_SIZE = 64;
+
+	/** Maps each pair key to its index */
+	private LongIntHashTable indexes;
+	/** The key of each pair */
+	private long[] keys;
+	/** The first row of each pair */
+	private int[] rows;
+	/** The count of each pair */
+	private int[] counts;
+	/** The number of distinct pairs */
+	private int n;
+	/** The sum of the counts of every pair */
+	private int total;
+
+	/**
+	 * Constructs an empty set of counts
+	 */
+	public PairCounts() {
+		indexes = new LongIntHashTable();
+		keys = new long[INIT_SIZE];
+		rows = new int[INIT_SIZE];
+		counts = new int[INIT_SIZE];
+		n = 0;
+		total = 0;
+	}
+
+	/**
+	 * Adds occurrences of a pair
+	 *
+	 * @param action the action id
+	 * @param resource the resource id
+	 * @param row a store row with the pair, kept if the pair is new
+	 * @param count the number of occurrences
+	 */
+	public void add( int action, int resource, int row, int count ) {
+		add(key(action, resource), row, count);
+	}
+
+	/**
+	 * Adds occurrences of a pair by its key
+	 *
+	 * @param key the key of the pair, from key()
+	 * @param row a store row with the pair, kept if the pair is new
+	 * @param count the number of occurrences
+	 */
+	public void add( long key, int row, int count ) {
+		int i = indexes.get(key);
+		if (i == LongIntHashTable.NO_VALUE) {
+			if (n == rows.length) {
+				long[] newKeys = new long[n * 2];
+				int[] newRows = new int[n * 2];
+				int[] newCounts = new int[n * 2];
+				System.arraycopy(keys, 0, newKeys, 0, n);
+				System.arraycopy(rows, 0, newRows, 0, n);
+				System.arraycopy(counts, 0, newCounts, 0, n);
+				keys = newKeys;
+				rows = newRows;
+				counts = newCounts;
+			}
+			i = n++;
+			indexes.put(key, i);
+			keys[i] = key;
+			rows[i] = row;
+			counts[i] = 0;
+		}
+		counts[i] += count;
+		total += count;
+	}
+
+	/**
+	 * Gets the key of an action/resource pair
+	 *
+	 * @param action the action id
+	 * @param resource the resource id
+	 *
+	 * @return (action &lt;&lt; 32 | resource)
+	 */
+	public static long key( int action, int resource ) {
+		return ((long) action << 32) | (resource & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Gets the key of a pair
+	 *
+	 * @param i the index of the pair
+	 *
+	 * @return the key of the pair
+	 */
+	public long getKey( int i ) {
+		return keys[i];
+	}
+
+	/**
+	 * Gets the number of distinct pairs
+	 *
+	 * @return the number of pairs
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Gets the number of occurrences of every pair together
+	 *
+	 * @return the sum of the counts
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Gets the store row of the first occurrence of a pair
+	 *
+	 * @param i the index of the pair
+	 *
+	 * @return the row
+	 */
+	public int getRow( int i ) {
+		return rows[i];
+	}
+
+	/**
+	 * Gets the number of occurrences of a pair
+	 *
+	 * @param i the index of the pair
+	 *
+	 * @return the count
+	 */
+	public int getCount( int i ) {
+		return counts[i];
+	}
+
+	/**
+	 * Removes every pair, keeping the current capacity
+	 */
+	public void clear() {
+		indexes.clear();
+		n = 0;
+		total = 0;
+	}
+
+}
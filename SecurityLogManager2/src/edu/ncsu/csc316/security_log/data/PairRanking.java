@@ -0,0 +1,371 @@
+package edu.ncsu.csc316.security_log.data;
+
+import edu.ncsu.csc316.security_log.dictionary.LongIntHashTable;
+
+/**
+ * Counts of action/resource pairs that go up as well as down, kept ranked in
+ * the order ARComparator sorts the pairs' entries: by count, highest first,
+ * then by action and then resource alphabetically. Changing a count by any
+ * amount takes O(log n) time for n ranked pairs, and the first k pairs of the
+ * ranking are listed in O(k + log n) time.
+ *
+ * The ranked pairs are the nodes of a treap, a binary search tree in ranking
+ * order that is also a heap on a priority hashed from each pair's key, which
+ * keeps it balanced on average. A changed pair is taken out of the tree and
+ * put back in at its new place. The nodes are held in parallel arrays and
+ * found by pair key through a LongIntHashTable, as in PairCounts. A pair
+ * whose count falls to zero leaves the tree but keeps its node, so a pair
+ * that comes and goes allocates nothing; the nodes are packed again once most
+ * of them are unused.
+ *
+ * @author Noah Benveniste
+ */
+public class PairRanking {
+
+	/** Initial capacity of the node arrays */
+	private static final int INIT_SIZE = 64;
+	/** Marks a missing child or an empty tree */
+	private static final int NIL = -1;
+	/** Golden ratio constant used to hash keys into priorities */
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	/** The dictionary the pairs' ids belong to */
+	private final StringDictionary dictionary;
+	/** Maps each pair key to its node */
+	private LongIntHashTable nodes;
+	/** The pair key of each node */
+	private long[] keys;
+	/** The count of each node */
+	private int[] counts;
+	/** The priority of each node */
+	private int[] priorities;
+	/** The left child of each node, which ranks before it */
+	private int[] left;
+	/** The right child of each node, which ranks after it */
+	private int[] right;
+	/** The root of the tree */
+	private int root;
+	/** The number of nodes */
+	private int n;
+	/** The number of nodes with a count above zero, which are in the tree */
+	private int ranked;
+	/** The sum of the counts of every pair */
+	private int total;
+
+	/**
+	 * Constructs an empty ranking
+	 *
+	 * @param dictionary the dictionary the pairs' ids belong to
+	 */
+	public PairRanking( StringDictionary dictionary ) {
+		this.dictionary = dictionary;
+		allocate(INIT_SIZE);
+	}
+
+	/**
+	 * Empties the ranking into node arrays of the given capacity
+	 *
+	 * @param capacity the capacity
+	 */
+	private void allocate( int capacity ) {
+		nodes = new LongIntHashTable();
+		keys = new long[capacity];
+		counts = new int[capacity];
+		priorities = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		root = NIL;
+		n = 0;
+		ranked = 0;
+		total = 0;
+	}
+
+	/**
+	 * Changes the count of a pair, moving it to its new place in the ranking
+	 *
+	 * @param action the action id
+	 * @param resource the resource id
+	 * @param delta the amount to add, which may be negative
+	 *
+	 * @throws IllegalArgumentException if the count would fall below zero
+	 */
+	public void add( int action, int resource, int delta ) {
+		if (delta == 0) {
+			return;
+		}
+		long key = PairCounts.key(action, resource);
+		int node = nodes.get(key);
+		int count = node == NIL ? 0 : counts[node];
+		if (count + delta < 0) {
+			throw new IllegalArgumentException("Count cannot be negative");
+		}
+		if (node == NIL) {
+			node = newNode(key);
+		} else if (count > 0) {
+			root = remove(root, node);
+			ranked--;
+		}
+		counts[node] = count + delta;
+		total += delta;
+		if (counts[node] > 0) {
+			left[node] = NIL;
+			right[node] = NIL;
+			root = insert(root, node);
+			ranked++;
+		} else if (n > INIT_SIZE && ranked < n / 4) {
+			pack();
+		}
+	}
+
+	/**
+	 * Creates a node with a count of zero for a pair, growing the arrays if needed
+	 *
+	 * @param key the pair key
+	 *
+	 * @return the node
+	 */
+	private int newNode( long key ) {
+		if (n == keys.length) {
+			keys = grow(keys);
+			counts = grow(counts);
+			priorities = grow(priorities);
+			left = grow(left);
+			right = grow(right);
+		}
+		int node = n++;
+		nodes.put(key, node);
+		keys[node] = key;
+		counts[node] = 0;
+		long h = (key ^ (key >>> 29)) * GOLDEN;
+		priorities[node] = (int) (h >>> 32);
+		return node;
+	}
+
+	/**
+	 * Rebuilds the ranking from its pairs with a count above zero, dropping the
+	 * nodes of the rest
+	 */
+	private void pack() {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		int oldN = n;
+		allocate(Math.max(INIT_SIZE, Integer.highestOneBit(ranked) << 1));
+		for (int i = 0; i < oldN; i++) {
+			if (oldCounts[i] > 0) {
+				add((int) (oldKeys[i] >>> 32), (int) oldKeys[i], oldCounts[i]);
+			}
+		}
+	}
+
+	/**
+	 * Puts a node into a subtree at its place in the ranking
+	 *
+	 * @param t the root of the subtree, or NIL
+	 * @param node the node, which has no children
+	 *
+	 * @return the new root of the subtree
+	 */
+	private int insert( int t, int node ) {
+		if (t == NIL) {
+			return node;
+		}
+		if (compare(node, t) < 0) {
+			left[t] = insert(left[t], node);
+			if (priorities[left[t]] > priorities[t]) {
+				t = rotateRight(t);
+			}
+		} else {
+			right[t] = insert(right[t], node);
+			if (priorities[right[t]] > priorities[t]) {
+				t = rotateLeft(t);
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * Takes a node out of a subtree. The node must still have the count it was
+	 * ranked by.
+	 *
+	 * @param t the root of the subtree, which holds the node
+	 * @param node the node
+	 *
+	 * @return the new root of the subtree
+	 */
+	private int remove( int t, int node ) {
+		if (t == node) {
+			return join(left[t], right[t]);
+		}
+		if (compare(node, t) < 0) {
+			left[t] = remove(left[t], node);
+		} else {
+			right[t] = remove(right[t], node);
+		}
+		return t;
+	}
+
+	/**
+	 * Joins two subtrees where every node of the first ranks before every node
+	 * of the second
+	 *
+	 * @param a the first subtree, or NIL
+	 * @param b the second subtree, or NIL
+	 *
+	 * @return the root of the joined tree
+	 */
+	private int join( int a, int b ) {
+		if (a == NIL) {
+			return b;
+		}
+		if (b == NIL) {
+			return a;
+		}
+		if (priorities[a] > priorities[b]) {
+			right[a] = join(right[a], b);
+			return a;
+		}
+		left[b] = join(a, left[b]);
+		return b;
+	}
+
+	/**
+	 * Rotates a subtree so its left child becomes its root
+	 *
+	 * @param t the root of the subtree
+	 *
+	 * @return the new root
+	 */
+	private int rotateRight( int t ) {
+		int l = left[t];
+		left[t] = right[l];
+		right[l] = t;
+		return l;
+	}
+
+	/**
+	 * Rotates a subtree so its right child becomes its root
+	 *
+	 * @param t the root of the subtree
+	 *
+	 * @return the new root
+	 */
+	private int rotateLeft( int t ) {
+		int r = right[t];
+		right[t] = left[r];
+		left[r] = t;
+		return r;
+	}
+
+	/**
+	 * Compares two nodes in ranking order
+	 *
+	 * @param a the first node
+	 * @param b the second node
+	 *
+	 * @return negative if a ranks first, positive if b ranks first, zero if they are the same pair
+	 */
+	private int compare( int a, int b ) {
+		if (counts[a] != counts[b]) {
+			return counts[b] - counts[a];
+		}
+		int c = dictionary.compare((int) (keys[a] >>> 32), (int) (keys[b] >>> 32));
+		if (c != 0) {
+			return c;
+		}
+		return dictionary.compare((int) keys[a], (int) keys[b]);
+	}
+
+	/**
+	 * Lists the first pairs of the ranking
+	 *
+	 * @param k the most pairs to list, or 0 for every pair
+	 *
+	 * @return the keys of the pairs, from PairCounts.key(), in ranking order
+	 */
+	public long[] top( int k ) {
+		int size = k == 0 ? ranked : Math.min(k, ranked);
+		long[] out = new long[size];
+		// Walk the tree in order, holding the path of nodes whose right side is still to be visited
+		int[] path = new int[64];
+		int depth = 0;
+		int t = root;
+		int i = 0;
+		while (i < size) {
+			while (t != NIL) {
+				if (depth == path.length) {
+					path = grow(path);
+				}
+				path[depth++] = t;
+				t = left[t];
+			}
+			t = path[--depth];
+			out[i++] = keys[t];
+			t = right[t];
+		}
+		return out;
+	}
+
+	/**
+	 * Gets the count of a pair
+	 *
+	 * @param key the key of the pair, from PairCounts.key()
+	 *
+	 * @return the count, which is zero for a pair never added
+	 */
+	public int getCount( long key ) {
+		int node = nodes.get(key);
+		return node == NIL ? 0 : counts[node];
+	}
+
+	/**
+	 * Gets the number of pairs with a count above zero
+	 *
+	 * @return the number of ranked pairs
+	 */
+	public int size() {
+		return ranked;
+	}
+
+	/**
+	 * Gets the sum of the counts of every pair
+	 *
+	 * @return the total
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Removes every pair
+	 */
+	public void clear() {
+		allocate(INIT_SIZE);
+	}
+
+	/**
+	 * Doubles the length of an array, keeping its values
+	 *
+	 * @param a the array
+	 *
+	 * @return the new array
+	 */
+	private static long[] grow( long[] a ) {
+		long[] b = new long[a.length * 2];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+	/**
+	 * Doubles the length of an array, keeping its values
+	 *
+	 * @param a the array
+	 *
+	 * @return the new array
+	 */
+	private static int[] grow( int[] a ) {
+		int[] b = new int[a.length * 2];
+		System.arraycopy(a, 0, b, 0, a.length);
+		return b;
+	}
+
+}
@@ -0,0 +1,322 @@
+package edu.ncsu.csc316.security_log.data;
+
+import java.nio.charset.StandardCharsets;
+
+import edu.ncsu.csc316.security_log.comparator.Comparator;
+import edu.ncsu.csc316.security_log.list.Sorting;
+
+/**
+ * Maps each distinct string to a dense int id, starting from 0 in the order the
+ * strings are first seen. Log entries store these ids instead of their own
+ * copies of the user, action and resource strings, so equal values share one
+ * String and comparing two values for equality is an int compare.
+ *
+ * Strings can be interned straight from a UTF-8 byte range; a value that is
+ * already in the dictionary is found without creating any objects. Interning
+ * is synchronized so loader threads can share one dictionary. Ids and the
+ * strings they map to never change once assigned, and get() can be called
+ * without locking while other threads intern.
+ *
+ * @author Noah Benveniste
+ */
+public class StringDictionary {
+
+	/** Initial capacity of the id arrays */
+	private static final int INIT_SIZE = 16;
+	/** Marks an empty slot of the hash table */
+	private static final int EMPTY = -1;
+
+	/** The string for each id; volatile so readers that did not intern see a grown array's contents */
+	private volatile String[] values;
+	/** The UTF-8 encoding of the string for each id */
+	private byte[][] encoded;
+	/** The hash of the encoding of each id, used to skip most byte comparisons */
+	private int[] byteHashes;
+	/** The String.hashCode() of each id */
+	private int[] hashes;
+	/** Open addressing hash table of ids; its length is a power of two */
+	private int[] table;
+	/** The number of ids assigned; volatile so rank() sees ids other threads intern */
+	private volatile int n;
+	/** The alphabetical position of each id, for the ids assigned when it was last built */
+	private volatile int[] ranks;
+
+	/**
+	 * Constructs an empty dictionary
+	 */
+	public StringDictionary() {
+		values = new String[INIT_SIZE];
+		encoded = new byte[INIT_SIZE][];
+		byteHashes = new int[INIT_SIZE];
+		hashes = new int[INIT_SIZE];
+		table = newTable(INIT_SIZE * 2);
+		n = 0;
+	}
+
+	/**
+	 * Gets the id of a string, assigning the next id if it has not been seen before
+	 *
+	 * @param s the string to intern
+	 *
+	 * @return the id of s
+	 */
+	public synchronized int intern( String s ) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		return intern(b, 0, b.length);
+	}
+
+	/**
+	 * Gets the id of the string encoded in bytes [off, off + len) of a UTF-8 buffer,
+	 * assigning the next id if it has not been seen before. No objects are created
+	 * unless the string is new.
+	 *
+	 * @param b the buffer containing the string
+	 * @param off the offset of the first byte of the string
+	 * @param len the number of bytes in the string
+	 *
+	 * @return the id of the string
+	 */
+	public synchronized int intern( byte[] b, int off, int len ) {
+		int h = hash(b, off, len);
+		int mask = table.length - 1;
+		int slot = h & mask;
+		while (table[slot] != EMPTY) {
+			int id = table[slot];
+			if (byteHashes[id] == h && matches(encoded[id], b, off, len)) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		// Not found; assign the next id
+		if (n == values.length) {
+			grow();
+			return intern(b, off, len);
+		}
+		byte[] copy = new byte[len];
+		System.arraycopy(b, off, copy, 0, len);
+		String s = new String(copy, StandardCharsets.UTF_8);
+		values[n] = s;
+		encoded[n] = copy;
+		byteHashes[n] = h;
+		hashes[n] = s.hashCode();
+		table[slot] = n;
+		return n++;
+	}
+
+	/**
+	 * Gets the id of a string without adding it
+	 *
+	 * @param s the string to look up
+	 *
+	 * @return the id of s, or -1 if s is not in the dictionary
+	 */
+	public synchronized int lookUp( String s ) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		int h = hash(b, 0, b.length);
+		int mask = table.length - 1;
+		int slot = h & mask;
+		while (table[slot] != EMPTY) {
+			int id = table[slot];
+			if (byteHashes[id] == h && matches(encoded[id], b, 0, b.length)) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the string with the given id
+	 *
+	 * @param id the id of the string
+	 *
+	 * @return the string
+	 */
+	public String get( int id ) {
+		return values[id];
+	}
+
+	/**
+	 * Gets the String.hashCode() of the string with the given id without
+	 * touching the string itself
+	 *
+	 * @param id the id of the string
+	 *
+	 * @return the string's hash code
+	 */
+	public int hashCode( int id ) {
+		return hashes[id];
+	}
+
+	/**
+	 * Compares the strings with the given ids alphabetically
+	 *
+	 * @param id1 the id of the first string
+	 * @param id2 the id of the second string
+	 *
+	 * @return negative if the first string comes first, positive if it comes
+	 *         second and zero if the ids are the same
+	 */
+	public int compare( int id1, int id2 ) {
+		if (id1 == id2) {
+			return 0;
+		}
+		return values[id1].compareTo(values[id2]);
+	}
+
+	/**
+	 * Gets the alphabetical position of a string among every string in the
+	 * dictionary, so ids can be ordered as ints. The positions are worked out
+	 * again when ids have been added since they were last needed.
+	 *
+	 * @param id the id of the string
+	 *
+	 * @return the number of strings in the dictionary that come before it
+	 */
+	public int rank( int id ) {
+		return ranks()[id];
+	}
+
+	/**
+	 * Gets the alphabetical position of every string in the dictionary. The
+	 * array is never changed once returned, so a caller that keys many ids
+	 * with it gets positions that can be compared with each other even while
+	 * other threads intern new strings.
+	 *
+	 * @return the rank of every id assigned so far, indexed by id
+	 */
+	public int[] ranks() {
+		int[] r = ranks;
+		if (r == null || r.length != n) {
+			r = buildRanks();
+		}
+		return r;
+	}
+
+	/**
+	 * Sorts the ids alphabetically to find the rank of each one
+	 *
+	 * @return the rank of every id assigned so far
+	 */
+	private synchronized int[] buildRanks() {
+		int size = n;
+		if (ranks != null && ranks.length == size) {
+			return ranks;
+		}
+		final String[] v = values;
+		Integer[] ids = new Integer[size];
+		for (int id = 0; id < size; id++) {
+			ids[id] = id;
+		}
+		Sorting.introSort(ids, 0, size, new Comparator<Integer>() {
+			@Override
+			public int compareTo( Integer id1, Integer id2 ) {
+				return v[id1].compareTo(v[id2]);
+			}
+		});
+		int[] r = new int[size];
+		for (int i = 0; i < size; i++) {
+			r[ids[i]] = i;
+		}
+		ranks = r;
+		return r;
+	}
+
+	/**
+	 * Gets the number of distinct strings in the dictionary
+	 *
+	 * @return the number of ids assigned
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Doubles the capacity of the id arrays and the hash table
+	 */
+	private void grow() {
+		int capacity = values.length * 2;
+		String[] newValues = new String[capacity];
+		byte[][] newEncoded = new byte[capacity][];
+		int[] newByteHashes = new int[capacity];
+		int[] newHashes = new int[capacity];
+		System.arraycopy(values, 0, newValues, 0, n);
+		System.arraycopy(encoded, 0, newEncoded, 0, n);
+		System.arraycopy(byteHashes, 0, newByteHashes, 0, n);
+		System.arraycopy(hashes, 0, newHashes, 0, n);
+
+		// Keep the table at most half full
+		int[] newTable = newTable(capacity * 2);
+		int mask = newTable.length - 1;
+		for (int id = 0; id < n; id++) {
+			int slot = byteHashes[id] & mask;
+			while (newTable[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			newTable[slot] = id;
+		}
+
+		values = newValues;
+		encoded = newEncoded;
+		byteHashes = newByteHashes;
+		hashes = newHashes;
+		table = newTable;
+	}
+
+	/**
+	 * Creates a hash table with every slot empty
+	 *
+	 * @param length the number of slots, a power of two
+	 *
+	 * @return the table
+	 */
+	private static int[] newTable( int length ) {
+		int[] t = new int[length];
+		for (int i = 0; i < length; i++) {
+			t[i] = EMPTY;
+		}
+		return t;
+	}
+
+	/**
+	 * Hashes a byte range, mixing the bits so the low bits can index the table
+	 *
+	 * @param b the buffer
+	 * @param off the offset of the first byte
+	 * @param len the number of bytes
+	 *
+	 * @return the hash
+	 */
+	private static int hash( byte[] b, int off, int len ) {
+		int h = 1;
+		for (int i = off; i < off + len; i++) {
+			h = 31 * h + b[i];
+		}
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Checks whether a byte range holds the same bytes as an encoded string
+	 *
+	 * @param e the encoded string
+	 * @param b the buffer
+	 * @param off the offset of the first byte
+	 * @param len the number of bytes
+	 *
+	 * @return true if the bytes are the same
+	 */
+	private static boolean matches( byte[] e, byte[] b, int off, int len ) {
+		if (e.length != len) {
+			return false;
+		}
+		for (int i = 0; i < len; i++) {
+			if (e[i] != b[off + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,118 @@
+package edu.ncsu.csc316.security_log.data;
+
+import edu.ncsu.csc316.security_log.list.RadixSort;
+
+/**
+ * A secondary index over a LogStore that lists its rows in time stamp order.
+ * The index is built once; a time interval is then found with two binary
+ * searches, and only the rows inside it are visited.
+ *
+ * Rows that are out of order are radix sorted on their packed time stamps.
+ * Rows with equal time stamps stay in the order they appear in the store.
+ *
+ * @author Noah Benveniste
+ */
+public class TimeIndex {
+
+	/** The positions of the store's rows, in time stamp order */
+	private int[] rows;
+	/** The time stamp of each position in rows, kept alongside for the binary searches */
+	private long[] times;
+
+	/**
+	 * Builds the index for every row currently in a store
+	 *
+	 * @param store the store to index
+	 */
+	public TimeIndex( LogStore store ) {
+		int n = store.size();
+		rows = new int[n];
+		times = new long[n];
+		boolean ordered = true;
+		for (int i = 0; i < n; i++) {
+			rows[i] = i;
+			times[i] = store.getTime(i);
+			if (i > 0 && times[i] < times[i - 1]) {
+				ordered = false;
+			}
+		}
+		// Logs are usually written in time order already
+		if (!ordered) {
+			RadixSort.sort(times, rows, 0, n);
+		}
+	}
+
+	/**
+	 * Gets the number of rows in the index
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return rows.length;
+	}
+
+	/**
+	 * Gets the store row at a position of the index
+	 *
+	 * @param pos the position, from 0 for the earliest row
+	 *
+	 * @return the row
+	 */
+	public int getRow( int pos ) {
+		return rows[pos];
+	}
+
+	/**
+	 * Gets the time stamp at a position of the index
+	 *
+	 * @param pos the position, from 0 for the earliest row
+	 *
+	 * @return the packed yyyyMMddHHmmss time stamp
+	 */
+	public long getTime( int pos ) {
+		return times[pos];
+	}
+
+	/**
+	 * Finds the first position whose time stamp is at or after a given time
+	 *
+	 * @param time the packed time stamp
+	 *
+	 * @return the first position with a time stamp &gt;= time, or size() if there is none
+	 */
+	public int lowerBound( long time ) {
+		int low = 0;
+		int high = times.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (times[mid] < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first position whose time stamp is after a given time
+	 *
+	 * @param time the packed time stamp
+	 *
+	 * @return the first position with a time stamp &gt; time, or size() if there is none
+	 */
+	public int upperBound( long time ) {
+		int low = 0;
+		int high = times.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (times[mid] <= time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
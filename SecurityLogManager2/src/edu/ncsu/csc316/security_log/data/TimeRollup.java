@@ -0,0 +1,302 @@
+package edu.ncsu.csc316.security_log.data;
+
+import java.util.Arrays;
+
+/**
+ * Pre-aggregated action/resource counts for each minute, hour and day of a
+ * LogStore, built once from its TimeIndex.
+ *
+ * A packed yyyyMMddHHmmss time stamp divided by 100, 10^4 or 10^6 gives the
+ * minute, hour or day it falls in, so a bucket holds exactly the time stamps
+ * from key * divisor to key * divisor + divisor - 1. A time interval is
+ * answered by walking the time index from its first row: whenever the current
+ * row's bucket at the coarsest possible level lies entirely inside the
+ * interval, the bucket's counts are added and all of its rows are skipped;
+ * otherwise the single row is counted. Only the partial minutes at the two
+ * edges of the interval are counted row by row, and the result is exactly the
+ * same as counting every row.
+ *
+ * Each level is stored as flat arrays: the sorted bucket keys, where each
+ * bucket's rows start in the time index, and where each bucket's
+ * action/resource pairs start in the pair arrays. A pair is stored as its
+ * PairCounts key, the store row of its first occurrence and its count, so
+ * adding a bucket never reads the store.
+ *
+ * @author Noah Benveniste
+ */
+public class TimeRollup {
+
+	/** Divisor that turns a packed time stamp into its minute */
+	private static final long MINUTE = 100L;
+	/** Divisor that turns a packed time stamp into its hour */
+	private static final long HOUR = 10000L;
+	/** Divisor that turns a packed time stamp into its day */
+	private static final long DAY = 1000000L;
+
+	/** The store the counts were built from */
+	private LogStore store;
+	/** The store's rows in time order */
+	private TimeIndex index;
+	/** The minute, hour and day levels, finest first */
+	private Level[] levels;
+
+	/**
+	 * Builds the rollups of a store
+	 *
+	 * @param store the store to aggregate
+	 * @param index the time index of every row in the store
+	 */
+	public TimeRollup( LogStore store, TimeIndex index ) {
+		this.store = store;
+		this.index = index;
+		Level minutes = Level.fromRows(store, index, MINUTE);
+		Level hours = Level.fromLevel(minutes, HOUR);
+		Level days = Level.fromLevel(hours, DAY);
+		this.levels = new Level[] {minutes, hours, days};
+	}
+
+	/**
+	 * Counts the action/resource pairs of the rows whose time stamps are within
+	 * [start, end]
+	 *
+	 * @param start the packed start time, inclusive
+	 * @param end the packed end time, inclusive
+	 * @param counts the counts to add the pairs to
+	 *
+	 * @return the number of rows counted
+	 */
+	public int aggregate( long start, long end, PairCounts counts ) {
+		return aggregate(start, end, counts, 0);
+	}
+
+	/**
+	 * Counts the action/resource pairs of the rows whose time stamps are within
+	 * [start, end], adding an offset to the rows recorded with each new pair so
+	 * the counts of several stores can be kept together
+	 *
+	 * @param start the packed start time, inclusive
+	 * @param end the packed end time, inclusive
+	 * @param counts the counts to add the pairs to
+	 * @param rowBase the number added to each row recorded in counts
+	 *
+	 * @return the number of rows counted
+	 */
+	public int aggregate( long start, long end, PairCounts counts, int rowBase ) {
+		int pos = index.lowerBound(start);
+		int to = index.upperBound(end);
+		int total = 0;
+		while (pos < to) {
+			long time = index.getTime(pos);
+			int next = pos + 1;
+			int i = levels.length - 1;
+			while (i >= 0) {
+				Level level = levels[i];
+				long key = time / level.divisor;
+				long first = key * level.divisor;
+				if (start <= first && first + level.divisor - 1 <= end) {
+					// The whole bucket is inside the interval
+					int b = level.find(key);
+					for (int p = level.pairStart[b]; p < level.pairStart[b + 1]; p++) {
+						counts.add(level.pairKeys[p], rowBase + level.pairRows[p], level.pairCounts[p]);
+					}
+					next = level.posStart[b + 1];
+					break;
+				}
+				i--;
+			}
+			if (i < 0) {
+				// No bucket fits; count the row itself
+				int row = index.getRow(pos);
+				counts.add(store.getAction(row), store.getResource(row), rowBase + row, 1);
+			}
+			total += next - pos;
+			pos = next;
+		}
+		return total;
+	}
+
+	/**
+	 * Counts the action/resource pairs of every row from the day buckets,
+	 * without looking at the time index
+	 *
+	 * @param counts the counts to add the pairs to
+	 * @param rowBase the number added to each row recorded in counts
+	 *
+	 * @return the number of rows counted
+	 */
+	public int aggregateAll( PairCounts counts, int rowBase ) {
+		Level days = levels[levels.length - 1];
+		for (int p = 0; p < days.pairKeys.length; p++) {
+			counts.add(days.pairKeys[p], rowBase + days.pairRows[p], days.pairCounts[p]);
+		}
+		return index.size();
+	}
+
+	/**
+	 * The buckets of one level
+	 *
+	 * @author Noah Benveniste
+	 */
+	private static class Level {
+
+		/** The divisor that turns a time stamp into its bucket key */
+		private long divisor;
+		/** The key of each bucket, ascending */
+		private long[] keys;
+		/** The time index position of each bucket's first row, plus the end position */
+		private int[] posStart;
+		/** The index into the pair arrays of each bucket's first pair, plus the end index */
+		private int[] pairStart;
+		/** The PairCounts key of each pair */
+		private long[] pairKeys;
+		/** The store row of the first occurrence of each pair */
+		private int[] pairRows;
+		/** The number of occurrences of each pair */
+		private int[] pairCounts;
+
+		/**
+		 * Builds a level by counting the rows of the time index
+		 *
+		 * @param store the store
+		 * @param index the store's time index
+		 * @param divisor the divisor of the level
+		 *
+		 * @return the level
+		 */
+		private static Level fromRows( LogStore store, TimeIndex index, long divisor ) {
+			int n = index.size();
+			Level l = new Level(divisor, n, n);
+			PairCounts counter = new PairCounts();
+			int buckets = 0;
+			int pairs = 0;
+			int pos = 0;
+			while (pos < n) {
+				long key = index.getTime(pos) / divisor;
+				l.keys[buckets] = key;
+				l.posStart[buckets] = pos;
+				l.pairStart[buckets] = pairs;
+				while (pos < n && index.getTime(pos) / divisor == key) {
+					int row = index.getRow(pos);
+					counter.add(store.getAction(row), store.getResource(row), row, 1);
+					pos++;
+				}
+				pairs = l.drain(counter, pairs);
+				buckets++;
+			}
+			l.trim(buckets, pairs, n);
+			return l;
+		}
+
+		/**
+		 * Builds a level by merging the buckets of a finer level
+		 *
+		 * @param child the finer level
+		 * @param divisor the divisor of the level, a multiple of the child's
+		 *
+		 * @return the level
+		 */
+		private static Level fromLevel( Level child, long divisor ) {
+			long ratio = divisor / child.divisor;
+			int n = child.keys.length;
+			Level l = new Level(divisor, n, child.pairRows.length);
+			PairCounts counter = new PairCounts();
+			int buckets = 0;
+			int pairs = 0;
+			int b = 0;
+			while (b < n) {
+				long key = child.keys[b] / ratio;
+				l.keys[buckets] = key;
+				l.posStart[buckets] = child.posStart[b];
+				l.pairStart[buckets] = pairs;
+				while (b < n && child.keys[b] / ratio == key) {
+					for (int p = child.pairStart[b]; p < child.pairStart[b + 1]; p++) {
+						counter.add(child.pairKeys[p], child.pairRows[p], child.pairCounts[p]);
+					}
+					b++;
+				}
+				pairs = l.drain(counter, pairs);
+				buckets++;
+			}
+			l.trim(buckets, pairs, child.posStart[n]);
+			return l;
+		}
+
+		/**
+		 * Constructs a level with room for a number of buckets and pairs
+		 *
+		 * @param divisor the divisor of the level
+		 * @param buckets the most buckets the level can have
+		 * @param pairs the most pairs the level can have
+		 */
+		private Level( long divisor, int buckets, int pairs ) {
+			this.divisor = divisor;
+			this.keys = new long[buckets];
+			this.posStart = new int[buckets + 1];
+			this.pairStart = new int[buckets + 1];
+			this.pairKeys = new long[pairs];
+			this.pairRows = new int[pairs];
+			this.pairCounts = new int[pairs];
+		}
+
+		/**
+		 * Shrinks the arrays to the number of buckets and pairs used and sets the end markers
+		 *
+		 * @param buckets the number of buckets
+		 * @param pairs the number of pairs
+		 * @param rows the number of rows
+		 */
+		private void trim( int buckets, int pairs, int rows ) {
+			keys = Arrays.copyOf(keys, buckets);
+			posStart = Arrays.copyOf(posStart, buckets + 1);
+			posStart[buckets] = rows;
+			pairStart = Arrays.copyOf(pairStart, buckets + 1);
+			pairStart[buckets] = pairs;
+			pairKeys = Arrays.copyOf(pairKeys, pairs);
+			pairRows = Arrays.copyOf(pairRows, pairs);
+			pairCounts = Arrays.copyOf(pairCounts, pairs);
+		}
+
+		/**
+		 * Copies the pairs of one bucket into the pair arrays and clears the counts
+		 *
+		 * @param counter the counts of the bucket
+		 * @param at the index to copy the first pair to
+		 *
+		 * @return the index after the last pair copied
+		 */
+		private int drain( PairCounts counter, int at ) {
+			for (int i = 0; i < counter.size(); i++) {
+				pairKeys[at] = counter.getKey(i);
+				pairRows[at] = counter.getRow(i);
+				pairCounts[at] = counter.getCount(i);
+				at++;
+			}
+			counter.clear();
+			return at;
+		}
+
+		/**
+		 * Finds the bucket with the given key
+		 *
+		 * @param key the bucket key
+		 *
+		 * @return the bucket, or -1 if there is no bucket with the key
+		 */
+		private int find( long key ) {
+			int low = 0;
+			int high = keys.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (keys[mid] < key) {
+					low = mid + 1;
+				} else if (keys[mid] > key) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -1;
+		}
+	}
+
+}
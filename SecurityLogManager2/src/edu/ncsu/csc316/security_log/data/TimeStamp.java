@@ -3,11 +3,27 @@ package edu.ncsu.csc316.security_log.data;
 /**
  * A class that represents a time stamp of the form "mm/dd/yyyy hh:mm:ssXX", XX = AM | PM
  * 
+ * The static parse methods turn a time stamp at some offset of a CharSequence or
+ * byte array into the packed yyyyMMddHHmmss long without creating any objects.
+ * 
  * @author Noah Benveniste
  */
 public class TimeStamp implements Comparable<TimeStamp> {
-	
-	/** The original mm/dd/yyyy hh:mm:ss time stamp string */
+
+	/** Length of a time stamp string */
+	public static final int LENGTH = 21;
+	/** Offset of the AM/PM suffix within a time stamp string */
+	private static final int MERIDIEM = 19;
+	/** Value returned by meridiem() for an AM suffix */
+	private static final int AM = 0;
+	/** Value returned by meridiem() for a PM suffix */
+	private static final int PM = 1;
+	/** Value returned by meridiem() for anything other than AM or PM */
+	private static final int NEITHER = -1;
+	/** Number of days in each month of a non leap year */
+	private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+	/** The original mm/dd/yyyy hh:mm:ss time stamp string, or null if it was built from its value */
     private String originalString;
     /** The long int that the original string is converted into */
     private long val;
@@ -16,48 +32,321 @@ public class TimeStamp implements Comparable<TimeStamp> {
      * Parses a time stamp string into a single long integer
      * 
      * @param s of the form "mm/dd/yyyy hh:mm:ssXX", XX = AM | PM
+     * 
+     * @throws IllegalArgumentException if s is too short or a digit is expected but not found
      */
     public TimeStamp( String s ) {
         this.originalString = s;
-        // s is of the form "mm/dd/yyyy hh:mm:ssXX", XX = AM | PM
-        // Parse the string into a 12 digit long int for a single comparison
-        long init = 100L;
-        
-        // Need to compare by year first. Multiply init by the year
-        init = init * Integer.parseInt(s.substring(6, 10));
-        
-        // Add the digits for the month, multiply by 100 to get more digits at the end
-        init = init + Integer.parseInt(s.substring(0, 2));
-        init = init * 100;
-        
-        // Add days next
-        init = init + Integer.parseInt(s.substring(3, 5));
-        init = init * 100;
-                
+        this.val = parse(s, 0);
+    }
+
+    /**
+     * Constructs a time stamp from an already parsed value. The time stamp string
+     * is rebuilt from the value when it is asked for, so the value must have come
+     * from a string that format() reproduces exactly (see isCanonical()).
+     *
+     * @param val the packed yyyyMMddHHmmss value
+     */
+    public TimeStamp( long val ) {
+        this.originalString = null;
+        this.val = val;
+    }
+
+    /**
+     * Parses the time stamp that starts at the given offset of a character sequence.
+     * Follows the same rules as the original substring based parser: only the digit
+     * positions are checked, and an hour is only converted to 24 hour time if it is
+     * followed by exactly "AM" or "PM" at the end of the sequence.
+     *
+     * @param s the sequence containing the time stamp
+     * @param off the offset the time stamp starts at
+     *
+     * @return the packed yyyyMMddHHmmss value
+     *
+     * @throws IllegalArgumentException if s is too short or a digit is expected but not found
+     */
+    public static long parse( CharSequence s, int off ) {
+        if (s.length() - off < MERIDIEM) {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        int m = NEITHER;
+        if (s.length() - off == LENGTH) {
+            m = meridiem(s.charAt(off + MERIDIEM), s.charAt(off + MERIDIEM + 1));
+        }
+        return pack(digits(s, off + 6, 4), digits(s, off, 2), digits(s, off + 3, 2),
+                digits(s, off + 11, 2), digits(s, off + 14, 2), digits(s, off + 17, 2), m);
+    }
+
+    /**
+     * Parses the time stamp that starts at the given offset of a character sequence,
+     * rejecting anything that is not a real date and time of the exact form
+     * "mm/dd/yyyy hh:mm:ssXX".
+     *
+     * @param s the sequence containing the time stamp
+     * @param off the offset the time stamp starts at
+     *
+     * @return the packed yyyyMMddHHmmss value
+     *
+     * @throws IllegalArgumentException if the time stamp is malformed
+     */
+    public static long parseValid( CharSequence s, int off ) {
+        if (s.length() - off < LENGTH || s.charAt(off + 2) != '/' || s.charAt(off + 5) != '/'
+                || s.charAt(off + 10) != ' ' || s.charAt(off + 13) != ':' || s.charAt(off + 16) != ':') {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        return validate(digits(s, off + 6, 4), digits(s, off, 2), digits(s, off + 3, 2),
+                digits(s, off + 11, 2), digits(s, off + 14, 2), digits(s, off + 17, 2),
+                meridiem(s.charAt(off + MERIDIEM), s.charAt(off + MERIDIEM + 1)));
+    }
+
+    /**
+     * Parses the time stamp held in bytes [off, off + len) of an ASCII/UTF-8 buffer,
+     * following the same rules as parse(CharSequence, int)
+     *
+     * @param b the buffer containing the time stamp
+     * @param off the offset the time stamp starts at
+     * @param len the number of bytes the time stamp spans
+     *
+     * @return the packed yyyyMMddHHmmss value
+     *
+     * @throws IllegalArgumentException if the range is too short or a digit is expected but not found
+     */
+    public static long parse( byte[] b, int off, int len ) {
+        if (len < MERIDIEM) {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        int m = NEITHER;
+        if (len == LENGTH) {
+            m = meridiem((char) b[off + MERIDIEM], (char) b[off + MERIDIEM + 1]);
+        }
+        return pack(digits(b, off + 6, 4), digits(b, off, 2), digits(b, off + 3, 2),
+                digits(b, off + 11, 2), digits(b, off + 14, 2), digits(b, off + 17, 2), m);
+    }
+
+    /**
+     * Parses the time stamp held in bytes [off, off + len) of an ASCII/UTF-8 buffer,
+     * rejecting anything that is not a real date and time of the exact form
+     * "mm/dd/yyyy hh:mm:ssXX".
+     *
+     * @param b the buffer containing the time stamp
+     * @param off the offset the time stamp starts at
+     * @param len the number of bytes the time stamp spans
+     *
+     * @return the packed yyyyMMddHHmmss value
+     *
+     * @throws IllegalArgumentException if the time stamp is malformed
+     */
+    public static long parseValid( byte[] b, int off, int len ) {
+        if (len != LENGTH || b[off + 2] != '/' || b[off + 5] != '/'
+                || b[off + 10] != ' ' || b[off + 13] != ':' || b[off + 16] != ':') {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        return validate(digits(b, off + 6, 4), digits(b, off, 2), digits(b, off + 3, 2),
+                digits(b, off + 11, 2), digits(b, off + 14, 2), digits(b, off + 17, 2),
+                meridiem((char) b[off + MERIDIEM], (char) b[off + MERIDIEM + 1]));
+    }
+
+    /**
+     * Checks whether format() rebuilds the time stamp held in bytes [off, off + len)
+     * exactly. That takes the exact "mm/dd/yyyy hh:mm:ssXX" layout with an AM or PM
+     * suffix and an hour from 01 to 12; "00" hours, for one, are written back as "12".
+     * 
+     * @param b the buffer containing a time stamp accepted by parse()
+     * @param off the offset the time stamp starts at
+     * @param len the number of bytes the time stamp spans
+     * 
+     * @return true if the original text does not need to be kept
+     */
+    public static boolean isCanonical( byte[] b, int off, int len ) {
+        if (len != LENGTH || b[off + 2] != '/' || b[off + 5] != '/' || b[off + 10] != ' '
+                || b[off + 13] != ':' || b[off + 16] != ':'
+                || meridiem((char) b[off + MERIDIEM], (char) b[off + MERIDIEM + 1]) == NEITHER) {
+            return false;
+        }
+        int hr = digits(b, off + 11, 2);
+        return hr >= 1 && hr <= 12;
+    }
+
+    /**
+     * Parses n decimal digits of a character sequence
+     *
+     * @param s the sequence to read from
+     * @param from the offset of the first digit
+     * @param n the number of digits
+     *
+     * @return the value of the digits
+     *
+     * @throws IllegalArgumentException if a character is not a digit
+     */
+    private static int digits( CharSequence s, int from, int n ) {
+        int result = 0;
+        for (int i = from; i < from + n; i++) {
+            result = result * 10 + digit(s.charAt(i));
+        }
+        return result;
+    }
+
+    /**
+     * Parses n decimal digits of a byte buffer
+     *
+     * @param b the buffer to read from
+     * @param from the offset of the first digit
+     * @param n the number of digits
+     *
+     * @return the value of the digits
+     *
+     * @throws IllegalArgumentException if a byte is not a digit
+     */
+    private static int digits( byte[] b, int from, int n ) {
+        int result = 0;
+        for (int i = from; i < from + n; i++) {
+            result = result * 10 + digit((char) b[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the value of a single decimal digit
+     *
+     * @param c the digit
+     *
+     * @return the value of c
+     *
+     * @throws IllegalArgumentException if c is not a digit
+     */
+    private static int digit( char c ) {
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        return c - '0';
+    }
+
+    /**
+     * Classifies a two character AM/PM suffix
+     *
+     * @param c1 the first character
+     * @param c2 the second character
+     *
+     * @return AM, PM or NEITHER
+     */
+    private static int meridiem( char c1, char c2 ) {
+        if (c2 != 'M') {
+            return NEITHER;
+        } else if (c1 == 'A') {
+            return AM;
+        } else if (c1 == 'P') {
+            return PM;
+        } else {
+            return NEITHER;
+        }
+    }
+
+    /**
+     * Checks that the fields make up a real date and 12 hour time, then packs them
+     *
+     * @param year the year
+     * @param month the month, 1 to 12
+     * @param day the day of the month
+     * @param hr the hour, 0 to 12 (0 is treated the same as 12)
+     * @param min the minute
+     * @param sec the second
+     * @param m AM or PM
+     *
+     * @return the packed yyyyMMddHHmmss value
+     *
+     * @throws IllegalArgumentException if a field is out of range
+     */
+    private static long validate( int year, int month, int day, int hr, int min, int sec, int m ) {
+        if (m == NEITHER || month < 1 || month > 12 || day < 1 || hr > 12 || min > 59 || sec > 59) {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int days = DAYS_IN_MONTH[month - 1] + (month == 2 && leap ? 1 : 0);
+        if (day > days) {
+            throw new IllegalArgumentException("Invalid time stamp");
+        }
+        return pack(year, month, day, hr, min, sec, m);
+    }
+
+    /**
+     * Packs the fields of a time stamp into a single long, year first, so that
+     * comparing two values compares the time stamps
+     *
+     * @param year the year
+     * @param month the month
+     * @param day the day of the month
+     * @param hr the hour in 12 hour time
+     * @param min the minute
+     * @param sec the second
+     * @param m AM, PM or NEITHER
+     *
+     * @return the packed yyyyMMddHHmmss value
+     */
+    private static long pack( int year, int month, int day, int hr, int min, int sec, int m ) {
         // Get the hour in 24 hour format. If the string ends with AM and is 12:xx, subtract
         // 12 from the hour. If the string ends with PM and is NOT 12:xx, add 12.
-        int hr = Integer.parseInt(s.substring(11, 13));
-        String amPm = s.substring(19);
-        if (amPm.equals("AM") && hr == 12) {
+        if (m == AM && hr == 12) {
             hr -= 12;
-        } else if (amPm.equals("PM") && hr != 12) {
+        } else if (m == PM && hr != 12) {
             hr += 12;
         }
-        init = init + hr;
-        init = init * 100;
-        
-        // Add minutes next
-        init = init + Integer.parseInt(s.substring(14, 16));
-        init = init * 100;
-        
-        // Add seconds last
-        init = init + Integer.parseInt(s.substring(17, 19));
-        
-        // Set the field
-        this.val = init;
-        
+        long init = year;
+        init = init * 100 + month;
+        init = init * 100 + day;
+        init = init * 100 + hr;
+        init = init * 100 + min;
+        init = init * 100 + sec;
+        return init;
     }
-    
+
+    /**
+     * Builds the "mm/dd/yyyy hh:mm:ssXX" string for a packed value
+     *
+     * @param val the packed yyyyMMddHHmmss value
+     *
+     * @return the time stamp string
+     */
+    public static String format( long val ) {
+        char[] c = new char[LENGTH];
+        int sec = (int) (val % 100);
+        int min = (int) (val / 100 % 100);
+        int hr = (int) (val / 10000 % 100);
+        int day = (int) (val / 1000000 % 100);
+        int month = (int) (val / 100000000 % 100);
+        int year = (int) (val / 10000000000L);
+
+        // Convert back to 12 hour time
+        c[MERIDIEM] = hr < 12 ? 'A' : 'P';
+        c[MERIDIEM + 1] = 'M';
+        hr = hr % 12 == 0 ? 12 : hr % 12;
+
+        twoDigits(c, 0, month);
+        c[2] = '/';
+        twoDigits(c, 3, day);
+        c[5] = '/';
+        twoDigits(c, 6, year / 100);
+        twoDigits(c, 8, year % 100);
+        c[10] = ' ';
+        twoDigits(c, 11, hr);
+        c[13] = ':';
+        twoDigits(c, 14, min);
+        c[16] = ':';
+        twoDigits(c, 17, sec);
+        return new String(c);
+    }
+
+    /**
+     * Writes a zero padded two digit number into a character array
+     *
+     * @param c the array to write to
+     * @param off the offset to write at
+     * @param n the number, 0 to 99
+     */
+    private static void twoDigits( char[] c, int off, int n ) {
+        c[off] = (char) ('0' + n / 10);
+        c[off + 1] = (char) ('0' + n % 10);
+    }
+
     /**
      * Gets the integer value that the time stamp was parsed to
      * @return the integer representing the time stamp
@@ -72,6 +361,9 @@ public class TimeStamp implements Comparable<TimeStamp> {
      * @return the original string
      */
     public String getOriginalString() {
+        if (this.originalString == null) {
+            return format(this.val);
+        }
         return this.originalString;
     }
 
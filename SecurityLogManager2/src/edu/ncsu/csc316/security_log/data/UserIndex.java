@@ -0,0 +1,177 @@
+package edu.ncsu.csc316.security_log.data;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.security_log.dictionary.LongIntHashTable;
+
+/**
+ * A per-user index over a LogStore. For each user id it keeps a posting list
+ * of the user's rows, ordered by time stamp, then action, then resource (the
+ * order of UserComparator). All posting lists are stored end to end in one
+ * array. Only the users with rows in the store are kept, as a sorted array of
+ * their ids, and the list of the user at position u of that array is the
+ * range [start[u], start[u + 1]). The index is therefore sized by the store,
+ * not by the dictionary it shares with every other store, and a user's list
+ * is found by binary search.
+ *
+ * The index is built once with a counting sort of the store's time index by
+ * position in the user array, which keeps each user's rows in time order;
+ * only rows with equal time stamps need to be ordered further.
+ *
+ * @author Noah Benveniste
+ */
+public class UserIndex {
+
+	/** The ids of the users with rows in the store, ascending */
+	private int[] users;
+	/** Where the posting list of each user starts in rows, plus the end of the last list */
+	private int[] start;
+	/** The posting lists of every user, end to end */
+	private int[] rows;
+
+	/**
+	 * Builds the index for every row currently in a store
+	 *
+	 * @param store the store to index
+	 * @param index the time index of every row in the store
+	 */
+	public UserIndex( LogStore store, TimeIndex index ) {
+		int n = index.size();
+
+		// Give each distinct user a local number in the order it is first seen
+		LongIntHashTable seen = new LongIntHashTable();
+		int[] local = new int[n];
+		int[] found = new int[Math.min(n, 16)];
+		int ids = 0;
+		for (int i = 0; i < n; i++) {
+			int user = store.getUser(i);
+			int u = seen.get(user);
+			if (u == LongIntHashTable.NO_VALUE) {
+				if (ids == found.length) {
+					found = Arrays.copyOf(found, ids * 2);
+				}
+				u = ids;
+				found[ids++] = user;
+				seen.put(user, u);
+			}
+			local[i] = u;
+		}
+
+		// Sort the distinct ids, and renumber each user by its position among them
+		users = Arrays.copyOf(found, ids);
+		Arrays.sort(users);
+		int[] position = new int[ids];
+		for (int u = 0; u < ids; u++) {
+			position[seen.get(users[u])] = u;
+		}
+
+		// Count the rows of each user, then turn the counts into start positions
+		start = new int[ids + 1];
+		for (int i = 0; i < n; i++) {
+			local[i] = position[local[i]];
+			start[local[i] + 1]++;
+		}
+		for (int u = 0; u < ids; u++) {
+			start[u + 1] += start[u];
+		}
+
+		// Place the rows in time order so each posting list is in time order
+		rows = new int[n];
+		int[] next = Arrays.copyOf(start, ids);
+		for (int pos = 0; pos < n; pos++) {
+			int row = index.getRow(pos);
+			rows[next[local[row]]++] = row;
+		}
+
+		// Order runs of equal time stamps within a posting list by action, then resource
+		int i = 0;
+		for (int u = 0; u < ids; u++) {
+			int end = start[u + 1];
+			while (i < end) {
+				int j = i + 1;
+				while (j < end && store.getTime(rows[j]) == store.getTime(rows[i])) {
+					j++;
+				}
+				if (j - i > 1) {
+					sortRun(store, i, j);
+				}
+				i = j;
+			}
+		}
+	}
+
+	/**
+	 * Insertion sorts rows [from, to) by action, then resource. Runs are short,
+	 * since they only hold one user's rows with the same time stamp.
+	 *
+	 * @param store the store
+	 * @param from the first position of the run
+	 * @param to one past the last position of the run
+	 */
+	private void sortRun( LogStore store, int from, int to ) {
+		StringDictionary dictionary = store.getDictionary();
+		for (int i = from + 1; i < to; i++) {
+			int row = rows[i];
+			int j = i - 1;
+			while (j >= from && compare(dictionary, store, rows[j], row) > 0) {
+				rows[j + 1] = rows[j];
+				j--;
+			}
+			rows[j + 1] = row;
+		}
+	}
+
+	/**
+	 * Compares two rows by action, then resource
+	 *
+	 * @param dictionary the dictionary of the store
+	 * @param store the store
+	 * @param r1 the first row
+	 * @param r2 the second row
+	 *
+	 * @return negative if r1 comes first, positive if r2 comes first, zero if they are equal
+	 */
+	private static int compare( StringDictionary dictionary, LogStore store, int r1, int r2 ) {
+		int c = dictionary.compare(store.getAction(r1), store.getAction(r2));
+		if (c != 0) {
+			return c;
+		}
+		return dictionary.compare(store.getResource(r1), store.getResource(r2));
+	}
+
+	/**
+	 * Gets the position of the first row of a user's posting list
+	 *
+	 * @param user the user id
+	 *
+	 * @return the first position, or 0 if the id is not in the index
+	 */
+	public int getStart( int user ) {
+		int u = Arrays.binarySearch(users, user);
+		return u < 0 ? 0 : start[u];
+	}
+
+	/**
+	 * Gets the position after the last row of a user's posting list
+	 *
+	 * @param user the user id
+	 *
+	 * @return one past the last position, or 0 if the id is not in the index
+	 */
+	public int getEnd( int user ) {
+		int u = Arrays.binarySearch(users, user);
+		return u < 0 ? 0 : start[u + 1];
+	}
+
+	/**
+	 * Gets the store row at a position of the index
+	 *
+	 * @param pos the position
+	 *
+	 * @return the row
+	 */
+	public int getRow( int pos ) {
+		return rows[pos];
+	}
+
+}
@@ -0,0 +1,149 @@
+package edu.ncsu.csc316.security_log.dictionary;
+
+/**
+ * A hash table that maps primitive long keys to int values, using open
+ * addressing with linear probing over a power-of-two capacity. Keys and values
+ * are kept in parallel primitive arrays, so putting a key does not allocate
+ * anything unless the table has to grow.
+ *
+ * The table also remembers which slots are in use, so clear() only touches
+ * those slots and a table can be reused cheaply for many small batches.
+ *
+ * @author Noah Benveniste
+ */
+public class LongIntHashTable {
+
+	/** Value returned by get() for a key that is not in the table */
+	public static final int NO_VALUE = -1;
+	/** Initial capacity of the table; must be a power of two */
+	private static final int INIT_SIZE = 64;
+
+	/** Whether each slot is in use */
+	private boolean[] full;
+	/** The key in each slot */
+	private long[] keys;
+	/** The value in each slot */
+	private int[] values;
+	/** The slots in use, in the order their keys were first put */
+	private int[] used;
+	/** Number of keys currently in the table */
+	private int n;
+
+	/**
+	 * Constructs an empty table
+	 */
+	public LongIntHashTable() {
+		allocate(INIT_SIZE);
+	}
+
+	/**
+	 * Allocates empty arrays with the given capacity
+	 *
+	 * @param capacity the number of slots, a power of two
+	 */
+	private void allocate( int capacity ) {
+		full = new boolean[capacity];
+		keys = new long[capacity];
+		values = new int[capacity];
+		// The table is kept at most half full
+		used = new int[capacity / 2];
+		n = 0;
+	}
+
+	/**
+	 * Finds the slot of a key, or the empty slot where it would go
+	 *
+	 * @param key the key
+	 *
+	 * @return the slot
+	 */
+	private int slot( long key ) {
+		int mask = keys.length - 1;
+		long h = key * 0x9E3779B97F4A7C15L;
+		int idx = (int) (h >>> 32) & mask;
+		while (full[idx] && keys[idx] != key) {
+			idx = (idx + 1) & mask;
+		}
+		return idx;
+	}
+
+	/**
+	 * Gets the value of a key
+	 *
+	 * @param key the key
+	 *
+	 * @return the value of the key, or NO_VALUE if the key is not in the table
+	 */
+	public int get( long key ) {
+		int idx = slot(key);
+		return full[idx] ? values[idx] : NO_VALUE;
+	}
+
+	/**
+	 * Sets the value of a key, adding the key if it is not in the table
+	 *
+	 * @param key the key
+	 * @param value the value
+	 */
+	public void put( long key, int value ) {
+		int idx = slot(key);
+		if (!full[idx]) {
+			if (n == used.length) {
+				rehash();
+				idx = slot(key);
+			}
+			full[idx] = true;
+			keys[idx] = key;
+			used[n++] = idx;
+		}
+		values[idx] = value;
+	}
+
+	/**
+	 * Doubles the capacity of the table, keeping the order the keys were first put
+	 */
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		int[] oldUsed = used;
+		int oldN = n;
+		allocate(keys.length * 2);
+		for (int i = 0; i < oldN; i++) {
+			int s = oldUsed[i];
+			int idx = slot(oldKeys[s]);
+			full[idx] = true;
+			keys[idx] = oldKeys[s];
+			values[idx] = oldValues[s];
+			used[n++] = idx;
+		}
+	}
+
+	/**
+	 * Removes every key, keeping the current capacity
+	 */
+	public void clear() {
+		for (int i = 0; i < n; i++) {
+			full[used[i]] = false;
+		}
+		n = 0;
+	}
+
+	/**
+	 * Returns the number of keys in the table
+	 *
+	 * @return the number of keys in the table
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Returns the length/capacity of the table
+	 *
+	 * @return the length/capacity of the table
+	 */
+	public int getHashTableLength() {
+		return keys.length;
+	}
+
+}
@@ -0,0 +1,359 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+import edu.ncsu.csc316.security_log.dictionary.LongIntHashTable;
+
+/**
+ * Saves log entries in a compact binary snapshot file and loads them back,
+ * so a restart does not have to parse the text of every line again. CSV
+ * files stay the format logs are exchanged in; SecurityLogIO reads either.
+ *
+ * A snapshot starts with a fixed header: the magic bytes, the format version,
+ * the number of rows, the number of strings and the earliest and latest time
+ * stamps. Six blocks follow, each preceded by its length in bytes as a long:
+ * the strings the rows use (each one's UTF-8 length as a varint, then its
+ * bytes, in the order of their ids in the dictionary), the time stamps whose
+ * original text is kept (a count, then each row as a varint gap from the
+ * previous one and the text as a string), then one block per column. Time
+ * stamps are stored as the zigzag varint of the difference from the previous
+ * row's, which is a byte or two for a log in time order, and the user, action
+ * and resource as varints of their position in the file's strings. A file
+ * saved from a few rows of a large dictionary therefore holds only the
+ * strings of those rows, and its ids stay small.
+ *
+ * Loading maps each block of the file into memory and decodes each column
+ * straight out of it into the array the loaded store keeps as that column, so
+ * no row is appended one at a time. Only the dictionary's strings are created
+ * as objects, and no time stamp text is parsed. A snapshot is written to a
+ * temporary file which is then moved over the target, so a crash while saving
+ * leaves the previous snapshot in place.
+ *
+ * @author Noah Benveniste
+ */
+public class BinaryLogIO {
+
+	/** The first bytes of every snapshot; the first is not text, so no CSV file starts with them */
+	private static final byte[] MAGIC = {(byte) 0x89, 'S', 'L', 'G'};
+	/** The version of the format written */
+	private static final int VERSION = 1;
+	/** The length of the header in bytes */
+	private static final int HEADER_SIZE = 32;
+	/** The largest block that can be mapped at once */
+	private static final long MAX_BLOCK = Integer.MAX_VALUE;
+
+	/**
+	 * Checks whether a file is a snapshot rather than a CSV log
+	 *
+	 * @param fileName the name of the file
+	 *
+	 * @return true if the file starts with the snapshot magic bytes
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean isSnapshot( String fileName ) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		try {
+			ByteBuffer b = ByteBuffer.allocate(MAGIC.length);
+			while (b.hasRemaining() && channel.read(b) >= 0) {
+				// Keep reading until the magic is filled in or the file ends
+			}
+			if (b.hasRemaining()) {
+				return false;
+			}
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (b.get(i) != MAGIC[i]) {
+					return false;
+				}
+			}
+			return true;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Saves the rows of one or more stores, one after the other, as a snapshot
+	 *
+	 * @param fileName the name of the file to write, which is replaced if it exists
+	 * @param dictionary the dictionary of every store
+	 * @param stores the stores to save
+	 *
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if a store does not use the dictionary
+	 */
+	public void write( String fileName, StringDictionary dictionary, LogStore... stores ) throws IOException {
+		int rows = 0;
+		long minTime = 0;
+		long maxTime = 0;
+		for (LogStore store : stores) {
+			if (store.getDictionary() != dictionary) {
+				throw new IllegalArgumentException("Stores must share a dictionary");
+			}
+			if (store.size() > 0) {
+				if (rows == 0 || store.getMinTime() < minTime) {
+					minTime = store.getMinTime();
+				}
+				if (rows == 0 || store.getMaxTime() > maxTime) {
+					maxTime = store.getMaxTime();
+				}
+				rows += store.size();
+			}
+		}
+		int[] used = usedIds(stores);
+		int strings = used.length;
+		// The position of each used id in the file's strings
+		LongIntHashTable local = new LongIntHashTable();
+		for (int i = 0; i < strings; i++) {
+			local.put(used[i], i);
+		}
+
+		Path target = Paths.get(fileName);
+		Path tmp = Paths.get(fileName + ".tmp");
+		FileOutputStream file = new FileOutputStream(tmp.toFile());
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+		try {
+			out.write(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(rows);
+			out.writeInt(strings);
+			out.writeLong(minTime);
+			out.writeLong(maxTime);
+
+			ByteBlock block = new ByteBlock(1 << 16);
+			for (int id : used) {
+				block.string(dictionary.get(id));
+			}
+			block.writeTo(out);
+
+			int raws = 0;
+			for (LogStore store : stores) {
+				raws += store.getRawTimeCount();
+			}
+			block.varint(raws);
+			int base = 0;
+			int last = 0;
+			for (LogStore store : stores) {
+				for (int i = 0; i < store.getRawTimeCount(); i++) {
+					int row = base + store.getRawTimeRow(i);
+					block.varint(row - last);
+					block.string(store.getRawTime(i));
+					last = row;
+				}
+				base += store.size();
+			}
+			block.writeTo(out);
+
+			long previous = 0;
+			for (LogStore store : stores) {
+				for (int row = 0; row < store.size(); row++) {
+					long time = store.getTime(row);
+					block.zigzag(time - previous);
+					previous = time;
+				}
+			}
+			block.writeTo(out);
+
+			for (int column = 0; column < 3; column++) {
+				for (LogStore store : stores) {
+					for (int row = 0; row < store.size(); row++) {
+						int id = column == 0 ? store.getUser(row) : column == 1 ? store.getAction(row) : store.getResource(row);
+						block.varint(local.get(id));
+					}
+				}
+				block.writeTo(out);
+			}
+			// On the disk before it replaces the target
+			out.flush();
+			file.getFD().sync();
+		} finally {
+			out.close();
+		}
+		try {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Lists the ids the rows of some stores use
+	 *
+	 * @param stores the stores
+	 *
+	 * @return the distinct user, action and resource ids, in ascending order
+	 */
+	private static int[] usedIds( LogStore... stores ) {
+		LongIntHashTable seen = new LongIntHashTable();
+		int[] used = new int[64];
+		int n = 0;
+		for (LogStore store : stores) {
+			for (int row = 0; row < store.size(); row++) {
+				for (int column = 0; column < 3; column++) {
+					int id = column == 0 ? store.getUser(row) : column == 1 ? store.getAction(row) : store.getResource(row);
+					if (seen.get(id) == LongIntHashTable.NO_VALUE) {
+						seen.put(id, n);
+						if (n == used.length) {
+							used = Arrays.copyOf(used, n * 2);
+						}
+						used[n++] = id;
+					}
+				}
+			}
+		}
+		used = Arrays.copyOf(used, n);
+		Arrays.sort(used);
+		return used;
+	}
+
+	/**
+	 * Loads a snapshot into a new store
+	 *
+	 * @param fileName the name of the snapshot file
+	 * @param dictionary the dictionary to intern the snapshot's strings in; if it
+	 *        is empty and the saved rows used every string of theirs, the ids
+	 *        are the same as when the snapshot was saved
+	 *
+	 * @return the rows of the snapshot, in the order they were saved
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a snapshot of a supported version, or is corrupt
+	 */
+	public LogStore read( String fileName, StringDictionary dictionary ) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		try {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IllegalArgumentException("Not a security log snapshot");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (header.get() != MAGIC[i]) {
+					throw new IllegalArgumentException("Not a security log snapshot");
+				}
+			}
+			if (header.getInt() != VERSION) {
+				throw new IllegalArgumentException("Unsupported snapshot version");
+			}
+			int rows = header.getInt();
+			int strings = header.getInt();
+			if (rows < 0 || strings < 0) {
+				throw new IllegalArgumentException("Snapshot is corrupt");
+			}
+			long[] pos = {HEADER_SIZE};
+
+			// Intern the strings, noting the id each one gets here
+			MappedByteBuffer b = block(channel, pos);
+			int[] ids = new int[strings];
+			byte[] bytes = new byte[256];
+			boolean same = true;
+			for (int i = 0; i < strings; i++) {
+				int len = (int) ByteBlock.readVarint(b);
+				if (len > bytes.length) {
+					bytes = new byte[Math.max(len, bytes.length * 2)];
+				}
+				b.get(bytes, 0, len);
+				ids[i] = dictionary.intern(bytes, 0, len);
+				same &= ids[i] == i;
+			}
+
+			b = block(channel, pos);
+			int raws = (int) ByteBlock.readVarint(b);
+			if (raws < 0 || raws > rows) {
+				throw new IllegalArgumentException("Snapshot is corrupt");
+			}
+			int[] rawRows = new int[raws];
+			String[] rawTimes = new String[raws];
+			int row = 0;
+			for (int i = 0; i < raws; i++) {
+				int gap = (int) ByteBlock.readVarint(b);
+				row += gap;
+				if (gap < 0 || (i > 0 && gap == 0) || row < 0 || row >= rows) {
+					throw new IllegalArgumentException("Snapshot is corrupt");
+				}
+				rawRows[i] = row;
+				int len = (int) ByteBlock.readVarint(b);
+				if (len > bytes.length) {
+					bytes = new byte[Math.max(len, bytes.length * 2)];
+				}
+				b.get(bytes, 0, len);
+				rawTimes[i] = new String(bytes, 0, len, StandardCharsets.UTF_8);
+			}
+
+			MappedByteBuffer times = block(channel, pos);
+			MappedByteBuffer users = block(channel, pos);
+			MappedByteBuffer actions = block(channel, pos);
+			MappedByteBuffer resources = block(channel, pos);
+			// Every row takes at least a byte of each column
+			if (rows > times.capacity() || rows > users.capacity() || rows > actions.capacity()
+					|| rows > resources.capacity()) {
+				throw new IllegalArgumentException("Snapshot is corrupt");
+			}
+			// Decoded straight into the arrays the store keeps as its columns
+			long[] timeColumn = new long[rows];
+			int[] userColumn = new int[rows];
+			int[] actionColumn = new int[rows];
+			int[] resourceColumn = new int[rows];
+			long time = 0;
+			for (row = 0; row < rows; row++) {
+				time += ByteBlock.readZigzag(times);
+				int user = (int) ByteBlock.readVarint(users);
+				int action = (int) ByteBlock.readVarint(actions);
+				int resource = (int) ByteBlock.readVarint(resources);
+				if (user < 0 || action < 0 || resource < 0
+						|| user >= strings || action >= strings || resource >= strings) {
+					throw new IllegalArgumentException("Snapshot is corrupt");
+				}
+				timeColumn[row] = time;
+				userColumn[row] = same ? user : ids[user];
+				actionColumn[row] = same ? action : ids[action];
+				resourceColumn[row] = same ? resource : ids[resource];
+			}
+			return new LogStore(dictionary, timeColumn, userColumn, actionColumn, resourceColumn, rawRows, rawTimes);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Snapshot is corrupt");
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Maps the next block of a snapshot
+	 *
+	 * @param channel the snapshot file
+	 * @param pos the offset of the block's length, advanced past the block
+	 *
+	 * @return the block's bytes
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	private static MappedByteBuffer block( FileChannel channel, long[] pos ) throws IOException {
+		if (pos[0] + 8 > channel.size()) {
+			throw new IllegalArgumentException("Snapshot is corrupt");
+		}
+		long len = channel.map(FileChannel.MapMode.READ_ONLY, pos[0], 8).getLong();
+		if (len < 0 || len > MAX_BLOCK || pos[0] + 8 + len > channel.size()) {
+			throw new IllegalArgumentException("Snapshot is corrupt");
+		}
+		MappedByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, pos[0] + 8, len);
+		pos[0] += 8 + len;
+		return b;
+	}
+
+}
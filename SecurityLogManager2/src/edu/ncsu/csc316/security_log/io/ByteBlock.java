@@ -0,0 +1,161 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A growable block of bytes for the binary file formats, with the varint and
+ * string encodings they share. A varint holds seven bits per byte, low bits
+ * first, with the high bit set on every byte but the last; a string is its
+ * UTF-8 length as a varint followed by its bytes.
+ *
+ * @author Noah Benveniste
+ */
+class ByteBlock {
+
+	/** The bytes of the block */
+	private byte[] buf;
+	/** The number of bytes in the block */
+	private int len;
+
+	/**
+	 * Constructs an empty block
+	 *
+	 * @param capacity the number of bytes the block can hold before it grows
+	 */
+	ByteBlock( int capacity ) {
+		this.buf = new byte[capacity];
+		this.len = 0;
+	}
+
+	/**
+	 * Appends an unsigned varint
+	 *
+	 * @param v the value
+	 */
+	void varint( long v ) {
+		if (len + 10 > buf.length) {
+			grow(len + 10);
+		}
+		while ((v & ~0x7FL) != 0) {
+			buf[len++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		buf[len++] = (byte) v;
+	}
+
+	/**
+	 * Appends a signed value as a zigzag varint, so values near zero take a
+	 * byte or two whatever their sign
+	 *
+	 * @param v the value
+	 */
+	void zigzag( long v ) {
+		varint((v << 1) ^ (v >> 63));
+	}
+
+	/**
+	 * Appends a string as its UTF-8 length and bytes
+	 *
+	 * @param s the string
+	 */
+	void string( String s ) {
+		byte[] b = s.getBytes(StandardCharsets.UTF_8);
+		varint(b.length);
+		if (len + b.length > buf.length) {
+			grow(len + b.length);
+		}
+		System.arraycopy(b, 0, buf, len, b.length);
+		len += b.length;
+	}
+
+	/**
+	 * Grows the buffer
+	 *
+	 * @param n the number of bytes needed
+	 */
+	private void grow( int n ) {
+		byte[] grown = new byte[Math.max(n, buf.length * 2)];
+		System.arraycopy(buf, 0, grown, 0, len);
+		buf = grown;
+	}
+
+	/**
+	 * Gets the array holding the block, which is only valid until the next append
+	 *
+	 * @return the array; the block is its first length() bytes
+	 */
+	byte[] array() {
+		return buf;
+	}
+
+	/**
+	 * Gets the number of bytes in the block
+	 *
+	 * @return the length of the block
+	 */
+	int length() {
+		return len;
+	}
+
+	/**
+	 * Empties the block
+	 */
+	void clear() {
+		len = 0;
+	}
+
+	/**
+	 * Writes the block's length as a long and its bytes, and empties it for
+	 * the next block
+	 *
+	 * @param out the stream to write to
+	 *
+	 * @throws IOException if the stream cannot be written
+	 */
+	void writeTo( DataOutputStream out ) throws IOException {
+		out.writeLong(len);
+		out.write(buf, 0, len);
+		len = 0;
+	}
+
+	/**
+	 * Reads an unsigned varint
+	 *
+	 * @param b the buffer to read from
+	 *
+	 * @return the value
+	 *
+	 * @throws BufferUnderflowException if the buffer ends before the varint
+	 *         does, or the varint is longer than any long's
+	 */
+	static long readVarint( ByteBuffer b ) {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte x = b.get();
+			v |= (long) (x & 0x7F) << shift;
+			if (x >= 0) {
+				return v;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	/**
+	 * Reads a zigzag varint
+	 *
+	 * @param b the buffer to read from
+	 *
+	 * @return the signed value
+	 *
+	 * @throws BufferUnderflowException if the buffer ends before the varint does
+	 */
+	static long readZigzag( ByteBuffer b ) {
+		long z = readVarint(b);
+		return (z >>> 1) ^ -(z & 1);
+	}
+
+}
@@ -0,0 +1,219 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Follows a log file that is being appended to, like tail -F. Each poll()
+ * parses the complete lines written since the last one, starting at the byte
+ * offset already consumed, so nothing is read twice. A line without its
+ * '\n' yet is left for a later poll.
+ *
+ * The file stays open between polls. If it shrinks below the offset it was
+ * truncated, and it is read again from the top. If the path comes to name a
+ * different file (it was rotated), the rest of the old file is read, including
+ * a last line without a '\n', before following the new file from the top.
+ * Every file starts with a header line, which is skipped. Rotation is detected
+ * by the file key of the path, where the file system has one.
+ *
+ * @author Noah Benveniste
+ */
+public class LogFollower implements Closeable {
+
+	/** The number of bytes read at a time when looking for the last '\n' */
+	private static final int SCAN_SIZE = 1 << 16;
+
+	/** The path being followed */
+	private Path path;
+	/** The dictionary the parsed rows use */
+	private StringDictionary dictionary;
+	/** The file currently being followed, or null until the path exists */
+	private FileChannel channel;
+	/** Parses lines out of channel */
+	private MappedLogParser parser;
+	/** The file key of the file in channel, or null if the file system has none */
+	private Object fileKey;
+	/** The offset just past the last line parsed from channel */
+	private long offset;
+	/** Whether the header line of the file in channel has been skipped */
+	private boolean headerSkipped;
+
+	/**
+	 * Constructs a follower that will read the file from the top on the first poll
+	 *
+	 * @param fileName the name of the file to follow, which need not exist yet
+	 * @param dictionary the dictionary to intern the rows' strings in
+	 */
+	public LogFollower( String fileName, StringDictionary dictionary ) {
+		this.path = Paths.get(fileName);
+		this.dictionary = dictionary;
+		this.channel = null;
+		this.offset = 0;
+		this.headerSkipped = false;
+	}
+
+	/**
+	 * Parses the complete lines written to the file since the last poll
+	 *
+	 * @return a store of the new rows, in file order, which is empty if there are none
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a line is not formatted properly
+	 */
+	public synchronized LogStore poll() throws IOException {
+		LogStore batch = new LogStore(dictionary);
+		if (channel == null && !open()) {
+			return batch;
+		}
+		if (rotated()) {
+			// Finish the old file, then start on the new one
+			read(batch, true);
+			channel.close();
+			channel = null;
+			if (!open()) {
+				return batch;
+			}
+		} else if (channel.size() < offset) {
+			// Truncated in place, so start again from the top
+			offset = 0;
+			headerSkipped = false;
+		}
+		read(batch, false);
+		return batch;
+	}
+
+	/**
+	 * Gets the offset in the current file up to which lines have been parsed
+	 *
+	 * @return the number of bytes consumed
+	 */
+	public synchronized long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Closes the file being followed
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Opens the file at the path to follow it from the top
+	 *
+	 * @return false if there is no file at the path yet
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	private boolean open() throws IOException {
+		Object key;
+		try {
+			key = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		} catch (NoSuchFileException e) {
+			return false;
+		}
+		parser = new MappedLogParser(channel, dictionary);
+		fileKey = key;
+		offset = 0;
+		headerSkipped = false;
+		return true;
+	}
+
+	/**
+	 * Checks whether the path now names a different file than the one being read
+	 *
+	 * @return true if a different file is at the path; false if it is the same
+	 *         file, there is no file there right now, or files have no keys
+	 *
+	 * @throws IOException if the file's attributes cannot be read
+	 */
+	private boolean rotated() throws IOException {
+		if (fileKey == null) {
+			return false;
+		}
+		try {
+			return !fileKey.equals(Files.readAttributes(path, BasicFileAttributes.class).fileKey());
+		} catch (NoSuchFileException e) {
+			// Moved away and not yet replaced; keep reading the old file
+			return false;
+		}
+	}
+
+	/**
+	 * Parses the lines after offset
+	 *
+	 * @param batch the store to add the rows to
+	 * @param whole true to parse a last line without a '\n' too, for a file
+	 *        that will not be written again
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	private void read( LogStore batch, boolean whole ) throws IOException {
+		long size = channel.size();
+		if (!headerSkipped) {
+			long start = lineEnd(0, size);
+			if (start == 0) {
+				// The header is not complete yet
+				return;
+			}
+			offset = parser.nextLineStart(0);
+			headerSkipped = true;
+		}
+		long end = whole ? size : lineEnd(offset, size);
+		if (end > offset) {
+			parser.parse(offset, end, batch);
+			offset = end;
+		}
+	}
+
+	/**
+	 * Finds the end of the last complete line in a range of the file
+	 *
+	 * @param from the offset to search from
+	 * @param to the offset to search to
+	 *
+	 * @return the offset just past the last '\n' in [from, to), or from if there is none
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	private long lineEnd( long from, long to ) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(SCAN_SIZE);
+		long end = to;
+		while (end > from) {
+			long start = Math.max(from, end - SCAN_SIZE);
+			buf.clear();
+			buf.limit((int) (end - start));
+			while (buf.hasRemaining()) {
+				if (channel.read(buf, start + buf.position()) < 0) {
+					break;
+				}
+			}
+			for (int i = buf.position() - 1; i >= 0; i--) {
+				if (buf.get(i) == '\n') {
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return from;
+	}
+
+}
@@ -0,0 +1,457 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+import edu.ncsu.csc316.security_log.data.TimeStamp;
+
+/**
+ * Writes synthetic activity logs in the "USERNAME, TIMESTAMP, ACTION, RESOURCE"
+ * format read by SecurityLogIO, for scale and load testing.
+ *
+ * Rows are spread evenly over a time span starting at a given time. Users and
+ * actions are drawn from Zipf distributions, so the user and action of rank k
+ * are picked in proportion to 1 / k^s; a skew s of 0 picks them uniformly.
+ * Resources are picked uniformly. A given fraction of rows is written out of
+ * order, with a time stamp up to a maximum lateness earlier than its
+ * neighbours. The same settings and seed always produce the same file.
+ *
+ * Every user name, action and resource is encoded once up front and rows are
+ * formatted straight into a byte buffer, so files of 100M rows can be written
+ * at close to disk speed.
+ *
+ * The generator can be run from the command line:
+ *
+ * <pre>
+ * java edu.ncsu.csc316.security_log.io.LogGenerator [options] output.txt
+ *   --rows N            number of rows (default 1000000)
+ *   --users N           number of distinct users (default 1000)
+ *   --resources N       number of distinct resources (default 10000)
+ *   --user-skew S       Zipf exponent of the users (default 1.0)
+ *   --action-skew S     Zipf exponent of the actions (default 0.8)
+ *   --start TIME        time of the first row, e.g. "01/01/2015 12:00:00AM"
+ *   --days N            time span in days (default 1095)
+ *   --out-of-order R    fraction of rows written out of order (default 0)
+ *   --max-lateness N    most seconds an out of order row is early (default 3600)
+ *   --seed N            random seed (default 316)
+ * </pre>
+ *
+ * @author Noah Benveniste
+ */
+public class LogGenerator {
+
+	/** The first line of every log */
+	private static final String HEADER = "USERNAME, TIMESTAMP, ACTION, RESOURCE\n";
+	/** The actions that can appear in a log, most common first */
+	private static final String[] ACTIONS = {"cancel", "unmerge", "create", "update", "modify", "complete",
+			"print", "resolve", "assign", "export", "query", "schedule", "disable", "import", "merge", "order",
+			"delete", "enable", "sort", "view", "access"};
+	/** The prefixes of the resources that can appear in a log */
+	private static final String[] RESOURCE_PREFIXES = {"notification NX", "system alert CA", "office visit OV",
+			"appointment A", "message M", "ICD-9 Code ", "patient specific instructions A", "HL7 Code ",
+			"CPT Code ", "ICD-10 Code ", "ICD Code ", "LOINC code ", "ND code "};
+	/** Size of the output buffer */
+	private static final int BUFFER_SIZE = 1 << 20;
+	/** Longest possible row, in bytes, beyond the user name and resource */
+	private static final int ROW_OVERHEAD = 64;
+
+	/** Number of rows */
+	private long rows;
+	/** Number of distinct users */
+	private int users;
+	/** Number of distinct resources */
+	private int resources;
+	/** Zipf exponent of the users */
+	private double userSkew;
+	/** Zipf exponent of the actions */
+	private double actionSkew;
+	/** The time of the first row */
+	private LocalDateTime start;
+	/** The time span, in seconds */
+	private long span;
+	/** Fraction of rows written out of order */
+	private double outOfOrder;
+	/** Most seconds an out of order row is early */
+	private long maxLateness;
+	/** Random seed */
+	private long seed;
+
+	/** The epoch day whose date text is cached */
+	private long cachedDay;
+	/** The "MM/dd/yyyy " text of cachedDay */
+	private byte[] cachedDate;
+
+	/**
+	 * Constructs a generator with the default settings
+	 *
+	 * @param rows the number of rows to write
+	 */
+	public LogGenerator( long rows ) {
+		if (rows < 0) {
+			throw new IllegalArgumentException("Number of rows must not be negative");
+		}
+		this.rows = rows;
+		this.users = 1000;
+		this.resources = 10000;
+		this.userSkew = 1.0;
+		this.actionSkew = 0.8;
+		this.start = LocalDateTime.of(2015, 1, 1, 0, 0, 0);
+		this.span = 1095L * 24 * 60 * 60;
+		this.outOfOrder = 0;
+		this.maxLateness = 3600;
+		this.seed = 316;
+	}
+
+	/**
+	 * Sets the number of distinct users
+	 *
+	 * @param users the number of users
+	 */
+	public void setUsers( int users ) {
+		if (users < 1) {
+			throw new IllegalArgumentException("There must be at least one user");
+		}
+		this.users = users;
+	}
+
+	/**
+	 * Sets the number of distinct resources
+	 *
+	 * @param resources the number of resources
+	 */
+	public void setResources( int resources ) {
+		if (resources < 1) {
+			throw new IllegalArgumentException("There must be at least one resource");
+		}
+		this.resources = resources;
+	}
+
+	/**
+	 * Sets the Zipf exponent of the users
+	 *
+	 * @param skew the exponent; 0 picks users uniformly
+	 */
+	public void setUserSkew( double skew ) {
+		if (skew < 0) {
+			throw new IllegalArgumentException("Skew must not be negative");
+		}
+		this.userSkew = skew;
+	}
+
+	/**
+	 * Sets the Zipf exponent of the actions
+	 *
+	 * @param skew the exponent; 0 picks actions uniformly
+	 */
+	public void setActionSkew( double skew ) {
+		if (skew < 0) {
+			throw new IllegalArgumentException("Skew must not be negative");
+		}
+		this.actionSkew = skew;
+	}
+
+	/**
+	 * Sets the time of the first row
+	 *
+	 * @param start the time of the first row
+	 */
+	public void setStart( LocalDateTime start ) {
+		this.start = start;
+	}
+
+	/**
+	 * Sets the time span the rows are spread over
+	 *
+	 * @param seconds the span, in seconds
+	 */
+	public void setSpan( long seconds ) {
+		if (seconds < 0) {
+			throw new IllegalArgumentException("Span must not be negative");
+		}
+		this.span = seconds;
+	}
+
+	/**
+	 * Sets the fraction of rows written out of order
+	 *
+	 * @param ratio the fraction, from 0 to 1
+	 */
+	public void setOutOfOrder( double ratio ) {
+		if (ratio < 0 || ratio > 1) {
+			throw new IllegalArgumentException("Out of order ratio must be between 0 and 1");
+		}
+		this.outOfOrder = ratio;
+	}
+
+	/**
+	 * Sets the most seconds an out of order row can be earlier than its place in the log
+	 *
+	 * @param seconds the maximum lateness
+	 */
+	public void setMaxLateness( long seconds ) {
+		if (seconds < 1) {
+			throw new IllegalArgumentException("Maximum lateness must be positive");
+		}
+		this.maxLateness = seconds;
+	}
+
+	/**
+	 * Sets the random seed
+	 *
+	 * @param seed the seed
+	 */
+	public void setSeed( long seed ) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Gets the name of the user with the given rank. Names are eight lower case
+	 * letters and distinct for every rank.
+	 *
+	 * @param rank the rank of the user, from 0 for the most active user
+	 *
+	 * @return the user name
+	 */
+	public static String getUserName( int rank ) {
+		// Multiplying by a number coprime to 26^8 maps ranks to distinct names
+		long v = ((rank + 1L) * 5040161L) % 208827064576L;
+		char[] c = new char[8];
+		for (int i = 7; i >= 0; i--) {
+			c[i] = (char) ('a' + v % 26);
+			v /= 26;
+		}
+		return new String(c);
+	}
+
+	/**
+	 * Writes the log to a file
+	 *
+	 * @param fileName the name of the file
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write( String fileName ) throws IOException {
+		try (OutputStream out = new FileOutputStream(fileName)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Writes the log to a stream
+	 *
+	 * @param out the stream to write to
+	 *
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void write( OutputStream out ) throws IOException {
+		SplittableRandom r = new SplittableRandom(seed);
+		byte[][] userNames = new byte[users][];
+		int longest = 0;
+		for (int i = 0; i < users; i++) {
+			userNames[i] = encode(getUserName(i) + ", ");
+		}
+		byte[][] actionNames = new byte[ACTIONS.length][];
+		for (int i = 0; i < ACTIONS.length; i++) {
+			actionNames[i] = encode(", " + ACTIONS[i] + ", ");
+		}
+		byte[][] resourceNames = new byte[resources][];
+		for (int i = 0; i < resources; i++) {
+			String prefix = RESOURCE_PREFIXES[i % RESOURCE_PREFIXES.length];
+			resourceNames[i] = encode(prefix + String.format("%05d", i / RESOURCE_PREFIXES.length) + "\n");
+			longest = Math.max(longest, resourceNames[i].length);
+		}
+		double[] userCdf = zipf(users, userSkew);
+		double[] actionCdf = zipf(ACTIONS.length, actionSkew);
+
+		long first = start.toEpochSecond(ZoneOffset.UTC);
+		cachedDay = Long.MIN_VALUE;
+		byte[] buf = new byte[BUFFER_SIZE];
+		byte[] header = encode(HEADER);
+		System.arraycopy(header, 0, buf, 0, header.length);
+		int pos = header.length;
+		int limit = BUFFER_SIZE - ROW_OVERHEAD - longest - 8;
+		for (long i = 0; i < rows; i++) {
+			if (pos > limit) {
+				out.write(buf, 0, pos);
+				pos = 0;
+			}
+			long second = first + (rows == 0 ? 0 : (long) ((double) i / rows * span));
+			if (outOfOrder > 0 && r.nextDouble() < outOfOrder) {
+				second = Math.max(first, second - 1 - r.nextLong(maxLateness));
+			}
+			byte[] user = userNames[sample(userCdf, r.nextDouble())];
+			System.arraycopy(user, 0, buf, pos, user.length);
+			pos += user.length;
+			pos = formatTime(second, buf, pos);
+			byte[] action = actionNames[sample(actionCdf, r.nextDouble())];
+			System.arraycopy(action, 0, buf, pos, action.length);
+			pos += action.length;
+			byte[] resource = resourceNames[r.nextInt(resources)];
+			System.arraycopy(resource, 0, buf, pos, resource.length);
+			pos += resource.length;
+		}
+		out.write(buf, 0, pos);
+		out.flush();
+	}
+
+	/**
+	 * Encodes a string as UTF-8
+	 *
+	 * @param s the string
+	 *
+	 * @return the encoded bytes
+	 */
+	private static byte[] encode( String s ) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Builds the cumulative distribution of a Zipf distribution
+	 *
+	 * @param n the number of ranks
+	 * @param s the exponent
+	 *
+	 * @return the probability that a rank up to and including each rank is picked
+	 */
+	private static double[] zipf( int n, double s ) {
+		double[] cdf = new double[n];
+		double sum = 0;
+		for (int k = 0; k < n; k++) {
+			sum += 1 / Math.pow(k + 1, s);
+			cdf[k] = sum;
+		}
+		for (int k = 0; k < n; k++) {
+			cdf[k] /= sum;
+		}
+		return cdf;
+	}
+
+	/**
+	 * Picks a rank from a cumulative distribution
+	 *
+	 * @param cdf the cumulative distribution
+	 * @param u a uniform random number in [0, 1)
+	 *
+	 * @return the first rank whose cumulative probability is greater than u
+	 */
+	private static int sample( double[] cdf, double u ) {
+		int low = 0;
+		int high = cdf.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (cdf[mid] <= u) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Writes a time stamp in the "MM/dd/yyyy hh:mm:ssAM" format
+	 *
+	 * @param epochSecond the time, in seconds since the epoch
+	 * @param buf the buffer to write to
+	 * @param pos the position to write at
+	 *
+	 * @return the position after the time stamp
+	 */
+	private int formatTime( long epochSecond, byte[] buf, int pos ) {
+		long day = Math.floorDiv(epochSecond, 86400L);
+		int secondOfDay = (int) Math.floorMod(epochSecond, 86400L);
+		if (day != cachedDay) {
+			LocalDate d = LocalDate.ofEpochDay(day);
+			long packed = d.getYear() * 10000000000L + d.getMonthValue() * 100000000L
+					+ d.getDayOfMonth() * 1000000L;
+			// Keep the "MM/dd/yyyy " part of the formatted time stamp
+			cachedDate = encode(TimeStamp.format(packed).substring(0, 11));
+			cachedDay = day;
+		}
+		System.arraycopy(cachedDate, 0, buf, pos, cachedDate.length);
+		pos += cachedDate.length;
+
+		int hour = secondOfDay / 3600;
+		int minute = secondOfDay / 60 % 60;
+		int second = secondOfDay % 60;
+		int h12 = hour % 12 == 0 ? 12 : hour % 12;
+		pos = twoDigits(h12, buf, pos);
+		buf[pos++] = ':';
+		pos = twoDigits(minute, buf, pos);
+		buf[pos++] = ':';
+		pos = twoDigits(second, buf, pos);
+		buf[pos++] = (byte) (hour < 12 ? 'A' : 'P');
+		buf[pos++] = 'M';
+		return pos;
+	}
+
+	/**
+	 * Writes a number from 0 to 99 as two digits
+	 *
+	 * @param v the number
+	 * @param buf the buffer to write to
+	 * @param pos the position to write at
+	 *
+	 * @return the position after the digits
+	 */
+	private static int twoDigits( int v, byte[] buf, int pos ) {
+		buf[pos++] = (byte) ('0' + v / 10);
+		buf[pos++] = (byte) ('0' + v % 10);
+		return pos;
+	}
+
+	/**
+	 * Writes a synthetic log from the command line options described above
+	 *
+	 * @param args the options followed by the output file name
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main( String[] args ) throws IOException {
+		if (args.length == 0 || args.length % 2 == 0) {
+			System.err.println("Usage: LogGenerator [--option value]... output.txt");
+			System.exit(1);
+		}
+		LogGenerator g = new LogGenerator(1000000);
+		for (int i = 0; i < args.length - 1; i += 2) {
+			String option = args[i];
+			String value = args[i + 1];
+			if ("--rows".equals(option)) {
+				g.rows = Long.parseLong(value);
+			} else if ("--users".equals(option)) {
+				g.setUsers(Integer.parseInt(value));
+			} else if ("--resources".equals(option)) {
+				g.setResources(Integer.parseInt(value));
+			} else if ("--user-skew".equals(option)) {
+				g.setUserSkew(Double.parseDouble(value));
+			} else if ("--action-skew".equals(option)) {
+				g.setActionSkew(Double.parseDouble(value));
+			} else if ("--start".equals(option)) {
+				long t = TimeStamp.parseValid(value, 0);
+				g.setStart(LocalDateTime.of((int) (t / 10000000000L), (int) (t / 100000000 % 100),
+						(int) (t / 1000000 % 100), (int) (t / 10000 % 100), (int) (t / 100 % 100), (int) (t % 100)));
+			} else if ("--days".equals(option)) {
+				g.setSpan(Long.parseLong(value) * 24 * 60 * 60);
+			} else if ("--out-of-order".equals(option)) {
+				g.setOutOfOrder(Double.parseDouble(value));
+			} else if ("--max-lateness".equals(option)) {
+				g.setMaxLateness(Long.parseLong(value));
+			} else if ("--seed".equals(option)) {
+				g.setSeed(Long.parseLong(value));
+			} else {
+				System.err.println("Unknown option " + option);
+				System.exit(1);
+			}
+		}
+		long begin = System.nanoTime();
+		g.write(args[args.length - 1]);
+		System.out.printf("Wrote %d rows in %d ms%n", g.rows, (System.nanoTime() - begin) / 1000000);
+	}
+
+}
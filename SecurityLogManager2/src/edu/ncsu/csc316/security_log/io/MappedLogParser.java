@@ -0,0 +1,299 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+import edu.ncsu.csc316.security_log.data.TimeStamp;
+
+/**
+ * Parses a log file by memory mapping it and scanning the raw bytes for the
+ * ',' and '\n' delimiters directly. Fields are decoded straight out of the
+ * mapped bytes, so no intermediate String is built for each line and no
+ * tokenizer objects are created. Time stamps are parsed from the bytes with
+ * TimeStamp.parse(), by the same lenient rules as the TimeStamp constructor,
+ * and only turned into Strings when format() would not rebuild them; the user,
+ * action and resource are interned into a StringDictionary straight from the
+ * bytes, so a String is only created the first time a value is seen. Rows
+ * are appended straight to the columns of a LogStore.
+ *
+ * Lines are split into fields the same way the Scanner/StringTokenizer path
+ * splits them: empty tokens between consecutive commas are skipped, only the
+ * first four tokens are used, and the leading character of the time stamp,
+ * action and resource tokens is dropped.
+ *
+ * @author Noah Benveniste
+ */
+public class MappedLogParser {
+
+	/** Largest region that is mapped at once; a single mapping cannot exceed 2GB */
+	private static final long MAX_REGION = Integer.MAX_VALUE;
+	/** Initial size of the buffer that a single line is copied into */
+	private static final int INIT_LINE_SIZE = 256;
+	/** Number of fields in a log entry */
+	private static final int NUM_FIELDS = 4;
+
+	/** The channel of the file being parsed */
+	private FileChannel channel;
+	/** Reusable buffer that holds the bytes of the line currently being parsed */
+	private byte[] line;
+	/** Start offset of each field within the line buffer */
+	private int[] fieldStart;
+	/** End offset (exclusive) of each field within the line buffer */
+	private int[] fieldEnd;
+	/** The dictionary the parsed entries' strings are interned in; may be shared by several parsers */
+	private StringDictionary dictionary;
+	/**
+	 * This parser's own dictionary. Each value is looked up here first so the shared,
+	 * synchronized dictionary is only used for values this parser has not seen yet
+	 */
+	private StringDictionary local;
+	/** The id in the shared dictionary of each id in the local dictionary */
+	private int[] toShared;
+	/** The number of local ids whose shared id is known */
+	private int resolved;
+
+	/**
+	 * Opens the given file for parsing
+	 *
+	 * @param fileName the name of the file containing log entries
+	 * @param dictionary the dictionary to intern the entries' strings in
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	public MappedLogParser( String fileName, StringDictionary dictionary ) throws IOException {
+		this(FileChannel.open(Paths.get(fileName), StandardOpenOption.READ), dictionary);
+	}
+
+	/**
+	 * Parses log entries out of an already opened channel. The channel is
+	 * closed by close().
+	 *
+	 * @param channel the channel to read from
+	 * @param dictionary the dictionary to intern the entries' strings in
+	 */
+	public MappedLogParser( FileChannel channel, StringDictionary dictionary ) {
+		this.channel = channel;
+		this.line = new byte[INIT_LINE_SIZE];
+		this.fieldStart = new int[NUM_FIELDS];
+		this.fieldEnd = new int[NUM_FIELDS];
+		this.dictionary = dictionary;
+		this.local = new StringDictionary();
+		this.toShared = new int[INIT_LINE_SIZE];
+		this.resolved = 0;
+	}
+
+	/**
+	 * Parses every log entry in the file, skipping the header line
+	 *
+	 * @return a store holding the log entries in the same order as the file
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a line is not formatted properly
+	 */
+	public LogStore parseAll() throws IOException {
+		LogStore logs = new LogStore(dictionary);
+		parse(skipHeader(), channel.size(), logs);
+		return logs;
+	}
+
+	/**
+	 * Finds the offset of the first byte after the header line
+	 *
+	 * @return the offset the first log entry starts at, or the size of the file
+	 *         if it has no complete header line
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public long skipHeader() throws IOException {
+		return nextLineStart(0);
+	}
+
+	/**
+	 * Finds the start of the line following the one that contains the given offset
+	 *
+	 * @param pos the offset to search from
+	 *
+	 * @return the offset just past the next '\n' at or after pos, or the size of the
+	 *         file if there is none
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	public long nextLineStart( long pos ) throws IOException {
+		long size = channel.size();
+		while (pos < size) {
+			long regionEnd = Math.min(size, pos + MAX_REGION);
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, regionEnd - pos);
+			int len = buf.limit();
+			for (int i = 0; i < len; i++) {
+				if (buf.get(i) == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos = regionEnd;
+		}
+		return size;
+	}
+
+	/**
+	 * Parses the complete lines that start in the byte range [start, end) and
+	 * appends a row for each to the given store. end must either be the size
+	 * of the file or lie just past a '\n'.
+	 *
+	 * @param start the offset of the first line to parse
+	 * @param end the offset just past the last line to parse
+	 * @param out the store to append parsed rows to; it must use this parser's dictionary
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a line is not formatted properly
+	 */
+	public void parse( long start, long end, LogStore out ) throws IOException {
+		long pos = start;
+		while (pos < end) {
+			long regionEnd = Math.min(end, pos + MAX_REGION);
+			MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, regionEnd - pos);
+			int len = buf.limit();
+			int lineStart = 0;
+			for (int i = 0; i < len; i++) {
+				if (buf.get(i) == '\n') {
+					parseLine(buf, lineStart, i, out);
+					lineStart = i + 1;
+				}
+			}
+			if (lineStart == 0 && regionEnd < end) {
+				throw new IllegalArgumentException("Error when reading input file");
+			}
+			if (regionEnd == end && lineStart < len) {
+				// The last line in the file does not end with a newline
+				parseLine(buf, lineStart, len, out);
+				lineStart = len;
+			}
+			// Remap starting at the first line that was cut off by the region boundary
+			pos += lineStart;
+		}
+	}
+
+	/**
+	 * Parses a single line of the mapped region and appends the resulting row
+	 *
+	 * @param buf the mapped region
+	 * @param from the offset of the first byte of the line
+	 * @param to the offset of the '\n' ending the line, or the end of the region
+	 * @param out the store to append the row to
+	 *
+	 * @throws IllegalArgumentException if the line does not contain four fields
+	 */
+	private void parseLine( MappedByteBuffer buf, int from, int to, LogStore out ) {
+		// Drop the '\r' of a "\r\n" line ending, the same as Scanner.nextLine() does
+		if (to > from && buf.get(to - 1) == '\r') {
+			to--;
+		}
+		int len = to - from;
+		if (len > line.length) {
+			line = new byte[Math.max(len, line.length * 2)];
+		}
+		buf.position(from);
+		buf.get(line, 0, len);
+
+		// Find the first four non-empty comma separated tokens
+		int field = 0;
+		int i = 0;
+		while (field < NUM_FIELDS && i < len) {
+			while (i < len && line[i] == ',') {
+				i++;
+			}
+			if (i == len) {
+				break;
+			}
+			fieldStart[field] = i;
+			while (i < len && line[i] != ',') {
+				i++;
+			}
+			fieldEnd[field] = i;
+			field++;
+		}
+		if (field < NUM_FIELDS) {
+			throw new IllegalArgumentException("Error when reading input file");
+		}
+
+		// time stamp, action and resource all have an extra leading whitespace.
+		// The time stamp is parsed straight out of the line buffer.
+		int timeFrom = fieldStart[1] + 1;
+		int timeLen = fieldEnd[1] - timeFrom;
+		long time;
+		try {
+			time = TimeStamp.parse(line, timeFrom, timeLen);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Error when reading input file");
+		}
+		String rawTime = TimeStamp.isCanonical(line, timeFrom, timeLen) ? null : decode(1, 1);
+		out.add(time, rawTime, intern(0, 0), intern(2, 1), intern(3, 1));
+	}
+
+	/**
+	 * Decodes a field of the current line into a string
+	 *
+	 * @param field the index of the field to decode
+	 * @param skip the number of leading bytes to drop from the field
+	 *
+	 * @return the field's text
+	 */
+	private String decode( int field, int skip ) {
+		int from = fieldStart[field] + skip;
+		if (from > fieldEnd[field]) {
+			throw new IllegalArgumentException("Error when reading input file");
+		}
+		return new String(line, from, fieldEnd[field] - from, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Interns a field of the current line in the dictionary
+	 *
+	 * @param field the index of the field to intern
+	 * @param skip the number of leading bytes to drop from the field
+	 *
+	 * @return the field's id in the dictionary
+	 */
+	private int intern( int field, int skip ) {
+		int from = fieldStart[field] + skip;
+		if (from > fieldEnd[field]) {
+			throw new IllegalArgumentException("Error when reading input file");
+		}
+		int len = fieldEnd[field] - from;
+		int id = local.intern(line, from, len);
+		if (id == resolved) {
+			// First time this parser has seen the value
+			if (resolved == toShared.length) {
+				int[] grown = new int[toShared.length * 2];
+				System.arraycopy(toShared, 0, grown, 0, resolved);
+				toShared = grown;
+			}
+			toShared[resolved++] = dictionary.intern(line, from, len);
+		}
+		return toShared[id];
+	}
+
+	/**
+	 * Gets the dictionary the parsed entries' strings are interned in
+	 *
+	 * @return the dictionary
+	 */
+	public StringDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Closes the underlying file channel
+	 *
+	 * @throws IOException if the channel cannot be closed
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
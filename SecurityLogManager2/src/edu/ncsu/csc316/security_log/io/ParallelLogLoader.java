@@ -0,0 +1,237 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Loads a log file on all available cores. The file is split into byte ranges
+ * whose boundaries are moved forward to the start of the next line, each range
+ * is parsed by a MappedLogParser on a fork-join worker into its own LogStore,
+ * and the stores are then concatenated in range order so the result is in the
+ * same order as the file. All workers intern into one shared StringDictionary, but
+ * each only goes to it for values that are new to that worker.
+ *
+ * @author Noah Benveniste
+ */
+public class ParallelLogLoader {
+
+	/** Files smaller than this are parsed on the calling thread */
+	public static final long PARALLEL_THRESHOLD = 4L * 1024 * 1024;
+	/** Default smallest byte range handed to a worker */
+	private static final long MIN_CHUNK_SIZE = 1024L * 1024;
+	/** Number of chunks per worker, so faster workers can pick up extra chunks */
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	/** The pool that chunks are parsed on */
+	private ForkJoinPool pool;
+	/** Smallest byte range handed to a worker */
+	private long minChunkSize;
+
+	/**
+	 * Constructs a loader that runs on the common fork-join pool
+	 */
+	public ParallelLogLoader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a loader that runs on the given pool
+	 *
+	 * @param pool the pool to parse chunks on
+	 */
+	public ParallelLogLoader( ForkJoinPool pool ) {
+		this(pool, MIN_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructs a loader that runs on the given pool and never hands a worker
+	 * less than minChunkSize bytes (other than the last chunk)
+	 *
+	 * @param pool the pool to parse chunks on
+	 * @param minChunkSize the smallest byte range handed to a worker
+	 */
+	ParallelLogLoader( ForkJoinPool pool, long minChunkSize ) {
+		this.pool = pool;
+		this.minChunkSize = minChunkSize;
+	}
+
+	/**
+	 * Parses every log entry in the file, skipping the header line
+	 *
+	 * @param fileName the name of the file containing log entries
+	 * @param dictionary the dictionary to intern the entries' strings in
+	 *
+	 * @return a store holding the log entries in the same order as the file
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a line is not formatted properly
+	 */
+	public LogStore load( String fileName, StringDictionary dictionary ) throws IOException {
+		FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		try {
+			return load(channel, dictionary);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Parses every log entry in the channel, skipping the header line
+	 *
+	 * @param channel the channel to read from; it is left open
+	 * @param dictionary the dictionary to intern the entries' strings in
+	 *
+	 * @return a store holding the log entries in the same order as the file
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a line is not formatted properly
+	 */
+	private LogStore load( FileChannel channel, StringDictionary dictionary ) throws IOException {
+		MappedLogParser splitter = new MappedLogParser(channel, dictionary);
+		long start = splitter.skipHeader();
+		long size = channel.size();
+
+		// Pick the chunk boundaries, moving each one forward to the start of a line
+		int workers = pool.getParallelism();
+		long chunkSize = Math.max(minChunkSize, (size - start) / ((long) workers * CHUNKS_PER_WORKER) + 1);
+		int numChunks = (int) ((size - start + chunkSize - 1) / chunkSize);
+		ChunkTask[] chunks = new ChunkTask[numChunks];
+		int n = 0;
+		long from = start;
+		while (from < size) {
+			long to = from + chunkSize >= size ? size : splitter.nextLineStart(from + chunkSize - 1);
+			chunks[n++] = new ChunkTask(channel, dictionary, from, to);
+			from = to;
+		}
+
+		pool.invoke(new ChunksTask(chunks, n));
+
+		// Merge the chunk results in file order; the stores merge their min/max time stamps
+		int total = 0;
+		for (int i = 0; i < n; i++) {
+			chunks[i].rethrow();
+			total += chunks[i].entries.size();
+		}
+		LogStore logs = new LogStore(dictionary, total);
+		for (int i = 0; i < n; i++) {
+			logs.addAll(chunks[i].entries);
+		}
+		return logs;
+	}
+
+	/**
+	 * Forks one task per chunk and waits for all of them
+	 *
+	 * @author Noah Benveniste
+	 */
+	private static class ChunksTask extends RecursiveAction {
+
+		/** ID used for serialization */
+		private static final long serialVersionUID = 1L;
+		/** The chunks to parse */
+		private ChunkTask[] chunks;
+		/** The number of chunks in use */
+		private int n;
+
+		/**
+		 * Constructs a task that parses the first n chunks
+		 *
+		 * @param chunks the chunks to parse
+		 * @param n the number of chunks in use
+		 */
+		ChunksTask( ChunkTask[] chunks, int n ) {
+			this.chunks = chunks;
+			this.n = n;
+		}
+
+		/**
+		 * Forks every chunk task, then joins them
+		 */
+		@Override
+		protected void compute() {
+			for (int i = 0; i < n; i++) {
+				chunks[i].fork();
+			}
+			for (int i = n - 1; i >= 0; i--) {
+				chunks[i].join();
+			}
+		}
+	}
+
+	/**
+	 * Parses one line-aligned byte range of the file into a local store, which
+	 * tracks the range's own min and max time stamps
+	 *
+	 * @author Noah Benveniste
+	 */
+	private static class ChunkTask extends RecursiveAction {
+
+		/** ID used for serialization */
+		private static final long serialVersionUID = 1L;
+		/** The channel of the file being parsed */
+		private FileChannel channel;
+		/** The dictionary shared by every chunk */
+		private StringDictionary dictionary;
+		/** Offset of the first byte of the range */
+		private long from;
+		/** Offset just past the last byte of the range */
+		private long to;
+		/** The entries parsed from the range, in file order */
+		private LogStore entries;
+		/**
+		 * The exception the range failed with. Kept here rather than thrown through
+		 * join(), which would wrap it when it crosses threads
+		 */
+		private Exception failure;
+
+		/**
+		 * Constructs a task for the byte range [from, to)
+		 *
+		 * @param channel the channel of the file being parsed
+		 * @param dictionary the dictionary shared by every chunk
+		 * @param from offset of the first byte of the range
+		 * @param to offset just past the last byte of the range
+		 */
+		ChunkTask( FileChannel channel, StringDictionary dictionary, long from, long to ) {
+			this.channel = channel;
+			this.dictionary = dictionary;
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Parses the range
+		 */
+		@Override
+		protected void compute() {
+			MappedLogParser parser = new MappedLogParser(channel, dictionary);
+			entries = new LogStore(dictionary);
+			try {
+				parser.parse(from, to, entries);
+			} catch (IOException | RuntimeException e) {
+				failure = e;
+			}
+		}
+
+		/**
+		 * Rethrows the exception the range failed with, if any
+		 *
+		 * @throws IOException if the range could not be read
+		 */
+		void rethrow() throws IOException {
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			} else if (failure != null) {
+				throw (RuntimeException) failure;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,387 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * A directory that keeps every row appended to a log across restarts, so a
+ * restart does not have to parse the original CSV files again.
+ *
+ * Appended batches go to a WriteAheadLog, and append() returns once the batch
+ * is on the disk; batches appended by several threads at once share a force.
+ * Once the write-ahead log holds enough rows, a new one is started and the
+ * full one is compacted in the background: its rows are saved as an immutable
+ * BinaryLogIO snapshot, the segment, and the write-ahead log is deleted.
+ * Each write-ahead log and its segment share a generation number in their
+ * names, wal-N.log and segment-N.bin.
+ *
+ * Opening the directory recovers its rows: the segments are loaded, which
+ * decodes binary columns rather than parsing text, and only the write-ahead
+ * logs that were not yet compacted are replayed, up to the first record a
+ * crash cut short. A write-ahead log whose segment exists was compacted just
+ * before a crash, and is deleted. Replayed write-ahead logs are compacted in
+ * the background, and appends go to a new one.
+ *
+ * @author Noah Benveniste
+ */
+public class PersistentLog implements Closeable {
+
+	/** The default number of rows a write-ahead log holds before it is compacted */
+	public static final int COMPACT_ROWS = 1 << 16;
+	/** The file name prefix of write-ahead logs */
+	private static final String WAL_PREFIX = "wal-";
+	/** The file name suffix of write-ahead logs */
+	private static final String WAL_SUFFIX = ".log";
+	/** The file name prefix of segments */
+	private static final String SEGMENT_PREFIX = "segment-";
+	/** The file name suffix of segments */
+	private static final String SEGMENT_SUFFIX = ".bin";
+
+	/** The directory */
+	private final Path directory;
+	/** The dictionary of every row */
+	private final StringDictionary dictionary;
+	/** The number of rows a write-ahead log holds before it is compacted */
+	private final int compactRows;
+	/** The rows in the directory when it was opened */
+	private final LogStore recovered;
+	/** Saves full write-ahead logs as segments, one at a time */
+	private final ExecutorService compactor;
+	/** The write-ahead log being appended to */
+	private WriteAheadLog wal;
+	/** The generation of wal */
+	private long generation;
+	/** The bytes written to the write-ahead logs of earlier generations, which are on the disk */
+	private long base;
+	/** The rows in wal, to be saved when it is compacted */
+	private LogStore pending;
+	/** The failure of the last compaction that failed, if any */
+	private volatile IOException compactError;
+
+	/**
+	 * Opens a directory, creating it if it does not exist, and recovers its rows
+	 *
+	 * @param directory the name of the directory
+	 * @param dictionary the dictionary to intern the rows' strings in
+	 *
+	 * @throws IOException if the directory cannot be read or written
+	 */
+	public PersistentLog( String directory, StringDictionary dictionary ) throws IOException {
+		this(directory, dictionary, COMPACT_ROWS);
+	}
+
+	/**
+	 * Opens a directory, creating it if it does not exist, and recovers its rows
+	 *
+	 * @param directory the name of the directory
+	 * @param dictionary the dictionary to intern the rows' strings in
+	 * @param compactRows the number of rows a write-ahead log holds before it is compacted
+	 *
+	 * @throws IOException if the directory cannot be read or written
+	 * @throws IllegalArgumentException if compactRows is less than 1, or a file is corrupt
+	 */
+	public PersistentLog( String directory, StringDictionary dictionary, int compactRows ) throws IOException {
+		if (compactRows < 1) {
+			throw new IllegalArgumentException("Must compact at least one row");
+		}
+		this.directory = Paths.get(directory);
+		this.dictionary = dictionary;
+		this.compactRows = compactRows;
+		this.compactor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread( Runnable r ) {
+				Thread t = new Thread(r, "security-log-compactor");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		Files.createDirectories(this.directory);
+
+		this.recovered = new LogStore(dictionary);
+		BinaryLogIO io = new BinaryLogIO();
+		long[] generations = generations();
+		for (long g : generations) {
+			Path segment = segmentPath(g);
+			if (Files.exists(segment)) {
+				recovered.addAll(io.read(segment.toString(), dictionary));
+				Files.deleteIfExists(walPath(g));
+			} else {
+				LogStore tail = WriteAheadLog.replay(walPath(g), dictionary);
+				recovered.addAll(tail);
+				scheduleCompaction(g, tail);
+			}
+		}
+		this.generation = generations.length == 0 ? 0 : generations[generations.length - 1] + 1;
+		this.wal = new WriteAheadLog(walPath(generation));
+		this.pending = new LogStore(dictionary);
+	}
+
+	/**
+	 * Finds the generations of the files in the directory, and deletes
+	 * temporary files left by a segment that was being saved during a crash
+	 *
+	 * @return the generations that have a write-ahead log or a segment, ascending
+	 *
+	 * @throws IOException if the directory cannot be read
+	 */
+	private long[] generations() throws IOException {
+		long[] found = new long[8];
+		int n = 0;
+		DirectoryStream<Path> files = Files.newDirectoryStream(directory);
+		try {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				long g = -1;
+				if (name.endsWith(".tmp")) {
+					Files.delete(file);
+				} else if (name.startsWith(WAL_PREFIX) && name.endsWith(WAL_SUFFIX)) {
+					g = parseGeneration(name, WAL_PREFIX, WAL_SUFFIX);
+				} else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+					g = parseGeneration(name, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+				}
+				if (g >= 0) {
+					if (n == found.length) {
+						found = Arrays.copyOf(found, n * 2);
+					}
+					found[n++] = g;
+				}
+			}
+		} finally {
+			files.close();
+		}
+		Arrays.sort(found, 0, n);
+		int unique = 0;
+		for (int i = 0; i < n; i++) {
+			if (unique == 0 || found[unique - 1] != found[i]) {
+				found[unique++] = found[i];
+			}
+		}
+		return Arrays.copyOf(found, unique);
+	}
+
+	/**
+	 * Parses the generation out of a file name
+	 *
+	 * @param name the file name
+	 * @param prefix the prefix before the generation
+	 * @param suffix the suffix after the generation
+	 *
+	 * @return the generation, or -1 if the name does not hold one
+	 */
+	private static long parseGeneration( String name, String prefix, String suffix ) {
+		String digits = name.substring(prefix.length(), name.length() - suffix.length());
+		if (digits.isEmpty() || digits.length() > 18) {
+			return -1;
+		}
+		for (int i = 0; i < digits.length(); i++) {
+			if (digits.charAt(i) < '0' || digits.charAt(i) > '9') {
+				return -1;
+			}
+		}
+		return Long.parseLong(digits);
+	}
+
+	/**
+	 * Gets the path of a generation's write-ahead log
+	 *
+	 * @param g the generation
+	 *
+	 * @return the path
+	 */
+	private Path walPath( long g ) {
+		return directory.resolve(String.format("%s%010d%s", WAL_PREFIX, g, WAL_SUFFIX));
+	}
+
+	/**
+	 * Gets the path of a generation's segment
+	 *
+	 * @param g the generation
+	 *
+	 * @return the path
+	 */
+	private Path segmentPath( long g ) {
+		return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, g, SEGMENT_SUFFIX));
+	}
+
+	/**
+	 * Gets the rows that were in the directory when it was opened
+	 *
+	 * @return the rows, oldest generation first
+	 */
+	public LogStore getRecovered() {
+		return recovered;
+	}
+
+	/**
+	 * Appends a batch of rows, returning once it is on the disk
+	 *
+	 * @param batch the rows, which must use the directory's dictionary
+	 *
+	 * @throws IOException if the write-ahead log cannot be written, or the last compaction failed
+	 * @throws IllegalArgumentException if the batch uses a different dictionary
+	 */
+	public void append( LogStore batch ) throws IOException {
+		sync(write(batch));
+	}
+
+	/**
+	 * Writes a batch of rows to the write-ahead log without waiting for it to
+	 * reach the disk. Batches are written in the order of the calls, so a
+	 * caller can order its own work by this call and then wait in sync(),
+	 * where batches written by other threads share a force.
+	 *
+	 * @param batch the rows, which must use the directory's dictionary
+	 *
+	 * @return the position to pass to sync(), counted over every generation
+	 *
+	 * @throws IOException if the write-ahead log cannot be written, or the last compaction failed
+	 * @throws IllegalArgumentException if the batch uses a different dictionary
+	 */
+	public synchronized long write( LogStore batch ) throws IOException {
+		if (batch.getDictionary() != dictionary) {
+			throw new IllegalArgumentException("Stores must share a dictionary");
+		}
+		if (batch.size() == 0) {
+			return 0;
+		}
+		checkCompaction();
+		long position = base + wal.write(batch);
+		pending.addAll(batch);
+		if (pending.size() >= compactRows) {
+			rotate();
+		}
+		return position;
+	}
+
+	/**
+	 * Waits until every batch written up to a position is on the disk
+	 *
+	 * @param position a position returned by write()
+	 *
+	 * @throws IOException if the write-ahead log cannot be forced
+	 */
+	public void sync( long position ) throws IOException {
+		WriteAheadLog log;
+		synchronized (this) {
+			if (position <= base) {
+				// Written to a write-ahead log that was forced when it was closed
+				return;
+			}
+			log = wal;
+			position -= base;
+		}
+		// Outside the lock, so other threads can write records that this force covers
+		log.sync(position);
+	}
+
+	/**
+	 * Starts a new write-ahead log and compacts the current one in the background
+	 *
+	 * @throws IOException if a write-ahead log cannot be closed or created
+	 */
+	private void rotate() throws IOException {
+		wal.close();
+		base += wal.size();
+		scheduleCompaction(generation, pending);
+		generation++;
+		wal = new WriteAheadLog(walPath(generation));
+		pending = new LogStore(dictionary);
+	}
+
+	/**
+	 * Saves the rows of a write-ahead log as its segment and deletes it, on the
+	 * compactor thread
+	 *
+	 * @param g the generation of the write-ahead log
+	 * @param rows the rows of the write-ahead log
+	 */
+	private void scheduleCompaction( final long g, final LogStore rows ) {
+		compactor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (rows.size() > 0) {
+						new BinaryLogIO().write(segmentPath(g).toString(), dictionary, rows);
+					}
+					Files.deleteIfExists(walPath(g));
+				} catch (IOException e) {
+					compactError = e;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Throws the failure of the last compaction that failed, once
+	 *
+	 * @throws IOException the failure
+	 */
+	private void checkCompaction() throws IOException {
+		IOException e = compactError;
+		if (e != null) {
+			compactError = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Compacts the current write-ahead log now, if it has any rows, and waits
+	 * for every compaction to finish
+	 *
+	 * @throws IOException if a write-ahead log cannot be closed or created, or a compaction failed
+	 */
+	public void compact() throws IOException {
+		synchronized (this) {
+			if (pending.size() > 0) {
+				rotate();
+			}
+		}
+		Future<?> done = compactor.submit(new Runnable() {
+			@Override
+			public void run() {
+				// Runs after every compaction scheduled before it
+			}
+		});
+		try {
+			done.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		checkCompaction();
+	}
+
+	/**
+	 * Closes the current write-ahead log, which is replayed when the directory
+	 * is opened again, and waits for the compactions already started
+	 *
+	 * @throws IOException if the write-ahead log cannot be closed, or a compaction failed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		wal.close();
+		compactor.shutdown();
+		try {
+			compactor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		checkCompaction();
+	}
+
+}
@@ -2,11 +2,15 @@ package edu.ncsu.csc316.security_log.io;
 
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.StringTokenizer;
 
 import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
 import edu.ncsu.csc316.security_log.list.ArrayList;
 
 /**
@@ -20,10 +24,12 @@ public class SecurityLogIO {
 	public long minTimeStamp;
 	/** The latest time read in */
 	public long maxTimeStamp;
+	/** The dictionary the user, action and resource strings of the entries read in are interned in */
+	public StringDictionary dictionary;
     
     /**
      * Parses a file of log entries and generates an unsorted list of
-     * LogEntry objects
+     * LogEntry objects, using readLogStoreFromFile()
      * 
      * @param fileName the name of the file containing log entries
      * 
@@ -33,16 +39,81 @@ public class SecurityLogIO {
      * @throws IOException if a line is not formatted properly
      */
     public ArrayList<LogEntry> readLogEntriesFromFile( String fileName ) throws IOException {
+    	LogStore store = readLogStoreFromFile(fileName);
+    	ArrayList<LogEntry> logs = new ArrayList<LogEntry>(Math.max(store.size(), 1));
+    	for (int i = 0; i < store.size(); i++) {
+    		logs.add(store.getEntry(i));
+    	}
+    	return logs;
+    }
+    
+    /**
+     * Parses a file of log entries into a columnar LogStore, in the same order
+     * as the file. The file is memory mapped and scanned byte by byte; large
+     * files are split into line-aligned chunks that are parsed in parallel.
+     * 
+     * @param fileName the name of the file containing log entries
+     * 
+     * @return a LogStore holding a row for each log entry in the file
+     * 
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not formatted properly
+     */
+    public LogStore readLogStoreFromFile( String fileName ) throws IOException {
+    	return readLogStoreFromFile(fileName, new StringDictionary());
+    }
+    
+    /**
+     * Parses a file of log entries into a LogStore whose ids belong to an
+     * existing dictionary, so the store can be added to others that use it. A
+     * binary snapshot saved by BinaryLogIO is loaded instead of parsed.
+     * 
+     * @param fileName the name of the file containing log entries
+     * @param dictionary the dictionary to intern the strings in
+     * 
+     * @return the entries of the file, in file order
+     * 
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if a line is not formatted properly
+     */
+    public LogStore readLogStoreFromFile( String fileName, StringDictionary dictionary ) throws IOException {
+    	this.dictionary = dictionary;
+    	LogStore store;
+    	if (BinaryLogIO.isSnapshot(fileName)) {
+    		store = new BinaryLogIO().read(fileName, dictionary);
+    	} else if (Files.size(Paths.get(fileName)) >= ParallelLogLoader.PARALLEL_THRESHOLD) {
+    		store = new ParallelLogLoader().load(fileName, dictionary);
+    	} else {
+    		MappedLogParser parser = new MappedLogParser(fileName, dictionary);
+    		try {
+    			store = parser.parseAll();
+    		} finally {
+    			parser.close();
+    		}
+    	}
+    	minTimeStamp = store.getMinTime();
+    	maxTimeStamp = store.getMaxTime();
+    	return store;
+    }
+    
+    /**
+     * Parses a file of log entries line by line with a Scanner and generates an
+     * unsorted list of LogEntry objects. Produces the same list as
+     * readLogEntriesFromFile(), but is considerably slower on large files;
+     * kept as a reference implementation for comparison.
+     * 
+     * @param fileName the name of the file containing log entries
+     * 
+     * @return a LogEntryList containing LogEntry objects that correspond to each log
+     * 		   entry in the file. The list is unsorted i.e. in the same order as the file
+     * 
+     * @throws IOException if a line is not formatted properly
+     */
+    public ArrayList<LogEntry> readLogEntriesWithScanner( String fileName ) throws IOException {
     	minTimeStamp = 0;
     	maxTimeStamp = 0;
+    	dictionary = new StringDictionary();
     	
-//        BufferedReader reader = new BufferedReader(new FileReader(fileName));
-//        ArrayList<LogEntry> list = reader.lines() // add .parallel() to try multi threaded (could be faster)
-//        .skip(1) // Skips first line
-//        .map(this::readLogEntry)
-//        .collect(ArrayList<LogEntry>::new, ArrayList<LogEntry>::add, ArrayList<LogEntry>::addAll);
-//        reader.close();
-//        return list;
     	Scanner f = new Scanner(new FileReader(fileName));
     	ArrayList<LogEntry> logs = new ArrayList<LogEntry>();
     	
@@ -102,7 +173,7 @@ public class SecurityLogIO {
             resource = tokenizer.nextToken();
 
             // timeStamp, action and resource all have an extra leading whitespace. Manually truncate it.
-            log = new LogEntry(user, timeStamp.substring(1), action.substring(1), resource.substring(1));
+            log = new LogEntry(dictionary, user, timeStamp.substring(1), action.substring(1), resource.substring(1));
             
         } catch (NoSuchElementException e) {
             throw new IllegalArgumentException();
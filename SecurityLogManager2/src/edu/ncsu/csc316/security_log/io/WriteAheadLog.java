@@ -0,0 +1,291 @@
+package edu.ncsu.csc316.security_log.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * A write-ahead log file: batches of appended rows, each written as one
+ * checksummed record before it is published, so they can be replayed after a
+ * crash.
+ *
+ * The file starts with magic bytes and a version. Each record is the length
+ * of its payload and the payload's CRC-32, both as ints, and then the
+ * payload: the number of rows as a varint, and for each row the zigzag varint
+ * difference from the previous row's time stamp, a varint that is 1 if the
+ * original time stamp text is kept and 0 if not, the text if it is kept, and
+ * the user, action and resource. Strings are written as ByteBlock writes
+ * them, rather than as ids, since a dictionary does not outlive the process.
+ *
+ * write() only hands a record to the operating system. sync() forces the file
+ * to the disk, and a force covers every record written before it started,
+ * so when several threads write at once, one force makes all of their
+ * records durable: the threads that wait for it find their records already
+ * synced and return. Replaying stops at the first record that is cut short or
+ * fails its checksum, which is where a crash interrupted the last write.
+ *
+ * @author Noah Benveniste
+ */
+public class WriteAheadLog implements Closeable {
+
+	/** The first bytes of every write-ahead log */
+	private static final byte[] MAGIC = {(byte) 0x89, 'S', 'L', 'W'};
+	/** The version of the format written */
+	private static final int VERSION = 1;
+	/** The length of the file header in bytes */
+	private static final int HEADER_SIZE = 8;
+	/** The length of a record's header in bytes */
+	private static final int RECORD_HEADER_SIZE = 8;
+
+	/** The file */
+	private final FileChannel channel;
+	/** The record being encoded, reused between writes */
+	private final ByteBlock record = new ByteBlock(1 << 12);
+	/** The number of bytes written to the file */
+	private volatile long written;
+	/** The number of bytes known to be on the disk */
+	private volatile long synced;
+	/** Held while forcing the file, so concurrent syncs wait for one force */
+	private final Object syncLock = new Object();
+
+	/**
+	 * Creates a new, empty write-ahead log, replacing any file at the path
+	 *
+	 * @param path the path of the file
+	 *
+	 * @throws IOException if the file cannot be created
+	 */
+	public WriteAheadLog( Path path ) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.put(MAGIC).putInt(VERSION).flip();
+		writeFully(header);
+		written = HEADER_SIZE;
+		sync(written);
+	}
+
+	/**
+	 * Writes a batch of rows as one record. The record is not necessarily on
+	 * the disk until sync() is called with the position returned.
+	 *
+	 * @param batch the rows
+	 *
+	 * @return the position in the file just past the record
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized long write( LogStore batch ) throws IOException {
+		StringDictionary dictionary = batch.getDictionary();
+		record.clear();
+		record.varint(batch.size());
+		long previous = 0;
+		int raw = 0;
+		for (int row = 0; row < batch.size(); row++) {
+			long time = batch.getTime(row);
+			record.zigzag(time - previous);
+			previous = time;
+			if (raw < batch.getRawTimeCount() && batch.getRawTimeRow(raw) == row) {
+				record.varint(1);
+				record.string(batch.getRawTime(raw++));
+			} else {
+				record.varint(0);
+			}
+			record.string(dictionary.get(batch.getUser(row)));
+			record.string(dictionary.get(batch.getAction(row)));
+			record.string(dictionary.get(batch.getResource(row)));
+		}
+		CRC32 crc = new CRC32();
+		crc.update(record.array(), 0, record.length());
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+		header.putInt(record.length()).putInt((int) crc.getValue()).flip();
+		writeFully(header);
+		writeFully(ByteBuffer.wrap(record.array(), 0, record.length()));
+		written += RECORD_HEADER_SIZE + record.length();
+		return written;
+	}
+
+	/**
+	 * Writes all of a buffer to the end of the file
+	 *
+	 * @param b the buffer
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	private void writeFully( ByteBuffer b ) throws IOException {
+		while (b.hasRemaining()) {
+			channel.write(b);
+		}
+	}
+
+	/**
+	 * Makes sure every record up to a position is on the disk, forcing the
+	 * file unless another thread's force already covered it
+	 *
+	 * @param position a position returned by write()
+	 *
+	 * @throws IOException if the file cannot be forced
+	 */
+	public void sync( long position ) throws IOException {
+		if (synced >= position) {
+			return;
+		}
+		synchronized (syncLock) {
+			if (synced >= position) {
+				return;
+			}
+			long target = written;
+			channel.force(false);
+			synced = target;
+		}
+	}
+
+	/**
+	 * Gets the number of bytes written, header included
+	 *
+	 * @return the size of the file
+	 */
+	public long size() {
+		return written;
+	}
+
+	/**
+	 * Forces the file to the disk and closes it
+	 *
+	 * @throws IOException if the file cannot be forced or closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			sync(written);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Reads the rows of every complete record of a write-ahead log. Reading
+	 * stops at the first record that is cut short or fails its checksum, and a
+	 * file too short to have a header has no records.
+	 *
+	 * @param path the path of the file
+	 * @param dictionary the dictionary to intern the rows' strings in
+	 *
+	 * @return the rows of the records, in the order they were written
+	 *
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a write-ahead log of a supported version
+	 */
+	public static LogStore replay( Path path, StringDictionary dictionary ) throws IOException {
+		LogStore store = new LogStore(dictionary);
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size < HEADER_SIZE) {
+				return store;
+			}
+			ByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (b.get() != MAGIC[i]) {
+					throw new IllegalArgumentException("Not a write-ahead log");
+				}
+			}
+			if (b.getInt() != VERSION) {
+				throw new IllegalArgumentException("Unsupported write-ahead log version");
+			}
+			byte[] payload = new byte[1 << 12];
+			CRC32 crc = new CRC32();
+			while (b.remaining() >= RECORD_HEADER_SIZE) {
+				int len = b.getInt();
+				int sum = b.getInt();
+				if (len < 0 || len > b.remaining()) {
+					break;
+				}
+				if (len > payload.length) {
+					payload = new byte[Math.max(len, payload.length * 2)];
+				}
+				b.get(payload, 0, len);
+				crc.reset();
+				crc.update(payload, 0, len);
+				if ((int) crc.getValue() != sum) {
+					break;
+				}
+				decode(ByteBuffer.wrap(payload, 0, len), store);
+			}
+			return store;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Decodes the rows of a record that passed its checksum
+	 *
+	 * @param b the payload
+	 * @param store the store to add the rows to
+	 *
+	 * @throws IllegalArgumentException if the payload does not decode
+	 */
+	private static void decode( ByteBuffer b, LogStore store ) {
+		StringDictionary dictionary = store.getDictionary();
+		try {
+			int rows = (int) ByteBlock.readVarint(b);
+			long time = 0;
+			for (int i = 0; i < rows; i++) {
+				time += ByteBlock.readZigzag(b);
+				String rawTime = null;
+				if (ByteBlock.readVarint(b) != 0) {
+					int len = length(b);
+					rawTime = new String(b.array(), b.arrayOffset() + b.position(), len, StandardCharsets.UTF_8);
+					b.position(b.position() + len);
+				}
+				int user = intern(b, dictionary);
+				int action = intern(b, dictionary);
+				int resource = intern(b, dictionary);
+				store.add(time, rawTime, user, action, resource);
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Write-ahead log record is corrupt");
+		}
+	}
+
+	/**
+	 * Reads the length of a string and checks that its bytes follow
+	 *
+	 * @param b the buffer
+	 *
+	 * @return the length in bytes
+	 */
+	private static int length( ByteBuffer b ) {
+		long len = ByteBlock.readVarint(b);
+		if (len > b.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		return (int) len;
+	}
+
+	/**
+	 * Reads a string and interns it
+	 *
+	 * @param b the buffer, which must be backed by an array
+	 * @param dictionary the dictionary
+	 *
+	 * @return the string's id
+	 */
+	private static int intern( ByteBuffer b, StringDictionary dictionary ) {
+		int len = length(b);
+		int id = dictionary.intern(b.array(), b.arrayOffset() + b.position(), len);
+		b.position(b.position() + len);
+		return id;
+	}
+
+}
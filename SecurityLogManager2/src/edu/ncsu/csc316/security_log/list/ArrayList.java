@@ -1,8 +1,9 @@
 package edu.ncsu.csc316.security_log.list;
 
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import edu.ncsu.csc316.security_log.comparator.Comparator;
+import edu.ncsu.csc316.security_log.comparator.KeyedComparator;
 
 /**
  * A custom implemented array list class that is able to adjust size
@@ -134,11 +135,20 @@ public class ArrayList<E extends Comparable<? super E>> {
     /**
      * Used to grow the array if size == capacity; Doubles the capacity by default
      */
-    @SuppressWarnings("unchecked")
     private void growArray() {
+        growArray(this.capacity * 2);
+    }
+
+    /**
+     * Grows the array to a given capacity in a single reallocation
+     * 
+     * @param newCapacity the new capacity, which is at least the current size
+     */
+    @SuppressWarnings("unchecked")
+    private void growArray(int newCapacity) {
         // Update capacity
-        this.capacity *= 2;
-        // Create a new object array of double the capacity of the current array
+        this.capacity = newCapacity;
+        // Create a new object array of the new capacity
         E[] temp = (E[]) new Comparable[capacity];
         // Assign the elements from the old array to the same index in the new array
         for (int i = 0; i < this.size(); i++) {
@@ -274,74 +284,65 @@ public class ArrayList<E extends Comparable<? super E>> {
     }
     
     /**
-     * Sorts the list in ascending order
+     * Sorts the list in ascending order with introsort. Runs in O(n log n) time
+     * in the worst case, but does not keep equal elements in their original order.
+     * Lists of Sorting.PARALLEL_THRESHOLD elements or more are sorted with the
+     * parallel stable sort when more than one processor is available, in which
+     * case c must be safe to call from several threads. Lists of
+     * RadixSort.THRESHOLD elements or more are radix sorted instead if c is a
+     * KeyedComparator whose keys can be compared across the whole list.
      * 
      * @param c the comparator that defines the natural ordering to sort by
      */
     public void sort(Comparator<E> c)  {
-        quickSort(c, 0, this.size - 1);
+        if (radixSort(c)) {
+            return;
+        } else if (Sorting.useParallel(size)) {
+            Sorting.parallelMergeSort(list, 0, size, c, ForkJoinPool.commonPool());
+        } else {
+            Sorting.introSort(list, 0, size, c);
+        }
     }
     
     /**
-     * A recursive quick sort algorithm.
-     * Source of algorithm explanation: https://www.cp.eng.chula.ac.th/~vishnu/datastructure/QuickSort.pdf
+     * Sorts the list in ascending order with a stable merge sort, so elements the
+     * comparator considers equal keep their original order. Runs in O(n log n)
+     * time in the worst case and O(n) time if the list is already sorted. Lists
+     * of Sorting.PARALLEL_THRESHOLD elements or more are sorted in parallel when
+     * more than one processor is available, with exactly the same result, in
+     * which case c must be safe to call from several threads. Keyed comparators
+     * are radix sorted as in sort(), which is also stable.
      * 
-     * 
-     * @param low the lowest index of the subarray
-     * @param high the highest index of the subarray
-     * @param c the comparator to use
+     * @param c the comparator that defines the natural ordering to sort by
      */
-    private void quickSort(Comparator<E> c, int low, int high) {
-        // Base case 1: sub array with fewer than two elements
-        if (high <= low) {
-            return;
-        // Base case 2: sub array with 2 elements
-        } else if (high - (low + 1) == 0) {
-            if (c.compareTo(list[low], list[high]) > 0) {
-                E temp = list[low];
-                list[low] = list[high];
-                list[high] = temp;
-            }
+    public void sortStable(Comparator<E> c) {
+        if (radixSort(c)) {
             return;
+        } else if (Sorting.useParallel(size)) {
+            Sorting.parallelMergeSort(list, 0, size, c, ForkJoinPool.commonPool());
+        } else {
+            Sorting.mergeSort(list, 0, size, c);
         }
-        
-        // Bounds for generating random pivot index
-        int min = low + 1;
-        int max = high;
-        
-        // Randomly generate a pivot index
-        Random rand = new Random();
-        int pivotIdx = rand.nextInt(max - min) + min;
-        
-        // Get the pivot value
-        E pivot = list[pivotIdx];
-        
-        // Swap the pivot value with the first element in the array
-        list[pivotIdx] = list[low];
-        list[low] = pivot;
-        
-        // first points to the first value that is greater than the pivot. After all comparisons are done,
-        // the value before first will correspond to a value less than the pivot
-        int first = low + 1;
-        for (int i = low + 1; i <= high; i++) {
-            if (c.compareTo(list[i], pivot) < 0) {
-                // Swap list[i] with list[first]
-                E temp = list[i];
-                list[i] = list[first];
-                list[first] = temp;
-                // Increment first
-                first++;
-            }
+    }
+    
+    /**
+     * Radix sorts the list if the comparator orders it by primitive keys and
+     * the list is long enough for that to pay off
+     * 
+     * @param c the comparator that defines the natural ordering to sort by
+     * @return true if the list was sorted
+     */
+    @SuppressWarnings("unchecked")
+    private boolean radixSort(Comparator<E> c) {
+        if (size < RadixSort.THRESHOLD || !(c instanceof KeyedComparator)) {
+            return false;
+        }
+        KeyedComparator<E> keyed = (KeyedComparator<E>) c;
+        if (!RadixSort.encodable(list, 0, size, keyed)) {
+            return false;
         }
-        
-        // Swap pivot with value before first
-        list[low] = list[first - 1];
-        list[first - 1] = pivot;
-        
-        // Recursive calls
-        // pivot is located at index first - 1
-        quickSort(c, low, first - 1); // subarray left of and including the pivot
-        quickSort(c, first, high); // subarray right of the pivot
+        RadixSort.sort(list, 0, size, keyed);
+        return true;
     }
     
     /**
@@ -349,9 +350,13 @@ public class ArrayList<E extends Comparable<? super E>> {
      * @param in the list to combine this list with
      */
     public void addAll(ArrayList<E> in) {
-        for (int i = 0; i < in.size(); i++) {
-            this.add(in.get(i));
+        // Grow once up front to the capacity needed, at least doubling, then copy in bulk
+        int needed = this.size + in.size();
+        if (needed > this.capacity) {
+            this.growArray(Math.max(needed, this.capacity * 2));
         }
+        System.arraycopy(in.list, 0, this.list, this.size, in.size());
+        this.size += in.size();
     }
     
 }
\ No newline at end of file
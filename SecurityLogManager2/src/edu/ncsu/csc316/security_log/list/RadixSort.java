@@ -0,0 +1,181 @@
+package edu.ncsu.csc316.security_log.list;
+
+import java.util.function.ToLongFunction;
+
+import edu.ncsu.csc316.security_log.comparator.KeyedComparator;
+
+/**
+ * Least significant digit radix sorts on long keys, used where the order of a
+ * sort is given by primitive keys such as packed time stamps and dictionary ids.
+ *
+ * Keys are sorted as their offset from the smallest key, one byte at a time
+ * from the lowest, with a counting pass and a scatter pass per byte. Only the
+ * bytes that can differ between the smallest and largest key are visited, and
+ * a byte that is the same in every key is skipped, so a range of packed time
+ * stamps spanning a few years takes five passes. The sort is stable, takes
+ * O(n) time per pass and needs a copy of the keys and values.
+ *
+ * @author Noah Benveniste
+ */
+public final class RadixSort {
+
+	/** Ranges shorter than this are left to the comparison sorts by ArrayList */
+	public static final int THRESHOLD = 1 << 10;
+	/** The number of bits sorted per pass */
+	private static final int BITS = 8;
+	/** The number of values a digit can take */
+	private static final int RADIX = 1 << BITS;
+
+	/**
+	 * Not instantiable
+	 */
+	private RadixSort() {
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array of keys in ascending order, moving
+	 * the value at each index of a second array along with its key. Values with
+	 * equal keys keep their original order.
+	 *
+	 * @param keys the keys
+	 * @param values the values, such as the rows the keys belong to
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 */
+	public static void sort( long[] keys, int[] values, int from, int to ) {
+		int n = to - from;
+		if (n < 2) {
+			return;
+		}
+		long min = keys[from];
+		long max = keys[from];
+		for (int i = from + 1; i < to; i++) {
+			min = Math.min(min, keys[i]);
+			max = Math.max(max, keys[i]);
+		}
+		// The offsets from min fit in an unsigned long even if the span does not fit in a signed one
+		long span = max - min;
+		if (span == 0) {
+			return;
+		}
+		int bits = 64 - Long.numberOfLeadingZeros(span);
+
+		long[] k = new long[n];
+		int[] v = new int[n];
+		for (int i = 0; i < n; i++) {
+			k[i] = keys[from + i] - min;
+			v[i] = values[from + i];
+		}
+		long[] kBuf = new long[n];
+		int[] vBuf = new int[n];
+		int[] count = new int[RADIX + 1];
+		for (int shift = 0; shift < bits; shift += BITS) {
+			for (int d = 0; d <= RADIX; d++) {
+				count[d] = 0;
+			}
+			for (int i = 0; i < n; i++) {
+				count[(int) (k[i] >>> shift) & (RADIX - 1)]++;
+			}
+			if (count[(int) (k[0] >>> shift) & (RADIX - 1)] == n) {
+				// Every key has the same digit here
+				continue;
+			}
+			// Turn the counts into the first index of each digit
+			int start = 0;
+			for (int d = 0; d < RADIX; d++) {
+				int c = count[d];
+				count[d] = start;
+				start += c;
+			}
+			for (int i = 0; i < n; i++) {
+				int pos = count[(int) (k[i] >>> shift) & (RADIX - 1)]++;
+				kBuf[pos] = k[i];
+				vBuf[pos] = v[i];
+			}
+			long[] kt = k;
+			k = kBuf;
+			kBuf = kt;
+			int[] vt = v;
+			v = vBuf;
+			vBuf = vt;
+		}
+		for (int i = 0; i < n; i++) {
+			keys[from + i] = k[i] + min;
+			values[from + i] = v[i];
+		}
+	}
+
+	/**
+	 * Checks whether a range of an array can be sorted by the keys of a keyed comparator
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 *
+	 * @return true if encodable() holds between the first element and each of the others
+	 */
+	public static <E> boolean encodable( E[] a, int from, int to, KeyedComparator<E> c ) {
+		for (int i = from + 1; i < to; i++) {
+			if (!c.encodable(a[from], a[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array with a keyed comparator: the
+	 * elements are radix sorted by their minor keys, then by their major keys,
+	 * and each run with the same pair of keys is finished with a stable merge
+	 * sort on the comparator. The sort is stable. The comparator's
+	 * encodable() must hold between the first element and each of the others.
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 */
+	public static <E> void sort( E[] a, int from, int to, KeyedComparator<E> c ) {
+		int n = to - from;
+		if (n < 2) {
+			return;
+		}
+		long[] keys = new long[n];
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = c.minorKey(a[from + i]);
+			order[i] = i;
+		}
+		sort(keys, order, 0, n);
+		ToLongFunction<E> major = c.majorKeys(a[from]);
+		for (int i = 0; i < n; i++) {
+			keys[i] = major.applyAsLong(a[from + order[i]]);
+		}
+		sort(keys, order, 0, n);
+
+		@SuppressWarnings("unchecked")
+		E[] tmp = (E[]) new Object[n];
+		System.arraycopy(a, from, tmp, 0, n);
+		for (int i = 0; i < n; i++) {
+			a[from + i] = tmp[order[i]];
+		}
+
+		// Order elements with equal keys by the rest of the comparator
+		int lo = 0;
+		long minor = c.minorKey(a[from]);
+		for (int i = 1; i <= n; i++) {
+			long next = i < n ? c.minorKey(a[from + i]) : 0;
+			if (i == n || keys[i] != keys[lo] || next != minor) {
+				if (i - lo > 1) {
+					Sorting.mergeSort(a, from + lo, from + i, c);
+				}
+				lo = i;
+				minor = next;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,620 @@
+package edu.ncsu.csc316.security_log.list;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.ncsu.csc316.security_log.comparator.Comparator;
+
+/**
+ * Sorting algorithms for ranges of an array, used by ArrayList.
+ *
+ * introSort() is an unstable quick sort that partitions around a median of
+ * three (or a median of medians for large ranges) into less than, equal to and
+ * greater than parts, so runs of equal keys are finished in one pass instead
+ * of degrading to quadratic time. It recurses into the smaller part only, so
+ * the stack depth is O(log n), and switches to heap sort if the partitions
+ * keep coming out unbalanced, so the worst case is O(n log n) comparisons.
+ * Ranges of INSERTION_THRESHOLD elements or fewer are insertion sorted.
+ *
+ * mergeSort() is a stable natural merge sort in the style of TimSort: it finds
+ * the ascending and strictly descending runs already in the data, extends
+ * short runs to MIN_RUN elements with binary insertion sort, then merges
+ * neighbouring runs until one is left. It takes O(n log n) comparisons in the
+ * worst case, O(n) on data that is already sorted, and n extra references.
+ *
+ * parallelMergeSort() is the same stable sort spread over a ForkJoinPool: the
+ * range is split in halves down to PARALLEL_GRAIN elements, the pieces are
+ * sorted with mergeSort(), and each pair of halves is merged by splitting the
+ * merge itself at binary-searched points. Being stable, its result is exactly
+ * the same as mergeSort()'s. The comparator must be safe to call from several
+ * threads at once.
+ *
+ * @author Noah Benveniste
+ */
+public final class Sorting {
+
+	/** Ranges this size or smaller are insertion sorted */
+	static final int INSERTION_THRESHOLD = 24;
+	/** Ranges larger than this pick their pivot as a median of three medians of three */
+	private static final int NINTHER_THRESHOLD = 128;
+	/** The shortest run mergeSort() merges; shorter runs are extended by insertion sort */
+	static final int MIN_RUN = 32;
+	/** Lists at least this long are sorted in parallel when more than one processor is available */
+	public static final int PARALLEL_THRESHOLD = 1 << 16;
+	/** Ranges this size or smaller are sorted or merged by one thread in parallelMergeSort() */
+	static final int PARALLEL_GRAIN = 1 << 13;
+
+	/**
+	 * Not instantiable
+	 */
+	private Sorting() {
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array with introsort. The sort is not stable.
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator that defines the order
+	 */
+	public static <E> void introSort( E[] a, int from, int to, Comparator<E> c ) {
+		int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(Math.max(to - from, 1)));
+		introSort(a, from, to, c, depthLimit);
+	}
+
+	/**
+	 * Sorts a range with introsort, falling back to heap sort once the depth limit runs out
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 * @param depthLimit the number of partitioning levels left before heap sort is used
+	 */
+	private static <E> void introSort( E[] a, int from, int to, Comparator<E> c, int depthLimit ) {
+		while (to - from > INSERTION_THRESHOLD) {
+			if (depthLimit == 0) {
+				heapSort(a, from, to, c);
+				return;
+			}
+			depthLimit--;
+
+			// Three way partition: [from, lt) < pivot, [lt, gt) == pivot, [gt, to) > pivot
+			E pivot = a[choosePivot(a, from, to, c)];
+			int lt = from;
+			int gt = to;
+			int i = from;
+			while (i < gt) {
+				int cmp = c.compareTo(a[i], pivot);
+				if (cmp < 0) {
+					swap(a, lt++, i++);
+				} else if (cmp > 0) {
+					swap(a, i, --gt);
+				} else {
+					i++;
+				}
+			}
+
+			// Recurse into the smaller part and loop on the larger one
+			if (lt - from < to - gt) {
+				introSort(a, from, lt, c, depthLimit);
+				from = gt;
+			} else {
+				introSort(a, gt, to, c, depthLimit);
+				to = lt;
+			}
+		}
+		insertionSort(a, from, to, c);
+	}
+
+	/**
+	 * Picks the index of a pivot for a range of more than INSERTION_THRESHOLD elements
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 *
+	 * @return the index of the pivot
+	 */
+	private static <E> int choosePivot( E[] a, int from, int to, Comparator<E> c ) {
+		int n = to - from;
+		int mid = from + n / 2;
+		int last = to - 1;
+		if (n > NINTHER_THRESHOLD) {
+			int s = n / 8;
+			int m1 = medianOfThree(a, from, from + s, from + 2 * s, c);
+			int m2 = medianOfThree(a, mid - s, mid, mid + s, c);
+			int m3 = medianOfThree(a, last - 2 * s, last - s, last, c);
+			return medianOfThree(a, m1, m2, m3, c);
+		}
+		return medianOfThree(a, from, mid, last, c);
+	}
+
+	/**
+	 * Finds the index of the median of three elements
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param i the first index
+	 * @param j the second index
+	 * @param k the third index
+	 * @param c the comparator
+	 *
+	 * @return whichever of i, j and k holds the median
+	 */
+	private static <E> int medianOfThree( E[] a, int i, int j, int k, Comparator<E> c ) {
+		if (c.compareTo(a[i], a[j]) < 0) {
+			if (c.compareTo(a[j], a[k]) < 0) {
+				return j;
+			}
+			return c.compareTo(a[i], a[k]) < 0 ? k : i;
+		}
+		if (c.compareTo(a[i], a[k]) < 0) {
+			return i;
+		}
+		return c.compareTo(a[j], a[k]) < 0 ? k : j;
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array with heap sort
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 */
+	static <E> void heapSort( E[] a, int from, int to, Comparator<E> c ) {
+		int n = to - from;
+		for (int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(a, from, i, n, c);
+		}
+		for (int end = n - 1; end > 0; end--) {
+			swap(a, from, from + end);
+			siftDown(a, from, 0, end, c);
+		}
+	}
+
+	/**
+	 * Moves an element of a max heap down until both of its children are no larger
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param base the index of the root of the heap
+	 * @param i the position in the heap of the element to move
+	 * @param n the number of elements in the heap
+	 * @param c the comparator
+	 */
+	private static <E> void siftDown( E[] a, int base, int i, int n, Comparator<E> c ) {
+		E e = a[base + i];
+		int child;
+		while ((child = 2 * i + 1) < n) {
+			if (child + 1 < n && c.compareTo(a[base + child], a[base + child + 1]) < 0) {
+				child++;
+			}
+			if (c.compareTo(e, a[base + child]) >= 0) {
+				break;
+			}
+			a[base + i] = a[base + child];
+			i = child;
+		}
+		a[base + i] = e;
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array with insertion sort. The sort is stable.
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 */
+	static <E> void insertionSort( E[] a, int from, int to, Comparator<E> c ) {
+		for (int i = from + 1; i < to; i++) {
+			E e = a[i];
+			int j = i - 1;
+			while (j >= from && c.compareTo(a[j], e) > 0) {
+				a[j + 1] = a[j];
+				j--;
+			}
+			a[j + 1] = e;
+		}
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array with a stable natural merge sort
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator
+	 */
+	public static <E> void mergeSort( E[] a, int from, int to, Comparator<E> c ) {
+		int n = to - from;
+		if (n < 2) {
+			return;
+		}
+
+		// Find the runs, making each one ascending and at least MIN_RUN long
+		int[] runs = new int[n / MIN_RUN + 2];
+		int count = 0;
+		int lo = from;
+		while (lo < to) {
+			int hi = lo + 1;
+			if (hi < to) {
+				if (c.compareTo(a[hi], a[lo]) < 0) {
+					// Strictly descending, so reversing it cannot reorder equal elements
+					while (hi + 1 < to && c.compareTo(a[hi + 1], a[hi]) < 0) {
+						hi++;
+					}
+					reverse(a, lo, hi);
+				} else {
+					while (hi + 1 < to && c.compareTo(a[hi + 1], a[hi]) >= 0) {
+						hi++;
+					}
+				}
+				hi++;
+			}
+			if (hi - lo < MIN_RUN) {
+				int end = Math.min(lo + MIN_RUN, to);
+				binaryInsertionSort(a, lo, hi, end, c);
+				hi = end;
+			}
+			runs[count++] = lo;
+			lo = hi;
+		}
+		runs[count] = to;
+
+		// Merge neighbouring runs pairwise until one run is left
+		@SuppressWarnings("unchecked")
+		E[] tmp = (E[]) new Object[n];
+		while (count > 1) {
+			int merged = 0;
+			for (int r = 0; r < count; r += 2) {
+				runs[merged++] = runs[r];
+				if (r + 1 < count) {
+					merge(a, runs[r], runs[r + 1], runs[r + 2], tmp, from, c);
+				}
+			}
+			runs[merged] = to;
+			count = merged;
+		}
+	}
+
+	/**
+	 * Extends a sorted range [lo, sorted) to [lo, end) by inserting each of the
+	 * following elements after the last element no greater than it, found by
+	 * binary search. The sort is stable.
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param lo the first index of the range
+	 * @param sorted one past the last index of the part already sorted
+	 * @param end one past the last index of the range
+	 * @param c the comparator
+	 */
+	private static <E> void binaryInsertionSort( E[] a, int lo, int sorted, int end, Comparator<E> c ) {
+		for (int i = sorted; i < end; i++) {
+			E e = a[i];
+			int left = lo;
+			int right = i;
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+				if (c.compareTo(e, a[mid]) < 0) {
+					right = mid;
+				} else {
+					left = mid + 1;
+				}
+			}
+			System.arraycopy(a, left, a, left + 1, i - left);
+			a[left] = e;
+		}
+	}
+
+	/**
+	 * Merges the sorted ranges [lo, mid) and [mid, hi) into one sorted range. On
+	 * ties the element from the left range comes first, which keeps the sort
+	 * stable.
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param lo the first index of the left range
+	 * @param mid the first index of the right range
+	 * @param hi one past the last index of the right range
+	 * @param tmp scratch space at least as long as the range being sorted
+	 * @param base the first index of the range being sorted, which maps to tmp[0]
+	 * @param c the comparator
+	 */
+	private static <E> void merge( E[] a, int lo, int mid, int hi, E[] tmp, int base, Comparator<E> c ) {
+		// Already in order; common when the input was mostly sorted
+		if (c.compareTo(a[mid - 1], a[mid]) <= 0) {
+			return;
+		}
+		int leftLength = mid - lo;
+		System.arraycopy(a, lo, tmp, lo - base, leftLength);
+		int i = lo - base;
+		int iEnd = i + leftLength;
+		int j = mid;
+		int k = lo;
+		while (i < iEnd && j < hi) {
+			if (c.compareTo(a[j], tmp[i]) < 0) {
+				a[k++] = a[j++];
+			} else {
+				a[k++] = tmp[i++];
+			}
+		}
+		System.arraycopy(tmp, i, a, k, iEnd - i);
+	}
+
+	/**
+	 * Sorts the range [from, to) of an array with a stable merge sort that runs on a
+	 * ForkJoinPool. The result is the same as mergeSort()'s.
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param from the first index of the range
+	 * @param to one past the last index of the range
+	 * @param c the comparator, which must be safe to call from several threads
+	 * @param pool the pool to run on
+	 */
+	public static <E> void parallelMergeSort( E[] a, int from, int to, Comparator<E> c, ForkJoinPool pool ) {
+		if (to - from <= PARALLEL_GRAIN) {
+			mergeSort(a, from, to, c);
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		E[] tmp = (E[]) new Object[to - from];
+		pool.invoke(new SortTask<E>(a, tmp, from, from, to, c));
+	}
+
+	/**
+	 * Whether a list of the given length should be sorted in parallel
+	 *
+	 * @param n the length of the list
+	 *
+	 * @return true if n is at least PARALLEL_THRESHOLD and the common pool has
+	 *         more than one thread
+	 */
+	static boolean useParallel( int n ) {
+		return n >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+
+	/**
+	 * Sorts a range by sorting its halves in parallel and merging them
+	 *
+	 * @author Noah Benveniste
+	 *
+	 * @param <E> the type of the elements
+	 */
+	private static class SortTask<E> extends RecursiveAction {
+
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+
+		/** The array being sorted */
+		private final E[] a;
+		/** Scratch space for the whole range being sorted */
+		private final E[] tmp;
+		/** The first index of the whole range, which maps to tmp[0] */
+		private final int base;
+		/** The first index of this task's range */
+		private final int from;
+		/** One past the last index of this task's range */
+		private final int to;
+		/** The comparator */
+		private final Comparator<E> c;
+
+		/**
+		 * Constructs a task that sorts [from, to)
+		 *
+		 * @param a the array
+		 * @param tmp scratch space for the whole range
+		 * @param base the first index of the whole range
+		 * @param from the first index of this task's range
+		 * @param to one past the last index of this task's range
+		 * @param c the comparator
+		 */
+		private SortTask( E[] a, E[] tmp, int base, int from, int to, Comparator<E> c ) {
+			this.a = a;
+			this.tmp = tmp;
+			this.base = base;
+			this.from = from;
+			this.to = to;
+			this.c = c;
+		}
+
+		/**
+		 * Sorts the range
+		 */
+		@Override
+		protected void compute() {
+			if (to - from <= PARALLEL_GRAIN) {
+				mergeSort(a, from, to, c);
+				return;
+			}
+			int mid = (from + to) >>> 1;
+			invokeAll(new SortTask<E>(a, tmp, base, from, mid, c), new SortTask<E>(a, tmp, base, mid, to, c));
+			if (c.compareTo(a[mid - 1], a[mid]) <= 0) {
+				return;
+			}
+			// Merge both halves into tmp, then copy the result back
+			new MergeTask<E>(a, from, mid, mid, to, tmp, from - base, c).compute();
+			System.arraycopy(tmp, from - base, a, from, to - from);
+		}
+	}
+
+	/**
+	 * Merges two sorted ranges of an array into another array, splitting large
+	 * merges into two independent halves that run in parallel. Elements of the
+	 * left range come before equal elements of the right range.
+	 *
+	 * @author Noah Benveniste
+	 *
+	 * @param <E> the type of the elements
+	 */
+	private static class MergeTask<E> extends RecursiveAction {
+
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+
+		/** The array holding both ranges */
+		private final E[] a;
+		/** The first index of the left range */
+		private final int lo1;
+		/** One past the last index of the left range */
+		private final int hi1;
+		/** The first index of the right range */
+		private final int lo2;
+		/** One past the last index of the right range */
+		private final int hi2;
+		/** The array to merge into */
+		private final E[] dest;
+		/** The index of dest to write the first element to */
+		private final int at;
+		/** The comparator */
+		private final Comparator<E> c;
+
+		/**
+		 * Constructs a task that merges [lo1, hi1) and [lo2, hi2) into dest at index at
+		 *
+		 * @param a the array holding both ranges
+		 * @param lo1 the first index of the left range
+		 * @param hi1 one past the last index of the left range
+		 * @param lo2 the first index of the right range
+		 * @param hi2 one past the last index of the right range
+		 * @param dest the array to merge into
+		 * @param at the index of dest to write the first element to
+		 * @param c the comparator
+		 */
+		private MergeTask( E[] a, int lo1, int hi1, int lo2, int hi2, E[] dest, int at, Comparator<E> c ) {
+			this.a = a;
+			this.lo1 = lo1;
+			this.hi1 = hi1;
+			this.lo2 = lo2;
+			this.hi2 = hi2;
+			this.dest = dest;
+			this.at = at;
+			this.c = c;
+		}
+
+		/**
+		 * Merges the ranges
+		 */
+		@Override
+		protected void compute() {
+			int n1 = hi1 - lo1;
+			int n2 = hi2 - lo2;
+			if (n1 + n2 <= PARALLEL_GRAIN) {
+				int i = lo1;
+				int j = lo2;
+				int k = at;
+				while (i < hi1 && j < hi2) {
+					if (c.compareTo(a[j], a[i]) < 0) {
+						dest[k++] = a[j++];
+					} else {
+						dest[k++] = a[i++];
+					}
+				}
+				System.arraycopy(a, i, dest, k, hi1 - i);
+				System.arraycopy(a, j, dest, k + hi1 - i, hi2 - j);
+				return;
+			}
+
+			// Split the larger range at its middle and the other range where that element belongs
+			int split1;
+			int split2;
+			if (n1 >= n2) {
+				split1 = (lo1 + hi1) >>> 1;
+				split2 = lowerBound(a, lo2, hi2, a[split1], c);
+			} else {
+				split2 = (lo2 + hi2) >>> 1;
+				split1 = upperBound(a, lo1, hi1, a[split2], c);
+			}
+			int leftSize = (split1 - lo1) + (split2 - lo2);
+			invokeAll(new MergeTask<E>(a, lo1, split1, lo2, split2, dest, at, c),
+					new MergeTask<E>(a, split1, hi1, split2, hi2, dest, at + leftSize, c));
+		}
+	}
+
+	/**
+	 * Finds the first index of a sorted range whose element is not less than a key
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param lo the first index of the range
+	 * @param hi one past the last index of the range
+	 * @param key the key
+	 * @param c the comparator
+	 *
+	 * @return the first index whose element is &gt;= key, or hi if there is none
+	 */
+	private static <E> int lowerBound( E[] a, int lo, int hi, E key, Comparator<E> c ) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compareTo(a[mid], key) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Finds the first index of a sorted range whose element is greater than a key
+	 *
+	 * @param <E> the type of the elements
+	 * @param a the array
+	 * @param lo the first index of the range
+	 * @param hi one past the last index of the range
+	 * @param key the key
+	 * @param c the comparator
+	 *
+	 * @return the first index whose element is &gt; key, or hi if there is none
+	 */
+	private static <E> int upperBound( E[] a, int lo, int hi, E key, Comparator<E> c ) {
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (c.compareTo(a[mid], key) <= 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Reverses the range [lo, hi] of an array
+	 *
+	 * @param a the array
+	 * @param lo the first index
+	 * @param hi the last index
+	 */
+	private static void reverse( Object[] a, int lo, int hi ) {
+		while (lo < hi) {
+			swap(a, lo++, hi--);
+		}
+	}
+
+	/**
+	 * Swaps two elements of an array
+	 *
+	 * @param a the array
+	 * @param i the first index
+	 * @param j the second index
+	 */
+	private static void swap( Object[] a, int i, int j ) {
+		Object t = a[i];
+		a[i] = a[j];
+		a[j] = t;
+	}
+
+}
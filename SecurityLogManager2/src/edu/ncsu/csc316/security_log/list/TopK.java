@@ -0,0 +1,130 @@
+package edu.ncsu.csc316.security_log.list;
+
+import edu.ncsu.csc316.security_log.comparator.Comparator;
+
+/**
+ * Keeps the first k elements offered to it in a comparator's order, without
+ * sorting the rest. The kept elements are held in a binary heap whose root is
+ * the last of them, so an element is compared against the root and, if it
+ * comes first, replaces it in O(log k) time. Offering n elements takes
+ * O(n log k) time and O(k) space.
+ *
+ * @param <E> the type of the elements
+ *
+ * @author Noah Benveniste
+ */
+public class TopK<E extends Comparable<? super E>> {
+
+	/** The kept elements, as a heap with the last of them in the order at index 0 */
+	private E[] heap;
+	/** The number of elements kept */
+	private int size;
+	/** The order the first k elements are chosen by */
+	private Comparator<E> c;
+
+	/**
+	 * Constructs an empty TopK
+	 *
+	 * @param k the number of elements to keep
+	 * @param c the comparator; elements it puts first are kept
+	 *
+	 * @throws IllegalArgumentException if k is less than 1
+	 */
+	@SuppressWarnings("unchecked")
+	public TopK( int k, Comparator<E> c ) {
+		if (k < 1) {
+			throw new IllegalArgumentException("Must keep at least one element");
+		}
+		this.heap = (E[]) new Comparable<?>[k];
+		this.size = 0;
+		this.c = c;
+	}
+
+	/**
+	 * Offers an element, keeping it if it is among the first k offered so far
+	 *
+	 * @param e the element
+	 *
+	 * @return true if the element was kept
+	 */
+	public boolean offer( E e ) {
+		if (size < heap.length) {
+			// Sift up from the end
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (c.compareTo(heap[parent], e) >= 0) {
+					break;
+				}
+				heap[i] = heap[parent];
+				i = parent;
+			}
+			heap[i] = e;
+			return true;
+		}
+		if (c.compareTo(e, heap[0]) >= 0) {
+			return false;
+		}
+		// Replace the root and sift down
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && c.compareTo(heap[child + 1], heap[child]) > 0) {
+				child++;
+			}
+			if (c.compareTo(heap[child], e) <= 0) {
+				break;
+			}
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = e;
+		return true;
+	}
+
+	/**
+	 * Gets the kept element that is last in the order, which is the one the
+	 * next element has to beat once k elements are kept
+	 *
+	 * @return the last kept element, or null if nothing is kept
+	 */
+	public E peek() {
+		return size == 0 ? null : heap[0];
+	}
+
+	/**
+	 * Checks whether k elements are kept
+	 *
+	 * @return true if a new element has to beat peek() to be kept
+	 */
+	public boolean isFull() {
+		return size == heap.length;
+	}
+
+	/**
+	 * Gets the number of elements kept
+	 *
+	 * @return the number of elements, at most k
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the kept elements in order
+	 *
+	 * @return a new list of the kept elements, sorted by the comparator
+	 */
+	public ArrayList<E> toList() {
+		ArrayList<E> out = new ArrayList<E>(Math.max(size, 1));
+		for (int i = 0; i < size; i++) {
+			out.add(heap[i]);
+		}
+		out.sort(c);
+		return out;
+	}
+
+}
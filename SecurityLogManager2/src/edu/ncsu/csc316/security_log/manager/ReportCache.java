@@ -0,0 +1,463 @@
+package edu.ncsu.csc316.security_log.manager;
+
+import java.util.Arrays;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+
+/**
+ * A bounded cache of finished reports, so a report asked for again is
+ * returned without being generated again. Operational profiles are keyed by
+ * their packed start and end times and number of lines, and user reports by
+ * the user's dictionary id.
+ *
+ * Each profile records the interval of time stamps a new row would have to
+ * fall in to change it: the profile's own interval, or for a profile of an
+ * interval outside the log, the times that would bring the log's range over
+ * it. An appended batch removes exactly the profiles with a row of the batch
+ * in that interval and the reports of the users with a row in the batch.
+ *
+ * The entries are chained in a hash table and also kept in a doubly linked
+ * list from most to least recently used; when the cache is full, the least
+ * recently used entry is evicted. Every method is synchronized.
+ *
+ * @author Noah Benveniste
+ */
+class ReportCache {
+
+	/** The number of entries kept by default */
+	static final int DEFAULT_CAPACITY = 256;
+	/** Batches up to this size are checked row by row rather than sorted first */
+	private static final int SCAN_SIZE = 64;
+	/** Golden ratio constant used to spread hash codes over the table */
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	/** The hash table's buckets; the length is a power of two */
+	private Entry[] buckets;
+	/** The most recently used entry */
+	private Entry head;
+	/** The least recently used entry */
+	private Entry tail;
+	/** The number of entries */
+	private int size;
+	/** The most entries kept, or 0 to keep none */
+	private int capacity;
+	/** The number of lookups that found a report */
+	private long hits;
+	/** The number of lookups that did not */
+	private long misses;
+	/** The number of entries evicted to make room */
+	private long evictions;
+
+	/**
+	 * Constructs an empty cache
+	 *
+	 * @param capacity the most entries kept, or 0 to keep none
+	 */
+	ReportCache( int capacity ) {
+		setCapacity(capacity);
+	}
+
+	/**
+	 * Changes the most entries kept, evicting the least recently used entries
+	 * that no longer fit
+	 *
+	 * @param capacity the most entries kept, or 0 to keep none
+	 *
+	 * @throws IllegalArgumentException if capacity is negative
+	 */
+	synchronized void setCapacity( int capacity ) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Cache capacity must not be negative");
+		}
+		this.capacity = capacity;
+		while (size > capacity) {
+			remove(tail);
+			evictions++;
+		}
+		int length = Integer.highestOneBit(Math.max(2 * capacity - 1, 1)) << 1;
+		Entry[] old = buckets;
+		buckets = new Entry[length];
+		if (old != null) {
+			for (Entry e = head; e != null; e = e.next) {
+				int b = bucket(e.hash);
+				e.chain = buckets[b];
+				buckets[b] = e;
+			}
+		}
+	}
+
+	/**
+	 * Looks up an operational profile, marking it most recently used
+	 *
+	 * @param start the packed start time
+	 * @param end the packed end time
+	 * @param k the number of lines, or 0 for every line
+	 *
+	 * @return the profile, or null if it is not cached
+	 */
+	synchronized String getProfile( long start, long end, int k ) {
+		return found(find(profileHash(start, end, k), start, end, k, -1));
+	}
+
+	/**
+	 * Looks up a user report, marking it most recently used
+	 *
+	 * @param user the user id
+	 *
+	 * @return the report, or null if it is not cached
+	 */
+	synchronized String getUserReport( int user ) {
+		return found(find(userHash(user), 0, 0, 0, user));
+	}
+
+	/**
+	 * Counts a lookup and moves the entry found to the front
+	 *
+	 * @param e the entry found, or null
+	 *
+	 * @return the entry's report, or null if no entry was found
+	 */
+	private String found( Entry e ) {
+		if (e == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		unlink(e);
+		linkFirst(e);
+		return e.report;
+	}
+
+	/**
+	 * Caches an operational profile
+	 *
+	 * @param start the packed start time
+	 * @param end the packed end time
+	 * @param k the number of lines, or 0 for every line
+	 * @param low the earliest time stamp of a new row that changes the profile
+	 * @param high the latest time stamp of a new row that changes the profile;
+	 *        less than low if no new row changes it
+	 * @param report the profile
+	 */
+	synchronized void putProfile( long start, long end, int k, long low, long high, String report ) {
+		Entry e = new Entry(profileHash(start, end, k), start, end, k, -1, report);
+		e.low = low;
+		e.high = high;
+		put(e);
+	}
+
+	/**
+	 * Caches a user report
+	 *
+	 * @param user the user id
+	 * @param report the report
+	 */
+	synchronized void putUserReport( int user, String report ) {
+		put(new Entry(userHash(user), 0, 0, 0, user, report));
+	}
+
+	/**
+	 * Adds an entry, replacing an entry with the same key and evicting the
+	 * least recently used entry if the cache is full
+	 *
+	 * @param e the entry
+	 */
+	private void put( Entry e ) {
+		if (capacity == 0) {
+			return;
+		}
+		Entry old = find(e.hash, e.start, e.end, e.k, e.user);
+		if (old != null) {
+			remove(old);
+		} else if (size == capacity) {
+			remove(tail);
+			evictions++;
+		}
+		int b = bucket(e.hash);
+		e.chain = buckets[b];
+		buckets[b] = e;
+		linkFirst(e);
+		size++;
+	}
+
+	/**
+	 * Removes the reports an appended batch changes
+	 *
+	 * @param batch the appended rows
+	 */
+	synchronized void invalidate( LogStore batch ) {
+		if (size == 0 || batch.size() == 0) {
+			return;
+		}
+		long[] times = null;
+		int[] users = null;
+		Entry e = head;
+		while (e != null) {
+			Entry next = e.next;
+			boolean changed;
+			if (e.user < 0) {
+				if (e.low > e.high || e.high < batch.getMinTime() || e.low > batch.getMaxTime()) {
+					changed = false;
+				} else if (batch.size() <= SCAN_SIZE) {
+					changed = false;
+					for (int row = 0; row < batch.size() && !changed; row++) {
+						changed = e.low <= batch.getTime(row) && batch.getTime(row) <= e.high;
+					}
+				} else {
+					if (times == null) {
+						times = new long[batch.size()];
+						for (int row = 0; row < times.length; row++) {
+							times[row] = batch.getTime(row);
+						}
+						Arrays.sort(times);
+					}
+					// The first time not before low must not be after high
+					int i = lowerBound(times, e.low);
+					changed = i < times.length && times[i] <= e.high;
+				}
+			} else {
+				if (users == null) {
+					users = new int[batch.size()];
+					for (int row = 0; row < users.length; row++) {
+						users[row] = batch.getUser(row);
+					}
+					Arrays.sort(users);
+				}
+				changed = Arrays.binarySearch(users, e.user) >= 0;
+			}
+			if (changed) {
+				remove(e);
+			}
+			e = next;
+		}
+	}
+
+	/**
+	 * Finds the first index of a sorted array whose value is not less than a key
+	 *
+	 * @param a the sorted array
+	 * @param key the key
+	 *
+	 * @return the index, or the length of the array if every value is less than the key
+	 */
+	private static int lowerBound( long[] a, long key ) {
+		int low = 0;
+		int high = a.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (a[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Removes every entry
+	 */
+	synchronized void clear() {
+		Arrays.fill(buckets, null);
+		head = null;
+		tail = null;
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of lookups that found a report
+	 *
+	 * @return the number of hits
+	 */
+	synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of lookups that did not find a report
+	 *
+	 * @return the number of misses
+	 */
+	synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Gets the number of entries evicted to make room for others
+	 *
+	 * @return the number of evictions
+	 */
+	synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Gets the number of cached reports
+	 *
+	 * @return the number of entries
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Hashes the key of an operational profile
+	 *
+	 * @param start the packed start time
+	 * @param end the packed end time
+	 * @param k the number of lines
+	 *
+	 * @return the hash
+	 */
+	private static long profileHash( long start, long end, int k ) {
+		return ((start * GOLDEN + end) * GOLDEN + k) * GOLDEN;
+	}
+
+	/**
+	 * Hashes the key of a user report
+	 *
+	 * @param user the user id
+	 *
+	 * @return the hash
+	 */
+	private static long userHash( int user ) {
+		return (user + 1L) * GOLDEN ^ 0x5DEECE66DL;
+	}
+
+	/**
+	 * Finds the bucket of a hash
+	 *
+	 * @param hash the hash
+	 *
+	 * @return the index of the bucket
+	 */
+	private int bucket( long hash ) {
+		return (int) (hash >>> 32) & (buckets.length - 1);
+	}
+
+	/**
+	 * Finds the entry with a key
+	 *
+	 * @param hash the hash of the key
+	 * @param start the packed start time, for a profile
+	 * @param end the packed end time, for a profile
+	 * @param k the number of lines, for a profile
+	 * @param user the user id for a user report, or -1 for a profile
+	 *
+	 * @return the entry, or null if there is none
+	 */
+	private Entry find( long hash, long start, long end, int k, int user ) {
+		for (Entry e = buckets[bucket(hash)]; e != null; e = e.chain) {
+			if (e.hash == hash && e.user == user && e.start == start && e.end == end && e.k == k) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes an entry from the hash table and the list
+	 *
+	 * @param e the entry
+	 */
+	private void remove( Entry e ) {
+		int b = bucket(e.hash);
+		if (buckets[b] == e) {
+			buckets[b] = e.chain;
+		} else {
+			Entry p = buckets[b];
+			while (p.chain != e) {
+				p = p.chain;
+			}
+			p.chain = e.chain;
+		}
+		unlink(e);
+		size--;
+	}
+
+	/**
+	 * Takes an entry out of the list
+	 *
+	 * @param e the entry
+	 */
+	private void unlink( Entry e ) {
+		if (e.prev == null) {
+			head = e.next;
+		} else {
+			e.prev.next = e.next;
+		}
+		if (e.next == null) {
+			tail = e.prev;
+		} else {
+			e.next.prev = e.prev;
+		}
+		e.prev = null;
+		e.next = null;
+	}
+
+	/**
+	 * Puts an entry at the front of the list
+	 *
+	 * @param e the entry, which is not in the list
+	 */
+	private void linkFirst( Entry e ) {
+		e.next = head;
+		if (head == null) {
+			tail = e;
+		} else {
+			head.prev = e;
+		}
+		head = e;
+	}
+
+	/**
+	 * A cached report and its key
+	 *
+	 * @author Noah Benveniste
+	 */
+	private static class Entry {
+
+		/** The hash of the key */
+		private final long hash;
+		/** The packed start time of a profile */
+		private final long start;
+		/** The packed end time of a profile */
+		private final long end;
+		/** The number of lines of a profile, or 0 for every line */
+		private final int k;
+		/** The user id of a user report, or -1 for a profile */
+		private final int user;
+		/** The report */
+		private final String report;
+		/** The earliest time stamp of a new row that changes a profile */
+		private long low;
+		/** The latest time stamp of a new row that changes a profile */
+		private long high;
+		/** The next entry in the same bucket */
+		private Entry chain;
+		/** The next more recently used entry */
+		private Entry prev;
+		/** The next less recently used entry */
+		private Entry next;
+
+		/**
+		 * Constructs an entry
+		 *
+		 * @param hash the hash of the key
+		 * @param start the packed start time of a profile
+		 * @param end the packed end time of a profile
+		 * @param k the number of lines of a profile
+		 * @param user the user id of a user report, or -1 for a profile
+		 * @param report the report
+		 */
+		private Entry( long hash, long start, long end, int k, int user, String report ) {
+			this.hash = hash;
+			this.start = start;
+			this.end = end;
+			this.k = k;
+			this.user = user;
+			this.report = report;
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package edu.ncsu.csc316.security_log.manager;
+
+import java.io.IOException;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Writes the lines of a report to an Appendable through a buffer of about
+ * BUFFER_SIZE characters, so a report of any length is never held in memory
+ * at once. A writer without a target keeps the whole report instead, for the
+ * methods that return it as a String.
+ *
+ * Numbers are appended without creating any objects. Percentages are worked
+ * out in fixed point from the count and the total, giving the same text as
+ * String.format("%.1f%%") on the double percentage.
+ *
+ * @author Noah Benveniste
+ */
+class ReportWriter {
+
+	/** The buffer is written to the target once it holds this many characters */
+	static final int BUFFER_SIZE = 1 << 13;
+
+	/** Where the report is written, or null to keep it in the buffer */
+	private final Appendable out;
+	/** The characters not yet written to out */
+	private final StringBuilder buf;
+	/** The decimal separator String.format() uses */
+	private final char decimalSeparator;
+
+	/**
+	 * Constructs a writer that keeps the whole report, to be read with toString()
+	 */
+	ReportWriter() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a writer that writes the report to an Appendable
+	 *
+	 * @param out where the report is written
+	 */
+	ReportWriter( Appendable out ) {
+		this.out = out;
+		this.buf = new StringBuilder(out == null ? 256 : BUFFER_SIZE + 256);
+		this.decimalSeparator = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+	}
+
+	/**
+	 * Appends a string
+	 *
+	 * @param s the string
+	 *
+	 * @return this writer
+	 */
+	ReportWriter append( String s ) {
+		buf.append(s);
+		return this;
+	}
+
+	/**
+	 * Appends a number
+	 *
+	 * @param n the number
+	 *
+	 * @return this writer
+	 */
+	ReportWriter append( int n ) {
+		buf.append(n);
+		return this;
+	}
+
+	/**
+	 * Appends count / total as a percentage with one decimal place and a
+	 * percent sign, rounded half up as String.format("%.1f%%") rounds the double
+	 * percentage. The rounding is done on count * 1000 / total in integers; only
+	 * a count that falls exactly halfway between two tenths is formatted from
+	 * the double, where the double's error could decide which way it rounds.
+	 *
+	 * @param count the count
+	 * @param total the total, greater than zero
+	 *
+	 * @return this writer
+	 */
+	ReportWriter appendPercent( int count, int total ) {
+		long scaled = (long) count * 1000;
+		long tenths = scaled / total;
+		long twiceRemainder = 2 * (scaled % total);
+		if (twiceRemainder == total) {
+			double percentage = (((double) count) / total) * 100;
+			buf.append(String.format("%.1f%%", percentage));
+			return this;
+		}
+		if (twiceRemainder > total) {
+			tenths++;
+		}
+		buf.append(tenths / 10).append(decimalSeparator).append((char) ('0' + tenths % 10)).append('%');
+		return this;
+	}
+
+	/**
+	 * Ends a line, writing the buffer to the target if it is full
+	 *
+	 * @return this writer
+	 *
+	 * @throws IOException if the target cannot be written to
+	 */
+	ReportWriter endLine() throws IOException {
+		buf.append('\n');
+		if (out != null && buf.length() >= BUFFER_SIZE) {
+			flush();
+		}
+		return this;
+	}
+
+	/**
+	 * Writes whatever is left in the buffer to the target
+	 *
+	 * @throws IOException if the target cannot be written to
+	 */
+	void flush() throws IOException {
+		if (out != null) {
+			out.append(buf);
+			buf.setLength(0);
+		}
+	}
+
+	/**
+	 * Gets the report kept by a writer without a target
+	 *
+	 * @return the text in the buffer
+	 */
+	@Override
+	public String toString() {
+		return buf.toString();
+	}
+
+}
@@ -1,34 +1,86 @@
 package edu.ncsu.csc316.security_log.manager;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import edu.ncsu.csc316.security_log.comparator.ARComparator;
-import edu.ncsu.csc316.security_log.comparator.UserComparator;
-import edu.ncsu.csc316.security_log.comparator.UserOnlyComparator;
 import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogSnapshot;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.PairCounts;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
 import edu.ncsu.csc316.security_log.data.TimeStamp;
-import edu.ncsu.csc316.security_log.dictionary.HashTable;
+import edu.ncsu.csc316.security_log.io.BinaryLogIO;
+import edu.ncsu.csc316.security_log.io.LogFollower;
+import edu.ncsu.csc316.security_log.io.PersistentLog;
 import edu.ncsu.csc316.security_log.io.SecurityLogIO;
 import edu.ncsu.csc316.security_log.list.ArrayList;
+import edu.ncsu.csc316.security_log.list.TopK;
 
 /**
  * Manager class that contains methods for primary operations that program performs.
  * 
+ * The entries are held in an immutable LogSnapshot, and each report keeps its
+ * counts, entries and output in local variables, so any number of threads can
+ * generate reports from one manager at the same time.
+ * 
+ * New entries can be appended while reports are running. Appends are made one
+ * at a time: each one builds a new snapshot with the batch added and publishes
+ * it through a volatile field, so a report never waits for an append and
+ * always sees every row of the batches published before it started, and none
+ * of the later ones. The time range of the log is part of the snapshot and
+ * changes with it. Batches are published in the order they are written to
+ * the persistence directory, if there is one, so a restart recovers the rows
+ * in the order reports saw them.
+ * 
+ * Finished reports are kept in a ReportCache, so a report asked for again is
+ * returned as it is. The cache is updated together with the snapshot: each
+ * append removes just the reports its entries change, and a report is only
+ * cached if no append was published while it was generated.
+ * 
+ * A SlidingProfile opened from the manager gets each batch as it is
+ * appended, so the profile of the last few minutes is refreshed from the
+ * entries that entered and left its window rather than counted again.
+ * 
  * @author Noah Benveniste
  */
 public class SecurityLogManager {
 	/** Output for invalid time input */
-	private static final String NO_ACTIVITY = "OperationalProfile[\n   No activity was recorded.\n]";
-    /** Keeps track of log entries in file */
-    private ArrayList<LogEntry> logEntryList;
-    /** Used to read in log entries from file */
-    private SecurityLogIO io;
-    /** The earliest time in the log entry list, used for input verification */
-    private long minTimeStamp;
-    /** The latest time in the log entry list, used for input verification */
-    private long maxTimeStamp;
-    /** Whether or not logEntryList has been sorted by name */
-    private boolean sorted;
+	static final String NO_ACTIVITY = "OperationalProfile[\n   No activity was recorded.\n]";
+    /** The log entries appended so far and their indexes, replaced as a whole by each append */
+    private volatile LogSnapshot snapshot;
+    /** The files being followed */
+    private LogFollower[] followers = new LogFollower[0];
+    /** Polls the followed files in the background, or null if startPolling() has not been called */
+    private ScheduledExecutorService poller;
+    /** The failure that stopped background polling, if any */
+    private volatile RuntimeException pollError;
+    /** The number of days of entries kept after each append, or 0 to keep them all */
+    private volatile int retentionDays;
+    /** The directory appends are persisted to, or null if they are only kept in memory */
+    private volatile PersistentLog journal;
+    /** Reports generated from the current snapshot; locked while the snapshot is replaced */
+    private final ReportCache cache = new ReportCache(ReportCache.DEFAULT_CAPACITY);
+    /** The open sliding profiles, which get every batch appended */
+    private volatile SlidingProfile[] profiles = new SlidingProfile[0];
+    /** Held to write a batch to the journal and to replace the snapshot, which it orders */
+    private final Object order = new Object();
+    /** The number of batches given a turn to be published */
+    private long turns;
+    /** The number of turns taken, published or not */
+    private long published;
+    
+    /**
+     * Constructs a SecurityLogManager with no entries, to be filled by appends
+     */
+    public SecurityLogManager() {
+        snapshot = new LogSnapshot(new StringDictionary());
+    }
     
     /**
      * Constructs the SecurityLogManager
@@ -38,17 +90,486 @@ public class SecurityLogManager {
      * @throws IllegalArgumentException if the file is not formatted properly
      */
     public SecurityLogManager(String fileName) {
-        io = new SecurityLogIO();
+        SecurityLogIO io = new SecurityLogIO();
+        try {
+            snapshot = new LogSnapshot(io.readLogStoreFromFile(fileName));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+    
+    /**
+     * Appends log entries as one batch. Reports that start after this returns
+     * see all of them; reports already running see none of them.
+     * 
+     * @param entries the entries to append
+     */
+    public void append( LogEntry... entries ) {
+        if (entries.length == 0) {
+            return;
+        }
+        LogStore batch = new LogStore(snapshot.getDictionary(), entries.length);
+        for (LogEntry e : entries) {
+            batch.add(e);
+        }
+        publish(batch);
+    }
+    
+    /**
+     * Appends every log entry in a file as one batch. The file is read before
+     * other appends are held up, and reports keep running throughout.
+     * 
+     * @param fileName the name of the file to read
+     * 
+     * @throws IllegalArgumentException if the file is not formatted properly
+     */
+    public void appendFile( String fileName ) {
+        SecurityLogIO io = new SecurityLogIO();
+        LogStore batch;
+        try {
+            batch = io.readLogStoreFromFile(fileName, snapshot.getDictionary());
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+        publish(batch);
+    }
+    
+    /**
+     * Persists a batch if the manager has a directory, then adds it to the
+     * snapshot, so reports never see an entry that a crash could lose. The
+     * batch is written to the journal and given its turn in one step, and is
+     * added to the snapshot in turn once it is on the disk, so the snapshot
+     * gets the batches in the order the journal has them. The wait for the
+     * disk is made outside the lock, so batches appended at once share it.
+     * 
+     * @param batch the rows to add, which must use the snapshot's dictionary
+     * 
+     * @throws IllegalArgumentException if the batch cannot be persisted
+     */
+    private void publish( LogStore batch ) {
+        PersistentLog log;
+        long position = 0;
+        long turn;
+        synchronized (order) {
+            log = journal;
+            if (log != null) {
+                try {
+                    position = log.write(batch);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(e.getMessage());
+                }
+            }
+            turn = turns++;
+        }
+        boolean durable = false;
+        try {
+            if (log != null) {
+                log.sync(position);
+            }
+            durable = true;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        } finally {
+            // A batch that failed still takes its turn, so the ones after it are not held up
+            boolean interrupted = false;
+            synchronized (order) {
+                while (published != turn) {
+                    try {
+                        order.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                try {
+                    if (durable) {
+                        install(batch);
+                    }
+                } finally {
+                    published++;
+                    order.notifyAll();
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Builds the snapshot with a batch added and publishes it. The caller holds order.
+     * 
+     * @param batch the rows to add, which must use the snapshot's dictionary
+     */
+    private void install( LogStore batch ) {
+        LogSnapshot next = snapshot.append(batch);
+        LogSnapshot kept = retentionDays > 0 ? next.retainDays(retentionDays) : next;
+        synchronized (cache) {
+            snapshot = kept;
+            if (kept != next) {
+                cache.clear();
+            } else {
+                cache.invalidate(batch);
+            }
+        }
+        for (SlidingProfile p : profiles) {
+            if (kept != next) {
+                p.reset(kept);
+            } else {
+                p.append(batch, kept);
+            }
+        }
+    }
+    
+    /**
+     * Publishes a snapshot with entries dropped, removing every cached report
+     * 
+     * @param next the snapshot
+     */
+    private void replace( LogSnapshot next ) {
+        synchronized (order) {
+            synchronized (cache) {
+                if (next == snapshot) {
+                    return;
+                }
+                snapshot = next;
+                cache.clear();
+            }
+            for (SlidingProfile p : profiles) {
+                p.reset(next);
+            }
+        }
+    }
+    
+    /**
+     * Sets how many days of entries are kept, counting back from the day of the
+     * latest entry. Older days are dropped right away and after every append,
+     * as whole partitions, so the days that are kept are never rebuilt.
+     * 
+     * @param days the number of calendar days to keep, including the latest, or 0 to keep every day
+     * 
+     * @throws IllegalArgumentException if days is negative
+     */
+    public synchronized void setRetention( int days ) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Retention must not be negative");
+        }
+        retentionDays = days;
+        if (days > 0) {
+            replace(snapshot.retainDays(days));
+        }
+    }
+    
+    /**
+     * Drops the entries of every day before the day of a time stamp
+     * 
+     * @param timeStamp the time stamp, as mm/dd/yyyy hh:mm:ssXX; entries on its day are kept
+     * 
+     * @return the number of entries dropped
+     * 
+     * @throws IllegalArgumentException if the time stamp is not valid
+     */
+    public synchronized int dropBefore( String timeStamp ) {
+        LogSnapshot before = snapshot;
+        replace(before.dropBefore(TimeStamp.parseValid(timeStamp, 0)));
+        return before.size() - snapshot.size();
+    }
+    
+    /**
+     * Saves every entry appended so far as a binary snapshot, which the
+     * constructor and appendFile() load much faster than the CSV it came from.
+     * Appends made while saving are not included.
+     * 
+     * @param fileName the name of the file to write, which is replaced if it exists
+     * 
+     * @throws IllegalArgumentException if the file cannot be written
+     */
+    public void save( String fileName ) {
+        LogSnapshot snap = snapshot;
+        LogStore[] stores = new LogStore[snap.getSegmentCount()];
+        for (int i = 0; i < stores.length; i++) {
+            stores[i] = snap.getSegment(i).getStore();
+        }
         try {
-            logEntryList = io.readLogEntriesFromFile(fileName);
-            minTimeStamp = io.minTimeStamp;
-            maxTimeStamp = io.maxTimeStamp;
-            sorted = false;
+            new BinaryLogIO().write(fileName, snap.getDictionary(), stores);
         } catch (IOException e) {
             throw new IllegalArgumentException(e.getMessage());
         }
     }
     
+    /**
+     * Keeps every entry in a directory, so it survives a restart without
+     * parsing the original files again. The entries the directory already
+     * holds from an earlier run are recovered first, and every entry appended
+     * after is written to the directory before reports see it; PersistentLog
+     * describes the files. To persist the entries of a CSV file, append the
+     * file after this. Entries dropped by retention stay in the directory.
+     * 
+     * @param directory the name of the directory, which is created if it does not exist
+     * 
+     * @return the number of entries recovered from the directory
+     * 
+     * @throws IllegalArgumentException if the manager already has entries or a
+     *         directory, or the directory cannot be read or written
+     */
+    public synchronized int persistTo( String directory ) {
+        if (journal != null || snapshot.size() > 0) {
+            throw new IllegalArgumentException("Entries can only be persisted from an empty manager");
+        }
+        try {
+            PersistentLog log = new PersistentLog(directory, snapshot.getDictionary());
+            LogStore recovered = log.getRecovered();
+            synchronized (order) {
+                journal = log;
+                install(recovered);
+            }
+            return recovered.size();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+    
+    /**
+     * Stops persisting appends, closing the directory. Its write-ahead log is
+     * replayed the next time a manager persists to it.
+     * 
+     * @throws IllegalArgumentException if the directory cannot be closed
+     */
+    public synchronized void closePersistence() {
+        // Under the lock appends write with, so no batch is written to a closed journal
+        synchronized (order) {
+            PersistentLog log = journal;
+            journal = null;
+            if (log != null) {
+                try {
+                    log.close();
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Starts following a log file that is being written to. Everything already
+     * in the file is appended right away; lines written later are appended by
+     * poll(), or in the background after startPolling(). Truncated and rotated
+     * files are picked up from the top, as LogFollower describes. To follow the
+     * file a manager was constructed from, construct an empty manager and
+     * follow the file instead, so no entry is read twice.
+     * 
+     * @param fileName the name of the file to follow, which need not exist yet
+     * 
+     * @throws IllegalArgumentException if the file is not formatted properly
+     */
+    public synchronized void follow( String fileName ) {
+        LogFollower[] grown = new LogFollower[followers.length + 1];
+        System.arraycopy(followers, 0, grown, 0, followers.length);
+        grown[followers.length] = new LogFollower(fileName, snapshot.getDictionary());
+        followers = grown;
+        poll();
+    }
+    
+    /**
+     * Appends the lines written to every followed file since the last poll,
+     * one batch per file
+     * 
+     * @return the number of entries appended
+     * 
+     * @throws IllegalArgumentException if a file cannot be read or a line is not formatted properly
+     */
+    public synchronized int poll() {
+        int added = 0;
+        for (LogFollower follower : followers) {
+            LogStore batch;
+            try {
+                batch = follower.poll();
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+            publish(batch);
+            added += batch.size();
+        }
+        return added;
+    }
+    
+    /**
+     * Polls the followed files on a background thread, waiting a fixed time
+     * between the end of one poll and the start of the next. Polling stops if
+     * a poll fails; stopFollowing() then reports the failure.
+     * 
+     * @param periodMillis the time between polls, in milliseconds
+     * 
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public synchronized void startPolling( long periodMillis ) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Polling period must be positive");
+        }
+        if (poller != null) {
+            poller.shutdown();
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread( Runnable r ) {
+                Thread t = new Thread(r, "security-log-poller");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        poller.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poll();
+                } catch (RuntimeException e) {
+                    pollError = e;
+                    throw e;
+                }
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stops polling and closes every followed file. The entries appended so far are kept.
+     * 
+     * @throws IllegalArgumentException if background polling stopped because a poll failed
+     */
+    public synchronized void stopFollowing() {
+        if (poller != null) {
+            poller.shutdown();
+            poller = null;
+        }
+        for (LogFollower follower : followers) {
+            try {
+                follower.close();
+            } catch (IOException e) {
+                // Nothing more will be read from it
+            }
+        }
+        followers = new LogFollower[0];
+        RuntimeException e = pollError;
+        pollError = null;
+        if (e != null) {
+            throw new IllegalArgumentException(e.getMessage());
+        }
+    }
+    
+    /**
+     * Opens the operational profile of the last few minutes of the log, which
+     * is kept up to date as entries are appended and can be refreshed every
+     * few seconds for live monitoring. The window ends at the latest entry
+     * until the profile is refreshed to end at some other time.
+     * 
+     * @param minutes the length of the window in minutes
+     * 
+     * @return the profile, which gets every batch appended until it is closed
+     * 
+     * @throws IllegalArgumentException if minutes is less than 1
+     */
+    public SlidingProfile openSlidingProfile( int minutes ) {
+        return openProfile(minutes, 0);
+    }
+    
+    /**
+     * Opens the first lines of the operational profile of the last few
+     * minutes of the log, as openSlidingProfile(minutes) does
+     * 
+     * @param minutes the length of the window in minutes
+     * @param k the number of lines to generate
+     * 
+     * @return the profile, which gets every batch appended until it is closed
+     * 
+     * @throws IllegalArgumentException if minutes or k is less than 1
+     */
+    public SlidingProfile openSlidingProfile( int minutes, int k ) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Number of lines must be at least 1");
+        }
+        return openProfile(minutes, k);
+    }
+    
+    /**
+     * Opens a sliding profile of the current snapshot
+     * 
+     * @param minutes the length of the window in minutes
+     * @param k the number of lines to generate, or 0 for every line
+     * 
+     * @return the profile
+     * 
+     * @throws IllegalArgumentException if minutes is less than 1
+     */
+    private synchronized SlidingProfile openProfile( int minutes, int k ) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("Window must be at least one minute");
+        }
+        // Under the lock batches are published with, so the profile misses none and gets none twice
+        synchronized (order) {
+            SlidingProfile p = new SlidingProfile(this, snapshot, minutes, k);
+            SlidingProfile[] grown = new SlidingProfile[profiles.length + 1];
+            System.arraycopy(profiles, 0, grown, 0, profiles.length);
+            grown[profiles.length] = p;
+            profiles = grown;
+            return p;
+        }
+    }
+    
+    /**
+     * Stops a sliding profile from getting appended batches
+     * 
+     * @param p the profile
+     */
+    synchronized void closeSlidingProfile( SlidingProfile p ) {
+        for (int i = 0; i < profiles.length; i++) {
+            if (profiles[i] == p) {
+                SlidingProfile[] shrunk = new SlidingProfile[profiles.length - 1];
+                System.arraycopy(profiles, 0, shrunk, 0, i);
+                System.arraycopy(profiles, i + 1, shrunk, i, shrunk.length - i);
+                profiles = shrunk;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of entries appended so far
+     * 
+     * @return the number of entries in the current snapshot
+     */
+    public int size() {
+        return snapshot.size();
+    }
+    
+    /**
+     * Sets how many reports are cached, evicting the least recently used
+     * reports that no longer fit
+     * 
+     * @param capacity the most reports cached, or 0 to cache none
+     * 
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public void setCacheCapacity( int capacity ) {
+        cache.setCapacity(capacity);
+    }
+    
+    /**
+     * Gets the number of report requests answered from the cache
+     * 
+     * @return the number of cache hits
+     */
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+    
+    /**
+     * Gets the number of report requests that had to be generated. Reports of
+     * unknown users are neither looked up nor cached.
+     * 
+     * @return the number of cache misses
+     */
+    public long getCacheMisses() {
+        return cache.getMisses();
+    }
+    
     /**
      * Generates the operational profile given a start time and end time
      * 
@@ -58,81 +579,157 @@ public class SecurityLogManager {
      * @return the operational profile as a single string
      */
     public String generateOperationalProfile( String startTime, String endTime ) {
-        // 1. Validate the startTime and endTime by comparing them to
-    	//    the min and max time stored when the input file was read in
-    	TimeStamp start = new TimeStamp(startTime);
-    	TimeStamp end = new TimeStamp(endTime);
-    	
-    	// 1a. startTime must be less than endTime
-    	if (start.getVal() >= end.getVal()) {
-    		return NO_ACTIVITY;
+    	return cachedProfile(startTime, endTime, 0);
+    }
+    
+    /**
+     * Writes the operational profile given a start time and end time to an
+     * Appendable, such as a Writer or a PrintStream, a few kilobytes at a time.
+     * The text is the same as generateOperationalProfile(startTime, endTime)
+     * returns.
+     * 
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param out where the profile is written
+     * 
+     * @throws IOException if out cannot be written to
+     */
+    public void generateOperationalProfile( String startTime, String endTime, Appendable out ) throws IOException {
+    	ReportWriter w = new ReportWriter(out);
+    	writeProfile(snapshot, startTime, endTime, 0, w);
+    	w.flush();
+    }
+    
+    /**
+     * Generates the first lines of the operational profile given a start time
+     * and end time. The lines are the same as the first k lines of the full
+     * profile, but only the k most frequent action/resource pairs are kept and
+     * sorted, so a short profile of a long interval is much faster.
+     * 
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param k the number of lines to generate
+     * 
+     * @return the operational profile as a single string, with at most k lines
+     * 
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public String generateOperationalProfile( String startTime, String endTime, int k ) {
+    	if (k < 1) {
+    		throw new IllegalArgumentException("Number of lines must be at least 1");
     	}
-    	
-    	// 1b. startTime must be less than the max time stamp read in
-    	if (start.getVal() >= this.maxTimeStamp) {
-    		return NO_ACTIVITY;
+    	return cachedProfile(startTime, endTime, k);
+    }
+    
+    /**
+     * Gets an operational profile from the cache, or generates and caches it
+     * 
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param k the number of lines to generate, or 0 for every line
+     * 
+     * @return the operational profile as a single string
+     */
+    private String cachedProfile( String startTime, String endTime, int k ) {
+    	long start = TimeStamp.parse(startTime, 0);
+    	long end = TimeStamp.parse(endTime, 0);
+    	String report = cache.getProfile(start, end, k);
+    	if (report != null) {
+    		return report;
     	}
-    	
-    	// 1c. endTime must be greater than the min time stamp read in
-    	if (end.getVal() <= this.minTimeStamp) {
-    		return NO_ACTIVITY;
+    	LogSnapshot snap = snapshot;
+    	ReportWriter w = new ReportWriter();
+    	try {
+    		writeProfile(snap, startTime, endTime, k, w);
+    	} catch (IOException e) {
+    		// Only thrown by a target, and this writer has none
+    		throw new UncheckedIOException(e);
     	}
-    	
-    	// 2. Create an empty hash table and array list
-    	HashTable<LogEntry> ht = new HashTable<LogEntry>();
-    	ArrayList<LogEntry> out = new ArrayList<LogEntry>();
-    	
-    	// Reset static counter for total log entries within a time interval
-    	LogEntry.total = 0;
-    	
-    	// 3. Loop through the unsorted list of log entries
-    	for (int i = 0; i < logEntryList.size(); i++) {
-    		// Get the current log entry
-    		LogEntry curr = logEntryList.get(i);
-    		//Check if its in the input time interval
-    		if (curr.getTimeStamp().getVal() >= start.getVal() && curr.getTimeStamp().getVal() <= end.getVal()) {
-    			// Increment counter that keeps track of total number of entries over the interval
-    			LogEntry.total++;
-    			// 3a. Look up the current entry
-        		LogEntry lookedUp = ht.lookUp(curr);
-        		if (lookedUp == null) {
-        			// 3b. If lookUp returns null, insert the element into the table and the arraylist
-        			ht.insert(curr);
-        			out.add(curr); 
-        		} else {
-            		// 3c. If the element is already in the table, increment the frequency counter for that entry in the table
-        			lookedUp.incrementFrequency();
-        		}
+    	report = w.toString();
+    	cacheProfile(snap, start, end, k, report);
+    	return report;
+    }
+    
+    /**
+     * Caches an operational profile, unless an append was published since the
+     * snapshot it was generated from
+     * 
+     * @param snap the snapshot the profile was generated from
+     * @param start the packed start time
+     * @param end the packed end time
+     * @param k the number of lines generated, or 0 for every line
+     * @param report the operational profile
+     */
+    private void cacheProfile( LogSnapshot snap, long start, long end, int k, String report ) {
+    	// The time stamps of the new entries that would change the profile, following
+    	// the checks of countPairs(): none for an empty interval, any that stretch the
+    	// log over an interval outside it, and otherwise those inside the interval
+    	long low = start;
+    	long high = end;
+    	if (start >= end) {
+    		low = 1;
+    		high = 0;
+    	} else if (start >= snap.getMaxTime()) {
+    		low = start + 1;
+    		high = Long.MAX_VALUE;
+    	} else if (end <= snap.getMinTime()) {
+    		low = Long.MIN_VALUE;
+    		high = end - 1;
+    	}
+    	synchronized (cache) {
+    		if (snap == snapshot) {
+    			cache.putProfile(start, end, k, low, high, report);
     		}
     	}
+    }
+    
+    /**
+     * Generates the operational profiles of many time intervals at once, such
+     * as every hour of a week. Each profile is the same as
+     * generateOperationalProfile(startTime, endTime) returns, but the log is
+     * counted only once for the whole batch: the start and end times of the
+     * intervals cut the log into pieces, each piece is counted a single time,
+     * and each profile adds up the counts of the pieces it covers.
+     * 
+     * @param windows the intervals, each an array of a start time and an end time
+     * 
+     * @return the operational profiles, in the order of the intervals
+     * 
+     * @throws IllegalArgumentException if an interval is not a start time and an end time
+     */
+    public String[] generateOperationalProfiles( String[][] windows ) {
+    	long[] starts = new long[windows.length];
+    	long[] ends = new long[windows.length];
+    	String[] reports = new String[windows.length];
+    	for (int i = 0; i < windows.length; i++) {
+    		if (windows[i] == null || windows[i].length != 2) {
+    			throw new IllegalArgumentException("Each window must have a start time and an end time");
+    		}
+    		starts[i] = TimeStamp.parse(windows[i][0], 0);
+    		ends[i] = TimeStamp.parse(windows[i][1], 0);
+    	}
     	
-    	// 4. sort the arraylist using a comparator based on frequency, then action and resource
-    	out.sort(new ARComparator());
-    	
-    	// 5. Generate output string
-    	String startStr = "OperationalProfile[\n";
-        String endStr = "]";
-        StringBuilder sb = new StringBuilder(startStr);
-    	
-    	// 5a. For each entry in out, get the frequency, calculate percentage for the current action/resource
-        for (int i = 0; i < out.size(); i++) {
-        	// 5c. Append to output string
-        	LogEntry curr = out.get(i);
-        	double percentage = (((double) curr.getFrequency()) / LogEntry.total) * 100;
-        	sb.append("   ")
-        	  .append(curr.getAction())
-        	  .append(" ")
-        	  .append(curr.getResource())
-        	  .append(": frequency: ")
-        	  .append(curr.getFrequency())
-        	  .append(", percentage: ");
-        	
-        	sb.append(String.format("%.1f%%\n", percentage));
-        }
-    	
-    	// Return output string
-        sb.append(endStr);
-    	return sb.toString();
+    	// Only the profiles that are not cached are counted
+    	for (int i = 0; i < windows.length; i++) {
+    		reports[i] = cache.getProfile(starts[i], ends[i], 0);
+    	}
+    	LogSnapshot snap = snapshot;
+    	PairCounts[] counts = countWindows(snap, starts, ends, reports);
+    	for (int i = 0; i < windows.length; i++) {
+    		if (reports[i] != null) {
+    			continue;
+    		}
+    		ReportWriter w = new ReportWriter();
+    		try {
+    			writeCounts(snap, counts[i], 0, w);
+    		} catch (IOException e) {
+    			// Only thrown by a target, and this writer has none
+    			throw new UncheckedIOException(e);
+    		}
+    		reports[i] = w.toString();
+    		cacheProfile(snap, starts[i], ends[i], 0, reports[i]);
+    	}
+    	return reports;
     }
     
     /**
@@ -143,99 +740,298 @@ public class SecurityLogManager {
      * @return the user report as a single string
      */
     public String getUserReport( String userID ) {
-    	// First, sort the logEntryList (if it hasn't been sorted already by user)
-    	if (!sorted) {
-    		logEntryList.sort(new UserComparator());
-    		sorted = true;
+    	LogSnapshot snap = snapshot;
+    	int user = snap.getDictionary().lookUp(userID);
+    	if (user >= 0) {
+    		String report = cache.getUserReport(user);
+    		if (report != null) {
+    			return report;
+    		}
+    	}
+    	ReportWriter w = new ReportWriter();
+    	try {
+    		writeUserReport(snap, userID, w);
+    	} catch (IOException e) {
+    		// Only thrown by a target, and this writer has none
+    		throw new UncheckedIOException(e);
+    	}
+    	String report = w.toString();
+    	if (user >= 0) {
+    		synchronized (cache) {
+    			if (snap == snapshot) {
+    				cache.putUserReport(user, report);
+    			}
+    		}
+    	}
+    	return report;
+    }
+    
+    /**
+     * Writes the user report to an Appendable, such as a Writer or a
+     * PrintStream, a few kilobytes at a time, so the report of a very active
+     * user is never held in memory at once. The text is the same as
+     * getUserReport(userID) returns.
+     * 
+     * @param userID the user name of the user to generate the report for
+     * @param out where the report is written
+     * 
+     * @throws IOException if out cannot be written to
+     */
+    public void getUserReport( String userID, Appendable out ) throws IOException {
+    	ReportWriter w = new ReportWriter(out);
+    	writeUserReport(snapshot, userID, w);
+    	w.flush();
+    }
+    
+    /**
+     * Writes the operational profile, or its first lines
+     * 
+     * @param snap the snapshot to read every row from
+     * @param startTime the start time
+     * @param endTime the end time
+     * @param k the number of lines to write, or 0 for every line
+     * @param w the writer
+     * 
+     * @throws IOException if the writer's target cannot be written to
+     */
+    private static void writeProfile( LogSnapshot snap, String startTime, String endTime, int k, ReportWriter w )
+    		throws IOException {
+    	// Count the action/resource pairs inside the interval, reading every row from
+    	// the snapshot published when the query started
+    	writeCounts(snap, countPairs(snap, startTime, endTime), k, w);
+    }
+    
+    /**
+     * Writes the operational profile of counted action/resource pairs, or its
+     * first lines
+     * 
+     * @param snap the snapshot the pairs were counted in
+     * @param counts the pair counts, or null if the interval is empty or outside the log
+     * @param k the number of lines to write, or 0 for every line
+     * @param w the writer
+     * 
+     * @throws IOException if the writer's target cannot be written to
+     */
+    private static void writeCounts( LogSnapshot snap, PairCounts counts, int k, ReportWriter w ) throws IOException {
+    	// 1. An interval with nothing to count has no activity
+    	if (counts == null) {
+    		w.append(NO_ACTIVITY);
+    		return;
     	}
     	
-    	/* Build output string */
-    	
-    	// Search for the user; first create a dummy entry with the given user
-    	LogEntry dummy = new LogEntry(userID, "01/01/2000 12:00:00AM", "action", "resource");
-    	int idx = logEntryList.contains(dummy, new UserOnlyComparator());
+    	ArrayList<LogEntry> out;
+    	if (k == 0) {
+    		// 2. Build an entry for each distinct pair, holding the pair's frequency
+    		out = new ArrayList<LogEntry>(Math.max(counts.size(), 1));
+    		for (int i = 0; i < counts.size(); i++) {
+    			out.add(pairEntry(snap, counts, i));
+    		}
+    		
+    		// 3. sort the arraylist using a comparator based on frequency, then action and resource
+    		out.sort(new ARComparator());
+    	} else {
+    		// 2. Keep the first k pairs in ARComparator order in a bounded heap. Once it
+    		//    is full, a pair less frequent than the last one kept cannot make it in,
+    		//    so no entry is built for it
+    		TopK<LogEntry> top = new TopK<LogEntry>(k, new ARComparator());
+    		for (int i = 0; i < counts.size(); i++) {
+    			if (top.isFull() && counts.getCount(i) < top.peek().getFrequency()) {
+    				continue;
+    			}
+    			top.offer(pairEntry(snap, counts, i));
+    		}
+    		out = top.toList();
+    	}
     	
-    	String startStr = new StringBuilder("Activity Report for ")
-    			.append(userID)
-    			.append("[\n")
-    			.toString();
-        String endStr = "]";
+    	// 4. Write a line for each entry with its frequency and percentage of the interval
+    	w.append("OperationalProfile[").endLine();
+    	for (int i = 0; i < out.size(); i++) {
+    		LogEntry curr = out.get(i);
+    		w.append("   ")
+    		 .append(curr.getAction())
+    		 .append(" ")
+    		 .append(curr.getResource())
+    		 .append(": frequency: ")
+    		 .append(curr.getFrequency())
+    		 .append(", percentage: ")
+    		 .appendPercent(curr.getFrequency(), counts.getTotal())
+    		 .endLine();
+    	}
+    	w.append("]");
+    }
+    
+    /**
+     * Writes the user report
+     * 
+     * @param snap the snapshot to read every row from
+     * @param userID the user name of the user to generate the report for
+     * @param w the writer
+     * 
+     * @throws IOException if the writer's target cannot be written to
+     */
+    private static void writeUserReport( LogSnapshot snap, String userID, ReportWriter w ) throws IOException {
+    	w.append("Activity Report for ").append(userID).append("[").endLine();
         
-        StringBuilder sb = new StringBuilder();
+        // Look the user up in the snapshot's dictionary; an unknown user has no activity
+        StringDictionary dictionary = snap.getDictionary();
+        int[] rows = snap.getUserRows(dictionary.lookUp(userID));
         
-        // If the user was not found by the binary search
-        if (idx == -1) {
-        	return sb.append(startStr)
-        			 .append("   No activity was recorded.\n")
-        			 .append(endStr)
-        			 .toString();
-        } else {
-        	// If the user was found, start by looping to the right of the index until
-        	// the indexed log entry has a different user. Append each of these to the
-        	// right of the central string
-//        	StringBuilder sbCurr = null;
-//        	StringBuilder sbPrev = new StringBuilder();
-        	
-        	sb.append(startStr);
-        	
-        	for (int i = 0; i < logEntryList.size(); i++) {
-        		LogEntry current = logEntryList.get(i);
-        		if (current.getUser().equals(userID)) {
-        			sb.append("   ")
-				      .append(current.getTimeStamp().getOriginalString())
-				      .append(" - ")
-				      .append(current.getAction())
-				      .append(" ")
-				      .append(current.getResource())
-				      .append("\n");
-        		}
-        	}
-//        	int i = idx;
-//        	LogEntry current = logEntryList.get(i);								
-//        	while (current.getUser().equals(userID)) {
-//        	     sbPrev.append("   ")
-//				  	   .append(current.getTimeStamp().getOriginalString())
-//				  	   .append(" - ")
-//				  	   .append(current.getAction())
-//				  	   .append(" ")
-//				  	   .append(current.getResource())
-//				  	   .append("\n");
-//        		i++;
-//        		// Break for out of bounds index
-//        		if (i == logEntryList.size()) {
-//        			break;
-//        		}
-//        		current = logEntryList.get(i);
-//        	}
-//        	
-//        	// Next, loop to the left until a different user is found, appending to
-//        	// the left of the above string
-//        	i = idx - 1;
-//        	current = logEntryList.get(i);
-//        	while (current.getUser().equals(userID)) {
-//        		sbCurr = new StringBuilder().append("   ")
-// 				  	   .append(current.getTimeStamp().getOriginalString())
-// 				  	   .append(" - ")
-// 				  	   .append(current.getAction())
-// 				  	   .append(" ")
-// 				  	   .append(current.getResource())
-// 				  	   .append("\n");
-//        		sbCurr.append(sbPrev.toString());
-//        		sbPrev = sbCurr;
-//        		i--;
-//        		// Break for out of bounds index
-//        		if (i == -1) {
-//        			break;
-//        		}
-//        		current = logEntryList.get(i);
-//        	}
-        	// Add the framing around the output
-//            sb.append(startStr).append(sbPrev.toString()).append(endStr);
-        	// Return the output
-        	sb.append(endStr);
-            return sb.toString();
+        // If the user has no rows
+        if (rows.length == 0) {
+        	w.append("   No activity was recorded.").endLine().append("]");
+        	return;
         }
         
+        // The user's rows are already ordered by time stamp, then action and resource
+        for (int row : rows) {
+        	w.append("   ")
+        	 .append(snap.getTimeStamp(row).getOriginalString())
+        	 .append(" - ")
+        	 .append(dictionary.get(snap.getAction(row)))
+        	 .append(" ")
+        	 .append(dictionary.get(snap.getResource(row)))
+        	 .endLine();
+        }
+        w.append("]");
+    }
+    
+    /**
+     * Counts the action/resource pairs of the entries in a time interval
+     * 
+     * @param snap the snapshot to count
+     * @param startTime the start time
+     * @param endTime the end time
+     * 
+     * @return the counts, or null if the interval is empty or outside the log
+     */
+    private static PairCounts countPairs( LogSnapshot snap, String startTime, String endTime ) {
+        // 1. Validate the startTime and endTime by comparing them to
+    	//    the min and max time stored when the input file was read in
+    	long start = TimeStamp.parse(startTime, 0);
+    	long end = TimeStamp.parse(endTime, 0);
+    	if (!inLog(snap, start, end)) {
+    		return null;
+    	}
+    	
+    	// 2. Count the action/resource pairs inside the interval, skipping the days outside
+    	//    it and using whole days, hours and minutes where they fit and single rows at
+    	//    the edges. The counts belong to this query alone
+    	PairCounts counts = new PairCounts();
+    	snap.aggregate(start, end, counts);
+    	return counts;
+    }
+    
+    /**
+     * Checks that an interval is not empty and overlaps the time range of the log
+     * 
+     * @param snap the snapshot
+     * @param start the packed start time
+     * @param end the packed end time
+     * 
+     * @return true if the interval has entries to count
+     */
+    private static boolean inLog( LogSnapshot snap, long start, long end ) {
+    	// 1a. startTime must be less than endTime
+    	// 1b. startTime must be less than the max time stamp read in
+    	// 1c. endTime must be greater than the min time stamp read in
+    	return start < end && start < snap.getMaxTime() && end > snap.getMinTime();
+    }
+    
+    /**
+     * Counts the action/resource pairs of many time intervals in one pass. The
+     * interval start times and the times just after the interval end times cut
+     * the log into pieces; each piece some interval covers is counted once,
+     * using the same day, hour and minute totals as a single interval. An
+     * interval that is a single piece shares that piece's counts, and a longer
+     * one adds up the counts of its pieces.
+     * 
+     * @param snap the snapshot to count
+     * @param starts the packed start time of each interval
+     * @param ends the packed end time of each interval
+     * @param done the report already found for each interval, or null for each interval to count
+     * 
+     * @return the counts of each interval, null if it was found already, is empty or is outside the log
+     */
+    private static PairCounts[] countWindows( LogSnapshot snap, long[] starts, long[] ends, String[] done ) {
+    	PairCounts[] counts = new PairCounts[starts.length];
+    	
+    	// 1. Collect the distinct cut times of the intervals to count
+    	long[] cuts = new long[2 * starts.length];
+    	int m = 0;
+    	for (int i = 0; i < starts.length; i++) {
+    		if (done[i] == null && inLog(snap, starts[i], ends[i])) {
+    			cuts[m++] = starts[i];
+    			cuts[m++] = ends[i] + 1;
+    		}
+    	}
+    	if (m == 0) {
+    		return counts;
+    	}
+    	Arrays.sort(cuts, 0, m);
+    	int c = 1;
+    	for (int j = 1; j < m; j++) {
+    		if (cuts[j] != cuts[c - 1]) {
+    			cuts[c++] = cuts[j];
+    		}
+    	}
+    	
+    	// 2. Mark the pieces that some interval covers, adding one where an interval
+    	//    starts and taking one away where it ends
+    	int[] depth = new int[c];
+    	for (int i = 0; i < starts.length; i++) {
+    		if (done[i] == null && inLog(snap, starts[i], ends[i])) {
+    			depth[Arrays.binarySearch(cuts, 0, c, starts[i])]++;
+    			depth[Arrays.binarySearch(cuts, 0, c, ends[i] + 1)]--;
+    		}
+    	}
+    	
+    	// 3. Count each covered piece [cuts[j], cuts[j + 1] - 1] once
+    	PairCounts[] pieces = new PairCounts[c - 1];
+    	int covering = 0;
+    	for (int j = 0; j < c - 1; j++) {
+    		covering += depth[j];
+    		if (covering > 0) {
+    			pieces[j] = new PairCounts();
+    			snap.aggregate(cuts[j], cuts[j + 1] - 1, pieces[j]);
+    		}
+    	}
+    	
+    	// 4. Give each interval the counts of its pieces
+    	for (int i = 0; i < starts.length; i++) {
+    		if (done[i] != null || !inLog(snap, starts[i], ends[i])) {
+    			continue;
+    		}
+    		int first = Arrays.binarySearch(cuts, 0, c, starts[i]);
+    		int last = Arrays.binarySearch(cuts, 0, c, ends[i] + 1);
+    		if (last == first + 1) {
+    			counts[i] = pieces[first];
+    			continue;
+    		}
+    		counts[i] = new PairCounts();
+    		for (int j = first; j < last; j++) {
+    			PairCounts piece = pieces[j];
+    			for (int p = 0; p < piece.size(); p++) {
+    				counts[i].add(piece.getKey(p), piece.getRow(p), piece.getCount(p));
+    			}
+    		}
+    	}
+    	return counts;
+    }
+    
+    /**
+     * Builds an entry for a counted action/resource pair
+     * 
+     * @param snap the snapshot the pair was counted in
+     * @param counts the pair counts
+     * @param i the index of the pair
+     * 
+     * @return a new entry with the pair's action and resource, whose frequency is the pair's count
+     */
+    private static LogEntry pairEntry( LogSnapshot snap, PairCounts counts, int i ) {
+    	LogEntry curr = snap.getEntry(counts.getRow(i));
+    	// A new entry starts with a frequency of 1
+    	curr.addFrequency(counts.getCount(i) - 1);
+    	return curr;
     }
     
 }
@@ -0,0 +1,243 @@
+package edu.ncsu.csc316.security_log.manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+import edu.ncsu.csc316.security_log.data.LogSegment;
+import edu.ncsu.csc316.security_log.data.LogSnapshot;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.PairRanking;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+import edu.ncsu.csc316.security_log.data.TimeIndex;
+import edu.ncsu.csc316.security_log.data.TimeStamp;
+
+/**
+ * The operational profile of the last few minutes of a log, kept up to date
+ * as the window slides and entries are appended, for live monitoring. Each
+ * refresh gives the same text as generateOperationalProfile(start, end) for
+ * the window ending at the chosen time, or the first lines of it.
+ *
+ * The profile counts the action/resource pair of every entry inside the
+ * window in a PairRanking, which keeps the pairs in ARComparator order.
+ * Sliding the window adds the entries it reaches and takes away the entries
+ * it leaves behind, reading just those from the time index of each segment
+ * of their days, which are found by binary search; an appended entry inside
+ * the window is added as soon as it is appended. A refresh therefore costs
+ * O(log n) for each entry that entered or left the window since the last
+ * one, plus the lines it writes, whichever way the window moves.
+ *
+ * A profile is opened by SecurityLogManager.openSlidingProfile() and gets
+ * every batch the manager appends, with the snapshot it was published in,
+ * until it is closed. Dropping entries counts the window again from the new
+ * snapshot. Every method is synchronized.
+ *
+ * @author Noah Benveniste
+ */
+public class SlidingProfile implements Closeable {
+
+	/** The manager whose entries are profiled */
+	private final SecurityLogManager manager;
+	/** The length of the window in minutes */
+	private final int minutes;
+	/** The number of lines to write, or 0 for every line */
+	private final int k;
+	/** The snapshot holding every entry the profile has taken in */
+	private LogSnapshot snap;
+	/** The counts of the pairs of the snapshot's entries inside the window */
+	private PairRanking ranking;
+	/** The packed start time of the window, inclusive */
+	private long start;
+	/** The packed end time of the window, inclusive */
+	private long end;
+
+	/**
+	 * Constructs a profile of the window ending at the latest entry of a snapshot
+	 *
+	 * @param manager the manager whose entries are profiled
+	 * @param snap the manager's current snapshot
+	 * @param minutes the length of the window in minutes
+	 * @param k the number of lines to write, or 0 for every line
+	 */
+	SlidingProfile( SecurityLogManager manager, LogSnapshot snap, int minutes, int k ) {
+		this.manager = manager;
+		this.minutes = minutes;
+		this.k = k;
+		this.snap = snap;
+		this.ranking = new PairRanking(snap.getDictionary());
+		this.end = snap.getMaxTime();
+		this.start = snap.size() == 0 ? end : minus(end, minutes);
+		count(start, end, 1);
+	}
+
+	/**
+	 * Counts the window again from a snapshot the manager published with
+	 * entries dropped
+	 *
+	 * @param next the snapshot
+	 */
+	synchronized void reset( LogSnapshot next ) {
+		snap = next;
+		ranking.clear();
+		count(start, end, 1);
+	}
+
+	/**
+	 * Takes in a batch the manager appended, counting its entries inside the window
+	 *
+	 * @param batch the appended rows
+	 * @param next the snapshot the manager published with the batch added
+	 */
+	synchronized void append( LogStore batch, LogSnapshot next ) {
+		snap = next;
+		for (int row = 0; row < batch.size(); row++) {
+			long time = batch.getTime(row);
+			if (start <= time && time <= end) {
+				ranking.add(batch.getAction(row), batch.getResource(row), 1);
+			}
+		}
+	}
+
+	/**
+	 * Changes the counts of the pairs of the snapshot's entries in an interval
+	 *
+	 * @param from the packed start time, inclusive
+	 * @param to the packed end time, inclusive
+	 * @param delta 1 to add the entries or -1 to take them away
+	 */
+	private void count( long from, long to, int delta ) {
+		if (from > to) {
+			return;
+		}
+		// Only the segments of the days from "from" to "to" can hold any
+		int endSegment = snap.getSegmentEnd(to);
+		for (int i = snap.getSegmentStart(from); i < endSegment; i++) {
+			LogSegment s = snap.getSegment(i);
+			if (s.getMaxTime() < from || s.getMinTime() > to) {
+				continue;
+			}
+			LogStore store = s.getStore();
+			TimeIndex index = s.getTimeIndex();
+			int last = index.upperBound(to);
+			for (int pos = index.lowerBound(from); pos < last; pos++) {
+				int row = index.getRow(pos);
+				ranking.add(store.getAction(row), store.getResource(row), delta);
+			}
+		}
+	}
+
+	/**
+	 * Slides the window to end at the latest entry and writes its profile
+	 *
+	 * @return the operational profile of the window as a single string
+	 */
+	public synchronized String refresh() {
+		return refresh(snap.getMaxTime());
+	}
+
+	/**
+	 * Slides the window to end at a time stamp and writes its profile
+	 *
+	 * @param endTime the end of the window, as mm/dd/yyyy hh:mm:ssXX, read as
+	 *        leniently as generateOperationalProfile() reads it
+	 *
+	 * @return the operational profile of the window as a single string
+	 *
+	 * @throws IllegalArgumentException if the time stamp is too short or a digit is expected but not found
+	 */
+	public synchronized String refresh( String endTime ) {
+		return refresh(TimeStamp.parse(endTime, 0));
+	}
+
+	/**
+	 * Slides the window to end at a packed time and writes its profile
+	 *
+	 * @param endTime the packed end time
+	 *
+	 * @return the operational profile of the window as a single string
+	 */
+	private String refresh( long endTime ) {
+		if (snap.size() == 0) {
+			return SecurityLogManager.NO_ACTIVITY;
+		}
+		long newStart = minus(endTime, minutes);
+		if (newStart > end || endTime < start) {
+			// The windows do not overlap, so nothing counted can be kept
+			ranking.clear();
+			count(newStart, endTime, 1);
+		} else {
+			// Add the entries the window reached and take away the ones it left, at each end
+			count(newStart, start - 1, 1);
+			count(start, newStart - 1, -1);
+			count(end + 1, endTime, 1);
+			count(endTime + 1, end, -1);
+		}
+		start = newStart;
+		end = endTime;
+		return write();
+	}
+
+	/**
+	 * Writes the profile of the window, following the checks of
+	 * generateOperationalProfile()
+	 *
+	 * @return the operational profile as a single string
+	 */
+	private String write() {
+		if (start >= snap.getMaxTime() || end <= snap.getMinTime()) {
+			return SecurityLogManager.NO_ACTIVITY;
+		}
+		StringDictionary dictionary = snap.getDictionary();
+		ReportWriter w = new ReportWriter();
+		try {
+			w.append("OperationalProfile[").endLine();
+			for (long key : ranking.top(k)) {
+				int count = ranking.getCount(key);
+				w.append("   ")
+				 .append(dictionary.get((int) (key >>> 32)))
+				 .append(" ")
+				 .append(dictionary.get((int) key))
+				 .append(": frequency: ")
+				 .append(count)
+				 .append(", percentage: ")
+				 .appendPercent(count, ranking.getTotal())
+				 .endLine();
+			}
+			w.append("]");
+		} catch (IOException e) {
+			// Only thrown by a target, and this writer has none
+			throw new UncheckedIOException(e);
+		}
+		return w.toString();
+	}
+
+	/**
+	 * Stops the profile from getting the manager's appends
+	 */
+	@Override
+	public void close() {
+		manager.closeSlidingProfile(this);
+	}
+
+	/**
+	 * Takes minutes away from a packed time stamp
+	 *
+	 * @param time the packed time stamp
+	 * @param minutes the number of minutes
+	 *
+	 * @return the packed time stamp that many minutes earlier
+	 */
+	private static long minus( long time, int minutes ) {
+		// Built up leniently, since time stamps are not checked to be real dates
+		long day = time / 1000000L;
+		long clock = time % 1000000L;
+		LocalDateTime t = LocalDateTime.of((int) (day / 10000), 1, 1, 0, 0)
+				.plusMonths(day / 100 % 100 - 1).plusDays(day % 100 - 1)
+				.plusHours(clock / 10000).plusMinutes(clock / 100 % 100).plusSeconds(clock % 100)
+				.minusMinutes(minutes);
+		return ((t.getYear() * 100L + t.getMonthValue()) * 100 + t.getDayOfMonth()) * 1000000L
+				+ t.getHour() * 10000 + t.getMinute() * 100 + t.getSecond();
+	}
+
+}
@@ -1,5 +1,6 @@
 package edu.ncsu.csc316.security_log.ui;
 
+import java.io.IOException;
 import java.util.Scanner;
 
 import edu.ncsu.csc316.security_log.manager.SecurityLogManager;
@@ -16,8 +17,9 @@ public class SecurityLogUI {
      * choose to generate an operational profile over a time interval, generate a user
      * activity report for a given user, or quit the program.
      * @param args NONE
+     * @throws IOException if the reports cannot be written to standard output
      */
-    public static void main( String[] args ) {
+    public static void main( String[] args ) throws IOException {
         System.out.print("Enter file name: ");
         Scanner s = new Scanner(System.in);
         SecurityLogManager manager = new SecurityLogManager(s.next());
@@ -34,11 +36,13 @@ public class SecurityLogUI {
                 System.out.print("\nEnter end date/time (e.g. 01/01/2000 12:00:00AM): ");
                 String endDate = s.next();
                 String endTime = s.next();
-                System.out.println(manager.generateOperationalProfile(startDate + " " + startTime, endDate + " " + endTime));
+                manager.generateOperationalProfile(startDate + " " + startTime, endDate + " " + endTime, System.out);
+                System.out.println();
             } else if (ans.equals("u")) {
                 System.out.print("\nEnter user name: ");
                 String userName = s.next();
-                System.out.println(manager.getUserReport(userName));
+                manager.getUserReport(userName, System.out);
+                System.out.println();
             }
         }
         s.close();
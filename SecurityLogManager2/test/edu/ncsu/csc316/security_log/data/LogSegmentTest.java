@@ -0,0 +1,49 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for LogSegment
+ *
+ * @author Noah Benveniste
+ */
+public class LogSegmentTest {
+
+	/**
+	 * Tests that a segment indexes every row of its store
+	 */
+	@Test
+	public void testSegment() {
+		StringDictionary d = new StringDictionary();
+		LogStore store = new LogStore(d, 4);
+		store.add(new LogEntry(d, "fzalcala", "04/26/2017 12:33:15PM", "sort", "ICD-9 Code 196"));
+		store.add(new LogEntry(d, "quhundley", "05/04/2015 02:09:40PM", "resolve", "message M2964"));
+		store.add(new LogEntry(d, "fzalcala", "05/04/2015 02:09:40PM", "sort", "ICD-9 Code 196"));
+
+		LogSegment segment = new LogSegment(store);
+		assertSame(store, segment.getStore());
+		assertEquals(3, segment.size());
+		assertEquals(20150504140940L, segment.getMinTime());
+		assertEquals(20170426123315L, segment.getMaxTime());
+		assertEquals(3, segment.getTimeIndex().size());
+		assertEquals(1, segment.getTimeIndex().getRow(0));
+		assertEquals(2, segment.getTimeIndex().getRow(1));
+
+		int user = d.lookUp("fzalcala");
+		UserIndex users = segment.getUserIndex();
+		assertEquals(2, users.getEnd(user) - users.getStart(user));
+		assertEquals(2, users.getRow(users.getStart(user)));
+
+		PairCounts counts = new PairCounts();
+		assertEquals(3, segment.getRollup().aggregate(segment.getMinTime(), segment.getMaxTime(), counts));
+		assertEquals(2, counts.size());
+		assertEquals(3, counts.getTotal());
+
+		LogSegment empty = new LogSegment(new LogStore(new StringDictionary(), 1));
+		assertEquals(0, empty.size());
+		assertEquals(0, empty.getMinTime());
+	}
+
+}
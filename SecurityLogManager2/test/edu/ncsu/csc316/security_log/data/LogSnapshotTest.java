@@ -0,0 +1,196 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for LogSnapshot
+ *
+ * @author Noah Benveniste
+ */
+public class LogSnapshotTest {
+
+	/**
+	 * Builds a batch of random rows
+	 *
+	 * @param d the dictionary
+	 * @param r the random number generator
+	 * @param n the number of rows
+	 *
+	 * @return the batch
+	 */
+	private static LogStore batch( StringDictionary d, Random r, int n ) {
+		LogStore store = new LogStore(d, n);
+		for (int i = 0; i < n; i++) {
+			long time = 20150101000000L + r.nextInt(3) * 100000000L + r.nextInt(24) * 10000L + r.nextInt(3) * 100L;
+			store.add(time, null, d.intern("user" + r.nextInt(8)), d.intern("action" + r.nextInt(3)),
+					d.intern("resource" + r.nextInt(4)));
+		}
+		return store;
+	}
+
+	/**
+	 * Tests that appended batches give the same answers as one store of every
+	 * row, while the number of segments of each of the three days stays logarithmic
+	 */
+	@Test
+	public void testAppend() {
+		Random r = new Random(316);
+		StringDictionary d = new StringDictionary();
+		LogSnapshot snapshot = new LogSnapshot(d);
+		assertEquals(0, snapshot.size());
+		assertEquals(0, snapshot.getSegmentCount());
+		assertEquals(0, snapshot.getMinTime());
+
+		LogStore all = new LogStore(d, 1);
+		for (int b = 0; b < 40; b++) {
+			LogStore batch = batch(d, r, 1 + r.nextInt(50));
+			all.addAll(batch);
+			LogSnapshot previous = snapshot;
+			snapshot = snapshot.append(batch);
+			assertNotSame(previous, snapshot);
+			assertEquals(all.size(), snapshot.size());
+			assertTrue(snapshot.getSegmentCount() <= 3 * (1 + 32 - Integer.numberOfLeadingZeros(snapshot.size())));
+			for (int i = 0; i < snapshot.getSegmentCount(); i++) {
+				LogSegment s = snapshot.getSegment(i);
+				assertEquals(s.getMinTime() / 1000000, s.getMaxTime() / 1000000);
+			}
+		}
+		assertSame(snapshot, snapshot.append(new LogStore(d, 1)));
+		assertEquals(all.getMinTime(), snapshot.getMinTime());
+		assertEquals(all.getMaxTime(), snapshot.getMaxTime());
+
+		// Every row of the merged segments is kept, by day and then in append order
+		int i = 0;
+		for (long day = 20150101L; day <= 20150301L; day += 100) {
+			for (int row = 0; row < all.size(); row++) {
+				if (all.getTime(row) / 1000000 == day) {
+					assertEquals(all.getAction(row), snapshot.getAction(i));
+					assertEquals(all.getResource(row), snapshot.getResource(i));
+					assertEquals(all.getTimeStamp(row).getVal(), snapshot.getTimeStamp(i).getVal());
+					i++;
+				}
+			}
+		}
+		assertEquals(all.size(), i);
+
+		// The same pairs and counts as one segment of every row
+		LogSegment whole = new LogSegment(all);
+		PairCounts expected = new PairCounts();
+		PairCounts actual = new PairCounts();
+		long start = 20150101060000L;
+		long end = 20150102120000L;
+		assertEquals(whole.getRollup().aggregate(start, end, expected), snapshot.aggregate(start, end, actual));
+		assertEquals(expected.size(), actual.size());
+		for (i = 0; i < actual.size(); i++) {
+			int row = actual.getRow(i);
+			LogEntry e = snapshot.getEntry(row);
+			assertEquals(PairCounts.key(e.getActionId(), e.getResourceId()), actual.getKey(i));
+		}
+
+		// The same user rows in the same order, up to ties
+		for (int u = 0; u < 8; u++) {
+			int user = d.lookUp("user" + u);
+			int[] rows = snapshot.getUserRows(user);
+			UserIndex index = whole.getUserIndex();
+			assertEquals(index.getEnd(user) - index.getStart(user), rows.length);
+			for (i = 0; i < rows.length; i++) {
+				int row = index.getRow(index.getStart(user) + i);
+				assertEquals(all.getTime(row), snapshot.getTimeStamp(rows[i]).getVal());
+				assertEquals(all.getAction(row), snapshot.getAction(rows[i]));
+				assertEquals(all.getResource(row), snapshot.getResource(rows[i]));
+			}
+		}
+		assertEquals(0, snapshot.getUserRows(-1).length);
+	}
+
+	/**
+	 * Tests that whole days are skipped, counted from their totals or dropped
+	 */
+	@Test
+	public void testPartitions() {
+		Random r = new Random(217);
+		StringDictionary d = new StringDictionary();
+		LogStore all = batch(d, r, 500);
+		LogSnapshot snapshot = new LogSnapshot(all);
+		assertEquals(3, snapshot.getSegmentCount());
+		LogSegment whole = new LogSegment(all);
+
+		// Intervals that cover some days fully, some in part and some not at all
+		long[][] intervals = {{20141231000000L, 20150304000000L}, {20150201000000L, 20150201235959L},
+				{20150101013000L, 20150201000100L}, {20150304000000L, 20150305000000L},
+				{20150101000000L, 20150101000000L}};
+		for (long[] interval : intervals) {
+			PairCounts expected = new PairCounts();
+			PairCounts actual = new PairCounts();
+			assertEquals(whole.getRollup().aggregate(interval[0], interval[1], expected),
+					snapshot.aggregate(interval[0], interval[1], actual));
+			assertEquals(expected.size(), actual.size());
+			assertEquals(expected.getTotal(), actual.getTotal());
+		}
+
+		// The segments of the days of an interval
+		assertEquals(0, snapshot.getSegmentStart(20141231235959L));
+		assertEquals(1, snapshot.getSegmentStart(20150201235959L));
+		assertEquals(2, snapshot.getSegmentStart(20150202000000L));
+		assertEquals(0, snapshot.getSegmentEnd(20141231235959L));
+		assertEquals(2, snapshot.getSegmentEnd(20150201000000L));
+		assertEquals(2, snapshot.getSegmentEnd(20150228235959L));
+		assertEquals(3, snapshot.getSegmentEnd(20160101000000L));
+
+		// Days before the cutoff's day are dropped; its own day is kept
+		LogSnapshot dropped = snapshot.dropBefore(20150201120000L);
+		assertEquals(2, dropped.getSegmentCount());
+		assertSame(snapshot.getSegment(1), dropped.getSegment(0));
+		assertEquals(snapshot.size() - snapshot.getSegment(0).size(), dropped.size());
+		assertEquals(snapshot.getSegment(1).getMinTime(), dropped.getMinTime());
+		assertSame(snapshot, snapshot.dropBefore(20150101235959L));
+		assertEquals(0, snapshot.dropBefore(20160101000000L).size());
+
+		// The latest day is March 1st, 2015
+		assertSame(snapshot, snapshot.retainDays(60));
+		assertEquals(2, snapshot.retainDays(59).getSegmentCount());
+		assertEquals(2, snapshot.retainDays(29).getSegmentCount());
+		assertEquals(1, snapshot.retainDays(28).getSegmentCount());
+		assertEquals(1, snapshot.retainDays(1).getSegmentCount());
+		try {
+			snapshot.retainDays(0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Must keep at least one day", e.getMessage());
+		}
+
+		// Counting back crosses months and years
+		LogStore edges = new LogStore(d, 2);
+		edges.add(20151231120000L, null, 0, 1, 2);
+		edges.add(20160301000000L, null, 0, 1, 2);
+		LogSnapshot leap = new LogSnapshot(edges);
+		assertEquals(2, leap.retainDays(62).size());
+		assertEquals(1, leap.retainDays(61).size());
+	}
+
+	/**
+	 * Tests that a batch must share the snapshot's dictionary and that rows
+	 * outside the snapshot are rejected
+	 */
+	@Test
+	public void testInvalid() {
+		LogSnapshot snapshot = new LogSnapshot(new StringDictionary());
+		try {
+			snapshot.append(new LogStore(new StringDictionary(), 1));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Stores must share a dictionary", e.getMessage());
+		}
+		try {
+			snapshot.getEntry(0);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("Index is outside the acceptable range", e.getMessage());
+		}
+	}
+
+}
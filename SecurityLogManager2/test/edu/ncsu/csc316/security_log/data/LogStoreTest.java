@@ -0,0 +1,143 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for LogStore and LogCursor
+ *
+ * @author Noah Benveniste
+ */
+public class LogStoreTest {
+
+	/**
+	 * Tests adding rows and reading them back by column, by cursor and as entries
+	 */
+	@Test
+	public void testAdd() {
+		StringDictionary d = new StringDictionary();
+		LogStore store = new LogStore(d, 1);
+		assertEquals(0, store.size());
+		assertEquals(0, store.getMinTime());
+
+		int user = d.intern("fzalcala");
+		int action = d.intern("sort");
+		int resource = d.intern("ICD-9 Code 196");
+		store.add(20170426123315L, null, user, action, resource);
+		store.add(20150504140940L, null, user, action, resource);
+		store.add(new LogEntry("quhundley", "12/02/2017 00:14:58PM", "resolve", "message M2964"));
+		assertEquals(3, store.size());
+		assertEquals(20150504140940L, store.getMinTime());
+		assertEquals(20171202121458L, store.getMaxTime());
+
+		// Strings from an entry with another dictionary are interned in this one
+		assertEquals(d.lookUp("quhundley"), store.getUser(2));
+		assertEquals(d.lookUp("message M2964"), store.getResource(2));
+
+		// Time stamps that format() does not reproduce keep their original text
+		assertEquals("04/26/2017 12:33:15PM", store.getTimeStamp(0).getOriginalString());
+		assertEquals("12/02/2017 00:14:58PM", store.getTimeStamp(2).getOriginalString());
+
+		LogEntry e = store.getEntry(2);
+		assertEquals("quhundley", e.getUser());
+		assertEquals("resolve", e.getAction());
+		assertEquals("message M2964", e.getResource());
+
+		LogCursor c = store.cursor(1, 3);
+		assertTrue(c.next());
+		assertEquals(1, c.row());
+		assertEquals(20150504140940L, c.time());
+		assertEquals(action, c.action());
+		assertTrue(c.next());
+		assertEquals("quhundley", c.entry().getUser());
+		assertFalse(c.next());
+		assertFalse(c.next());
+
+		try {
+			store.getEntry(3);
+			fail();
+		} catch (IndexOutOfBoundsException ex) {
+			assertEquals("Index is outside the acceptable range", ex.getMessage());
+		}
+	}
+
+	/**
+	 * Tests appending one store to another
+	 */
+	@Test
+	public void testAddAll() {
+		StringDictionary d = new StringDictionary();
+		LogStore a = new LogStore(d);
+		LogStore b = new LogStore(d);
+		int user = d.intern("fzalcala");
+		a.add(20170426123315L, null, user, user, user);
+		b.add(20171202121458L, "12/02/2017 00:14:58PM", user, user, user);
+		b.add(20150504140940L, null, user, user, user);
+		a.addAll(b);
+		a.addAll(new LogStore(d));
+
+		assertEquals(3, a.size());
+		assertEquals(20150504140940L, a.getMinTime());
+		assertEquals(20171202121458L, a.getMaxTime());
+		assertEquals("12/02/2017 00:14:58PM", a.getTimeStamp(1).getOriginalString());
+		assertEquals("05/04/2015 02:09:40PM", a.getTimeStamp(2).getOriginalString());
+
+		try {
+			a.addAll(new LogStore(new StringDictionary()));
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Stores must share a dictionary", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests building a store on columns it keeps, then appending to it
+	 */
+	@Test
+	public void testColumns() {
+		StringDictionary d = new StringDictionary();
+		int user = d.intern("fzalcala");
+		int action = d.intern("view");
+		long[] times = {20171202121458L, 20150504140940L};
+		LogStore store = new LogStore(d, times, new int[] {user, user}, new int[] {action, action},
+				new int[] {user, action}, new int[] {0}, new String[] {"12/02/2017 00:14:58PM"});
+		assertEquals(2, store.size());
+		assertEquals(20150504140940L, store.getMinTime());
+		assertEquals(20171202121458L, store.getMaxTime());
+		assertEquals(action, store.getResource(1));
+		assertEquals("12/02/2017 00:14:58PM", store.getTimeStamp(0).getOriginalString());
+
+		// The columns grow past the arrays it was given
+		store.add(20180101000000L, "01/01/2018 00:00:00AM", user, user, user);
+		assertEquals(3, store.size());
+		assertEquals(20180101000000L, store.getMaxTime());
+		assertEquals(2, store.getRawTimeCount());
+		assertEquals("01/01/2018 00:00:00AM", store.getTimeStamp(2).getOriginalString());
+
+		LogStore empty = new LogStore(d, new long[0], new int[0], new int[0], new int[0], new int[0], new String[0]);
+		assertEquals(0, empty.size());
+		empty.add(20150504140940L, null, user, user, user);
+		assertEquals(20150504140940L, empty.getMinTime());
+
+		try {
+			new LogStore(d, times, new int[1], new int[2], new int[2], new int[0], new String[0]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Columns must have the same length", e.getMessage());
+		}
+		try {
+			new LogStore(d, times, new int[2], new int[2], new int[2], new int[] {0}, new String[0]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Each kept time stamp must have a row", e.getMessage());
+		}
+		try {
+			new LogStore(d, times, new int[2], new int[2], new int[2], new int[] {2}, new String[] {"x"});
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Kept time stamp rows must be ascending rows of the store", e.getMessage());
+		}
+	}
+
+}
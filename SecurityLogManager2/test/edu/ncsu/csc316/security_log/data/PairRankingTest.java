@@ -0,0 +1,108 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.comparator.ARComparator;
+import edu.ncsu.csc316.security_log.list.ArrayList;
+
+/**
+ * Tests for PairRanking
+ *
+ * @author Noah Benveniste
+ */
+public class PairRankingTest {
+
+	/**
+	 * Tests that the ranking follows ARComparator order as counts go up and
+	 * down at random, including pairs that fall to zero and come back
+	 */
+	@Test
+	public void testRanking() {
+		StringDictionary d = new StringDictionary();
+		String[] names = {"view", "sort", "merge", "delete", "import", "resolve", "a", "b", "c", "zz"};
+		for (String name : names) {
+			d.intern(name);
+		}
+		PairRanking ranking = new PairRanking(d);
+		int[][] counts = new int[names.length][names.length];
+		int total = 0;
+		Random r = new Random(316);
+		for (int step = 0; step < 20000; step++) {
+			int a = r.nextInt(names.length);
+			int b = r.nextInt(names.length);
+			// Lean towards taking counts away so pairs often reach zero
+			int delta = counts[a][b] > 0 && r.nextInt(5) < 3 ? -r.nextInt(counts[a][b]) - 1 : r.nextInt(3) + 1;
+			ranking.add(a, b, delta);
+			counts[a][b] += delta;
+			total += delta;
+			if (step % 500 == 0) {
+				checkRanking(d, ranking, counts, total);
+			}
+		}
+		checkRanking(d, ranking, counts, total);
+
+		// Taking every count away leaves an empty ranking
+		for (int a = 0; a < names.length; a++) {
+			for (int b = 0; b < names.length; b++) {
+				ranking.add(a, b, -counts[a][b]);
+				counts[a][b] = 0;
+			}
+		}
+		assertEquals(0, ranking.size());
+		assertEquals(0, ranking.getTotal());
+		assertEquals(0, ranking.top(0).length);
+
+		try {
+			ranking.add(0, 0, -1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Count cannot be negative", e.getMessage());
+		}
+		ranking.add(1, 2, 4);
+		ranking.clear();
+		assertEquals(0, ranking.getCount(PairCounts.key(1, 2)));
+	}
+
+	/**
+	 * Checks a ranking against counts sorted by ARComparator
+	 *
+	 * @param d the dictionary
+	 * @param ranking the ranking
+	 * @param counts the count of each action and resource id
+	 * @param total the sum of the counts
+	 */
+	private static void checkRanking( StringDictionary d, PairRanking ranking, int[][] counts, int total ) {
+		ArrayList<LogEntry> entries = new ArrayList<LogEntry>();
+		for (int a = 0; a < counts.length; a++) {
+			for (int b = 0; b < counts.length; b++) {
+				if (counts[a][b] > 0) {
+					LogEntry e = new LogEntry(d, "user", "01/01/2015 12:00:00AM", d.get(a), d.get(b));
+					e.addFrequency(counts[a][b] - 1);
+					entries.add(e);
+				}
+			}
+		}
+		entries.sort(new ARComparator());
+		assertEquals(entries.size(), ranking.size());
+		assertEquals(total, ranking.getTotal());
+
+		long[] all = ranking.top(0);
+		assertEquals(entries.size(), all.length);
+		for (int i = 0; i < all.length; i++) {
+			LogEntry e = entries.get(i);
+			assertEquals(e.getAction(), d.get((int) (all[i] >>> 32)));
+			assertEquals(e.getResource(), d.get((int) all[i]));
+			assertEquals(e.getFrequency(), ranking.getCount(all[i]));
+		}
+		long[] top = ranking.top(3);
+		assertEquals(Math.min(3, all.length), top.length);
+		for (int i = 0; i < top.length; i++) {
+			assertEquals(all[i], top[i]);
+		}
+	}
+
+}
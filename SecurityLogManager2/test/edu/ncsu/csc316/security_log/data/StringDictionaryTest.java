@@ -0,0 +1,85 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests for StringDictionary
+ *
+ * @author Noah Benveniste
+ */
+public class StringDictionaryTest {
+
+	/**
+	 * Tests interning strings and byte ranges
+	 */
+	@Test
+	public void testIntern() {
+		StringDictionary d = new StringDictionary();
+		assertEquals(0, d.intern("fzalcala"));
+		assertEquals(1, d.intern("sort"));
+		assertEquals(0, d.intern("fzalcala"));
+
+		byte[] b = "quhundley, sort, ICD-9 Code 196".getBytes(StandardCharsets.UTF_8);
+		assertEquals(2, d.intern(b, 0, 9));
+		assertEquals(1, d.intern(b, 11, 4));
+		assertEquals(3, d.intern(b, 17, 14));
+		assertEquals(4, d.size());
+
+		assertEquals("quhundley", d.get(2));
+		assertEquals("ICD-9 Code 196", d.get(3));
+		assertEquals("ICD-9 Code 196".hashCode(), d.hashCode(3));
+		assertEquals(3, d.lookUp("ICD-9 Code 196"));
+		assertEquals(-1, d.lookUp("nobody"));
+
+		// Grow well past the initial capacity
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(4 + i, d.intern("user" + i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(4 + i, d.lookUp("user" + i));
+		}
+		assertEquals(0, d.intern("fzalcala"));
+	}
+
+	/**
+	 * Tests comparing strings by id
+	 */
+	@Test
+	public void testCompare() {
+		StringDictionary d = new StringDictionary();
+		int b = d.intern("b");
+		int a = d.intern("a");
+		assertEquals(0, d.compare(a, a));
+		assertTrue(d.compare(a, b) < 0);
+		assertTrue(d.compare(b, a) > 0);
+	}
+
+	/**
+	 * Tests ranking ids alphabetically, including after new strings are added
+	 */
+	@Test
+	public void testRank() {
+		StringDictionary d = new StringDictionary();
+		int c = d.intern("c");
+		int a = d.intern("a");
+		assertEquals(1, d.rank(c));
+		assertEquals(0, d.rank(a));
+
+		int b = d.intern("b");
+		assertEquals(0, d.rank(a));
+		assertEquals(1, d.rank(b));
+		assertEquals(2, d.rank(c));
+
+		// An array already handed out keeps its positions after more strings are added
+		int[] ranks = d.ranks();
+		d.intern("0");
+		assertArrayEquals(new int[] {2, 0, 1}, ranks);
+		assertEquals(3, d.rank(c));
+		assertEquals(4, d.ranks().length);
+	}
+
+}
@@ -0,0 +1,47 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for TimeIndex
+ *
+ * @author Noah Benveniste
+ */
+public class TimeIndexTest {
+
+	/**
+	 * Tests ordering rows by time stamp and finding the rows of an interval
+	 */
+	@Test
+	public void testTimeIndex() {
+		StringDictionary d = new StringDictionary();
+		LogStore store = new LogStore(d);
+		long[] times = {20170426123315L, 20150504140940L, 20170426123315L, 20160101000000L,
+				20150504140940L};
+		for (int i = 0; i < times.length; i++) {
+			store.add(times[i], null, i, i, i);
+		}
+		TimeIndex index = new TimeIndex(store);
+		assertEquals(5, index.size());
+
+		// Equal time stamps keep store order
+		int[] expected = {1, 4, 3, 0, 2};
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], index.getRow(i));
+			assertEquals(times[expected[i]], index.getTime(i));
+		}
+
+		assertEquals(0, index.lowerBound(20150101000000L));
+		assertEquals(0, index.lowerBound(20150504140940L));
+		assertEquals(2, index.upperBound(20150504140940L));
+		assertEquals(2, index.lowerBound(20150504140941L));
+		assertEquals(3, index.upperBound(20170101000000L));
+		assertEquals(5, index.upperBound(20170426123315L));
+		assertEquals(5, index.lowerBound(20180101000000L));
+
+		assertEquals(0, new TimeIndex(new LogStore(d)).upperBound(20170101000000L));
+	}
+
+}
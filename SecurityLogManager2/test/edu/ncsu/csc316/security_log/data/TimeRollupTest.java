@@ -0,0 +1,83 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.io.SecurityLogIO;
+
+/**
+ * Tests for TimeRollup
+ *
+ * @author Noah Benveniste
+ */
+public class TimeRollupTest {
+
+	/**
+	 * Tests that counting through the rollups gives the same counts as counting
+	 * every row, for intervals that start and end inside minutes, hours and days
+	 * as well as on their boundaries
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	@Test
+	public void testAggregate() throws IOException {
+		LogStore store = new SecurityLogIO().readLogStoreFromFile("input/activityLog_medium.txt");
+		TimeIndex index = new TimeIndex(store);
+		TimeRollup rollup = new TimeRollup(store, index);
+
+		long[][] windows = {
+				{store.getMinTime(), store.getMaxTime()},
+				{20150101000000L, 20180101000000L},
+				{20160601000000L, 20160630235959L},
+				{20160601130000L, 20160601135959L},
+				{20160601131500L, 20160601131559L},
+				{20160601131530L, 20160602131529L}};
+		for (long[] w : windows) {
+			checkWindow(store, rollup, w[0], w[1]);
+		}
+
+		// Random windows, plus windows starting and ending exactly on the row time stamps
+		Random r = new Random(316);
+		for (int i = 0; i < 200; i++) {
+			long a = index.getTime(r.nextInt(index.size()));
+			long b = index.getTime(r.nextInt(index.size()));
+			checkWindow(store, rollup, Math.min(a, b), Math.max(a, b));
+			checkWindow(store, rollup, Math.min(a, b) + 1, Math.max(a, b) - 1);
+		}
+	}
+
+	/**
+	 * Checks the rollup counts of one interval against a count of every row
+	 *
+	 * @param store the store
+	 * @param rollup the rollups of the store
+	 * @param start the start time
+	 * @param end the end time
+	 */
+	private void checkWindow( LogStore store, TimeRollup rollup, long start, long end ) {
+		HashMap<Long, Integer> expected = new HashMap<Long, Integer>();
+		int expectedTotal = 0;
+		for (int i = 0; i < store.size(); i++) {
+			if (store.getTime(i) >= start && store.getTime(i) <= end) {
+				expected.merge(((long) store.getAction(i) << 32) | store.getResource(i), 1, Integer::sum);
+				expectedTotal++;
+			}
+		}
+
+		PairCounts counts = new PairCounts();
+		assertEquals(expectedTotal, rollup.aggregate(start, end, counts));
+		assertEquals(expectedTotal, counts.getTotal());
+		assertEquals(expected.size(), counts.size());
+		for (int i = 0; i < counts.size(); i++) {
+			int row = counts.getRow(i);
+			long key = ((long) store.getAction(row) << 32) | store.getResource(row);
+			assertEquals(expected.get(key).intValue(), counts.getCount(i));
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Tests for TimeStamp
+ *
+ * @author Noah Benveniste
+ */
+public class TimeStampTest {
+
+	/**
+	 * Tests parsing time stamps from strings and bytes at an offset
+	 */
+	@Test
+	public void testParse() {
+		assertEquals(20170426123315L, new TimeStamp("04/26/2017 12:33:15PM").getVal());
+		assertEquals(20170703003605L, TimeStamp.parse("07/03/2017 12:36:05AM", 0));
+		assertEquals(20171202121458L, TimeStamp.parse("12/02/2017 00:14:58PM", 0));
+		assertEquals(20150504140940L, TimeStamp.parse("xx, 05/04/2015 02:09:40PM", 4));
+
+		byte[] b = "fzalcala, 08/10/2017 05:10:54PM, sort".getBytes(StandardCharsets.UTF_8);
+		assertEquals(20170810171054L, TimeStamp.parse(b, 10, TimeStamp.LENGTH));
+		assertEquals(20170810171054L, TimeStamp.parseValid(b, 10, TimeStamp.LENGTH));
+
+		try {
+			TimeStamp.parse("04/2x/2017 12:33:15PM", 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid time stamp", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that the validating parser rejects malformed dates and times
+	 */
+	@Test
+	public void testParseValid() {
+		assertEquals(20160229235959L, TimeStamp.parseValid("02/29/2016 11:59:59PM", 0));
+
+		String[] bad = {"02/29/2017 11:59:59PM", "13/01/2017 11:59:59PM", "04/31/2017 11:59:59PM",
+				"01/01/2017 13:00:00PM", "01/01/2017 11:60:00PM", "01/01/2017 11:00:00XM",
+				"01-01-2017 11:00:00AM", "01/01/2017 11:00:00"};
+		for (String s : bad) {
+			try {
+				TimeStamp.parseValid(s, 0);
+				fail(s);
+			} catch (IllegalArgumentException e) {
+				assertEquals("Invalid time stamp", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Tests rebuilding the time stamp string from a parsed value
+	 */
+	@Test
+	public void testGetOriginalString() {
+		String[] times = {"01/03/2015 07:12:20AM", "02/15/2015 12:00:44AM", "04/26/2017 12:33:15PM",
+				"11/20/2017 11:38:22PM"};
+		for (String s : times) {
+			assertEquals(s, new TimeStamp(TimeStamp.parseValid(s, 0)).getOriginalString());
+		}
+		assertEquals("12/02/2017 00:14:58PM", new TimeStamp("12/02/2017 00:14:58PM").getOriginalString());
+	}
+
+}
@@ -0,0 +1,82 @@
+package edu.ncsu.csc316.security_log.data;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.comparator.UserComparator;
+import edu.ncsu.csc316.security_log.io.SecurityLogIO;
+import edu.ncsu.csc316.security_log.list.ArrayList;
+
+/**
+ * Tests for UserIndex
+ *
+ * @author Noah Benveniste
+ */
+public class UserIndexTest {
+
+	/**
+	 * Tests that each posting list holds the user's rows in UserComparator order
+	 *
+	 * @throws IOException if the file cannot be read
+	 */
+	@Test
+	public void testUserIndex() throws IOException {
+		LogStore store = new SecurityLogIO().readLogStoreFromFile("input/activityLog_medium.txt");
+		UserIndex index = new UserIndex(store, new TimeIndex(store));
+
+		ArrayList<LogEntry> sorted = new ArrayList<LogEntry>();
+		for (int i = 0; i < store.size(); i++) {
+			sorted.add(store.getEntry(i));
+		}
+		sorted.sort(new UserComparator());
+
+		// Walking the users in sorted order visits every row exactly once
+		int i = 0;
+		while (i < sorted.size()) {
+			int user = sorted.get(i).getUserId();
+			assertTrue(index.getEnd(user) > index.getStart(user));
+			for (int pos = index.getStart(user); pos < index.getEnd(user); pos++) {
+				LogEntry e = store.getEntry(index.getRow(pos));
+				assertEquals(sorted.get(i).toString(), e.toString());
+				i++;
+			}
+		}
+
+		// Ids that are not users have empty posting lists
+		int action = store.getAction(0);
+		assertEquals(index.getStart(action), index.getEnd(action));
+		assertEquals(0, index.getEnd(-1));
+		assertEquals(0, index.getEnd(store.getDictionary().size()));
+	}
+
+	/**
+	 * Tests a small store whose user ids are scattered through a large shared
+	 * dictionary
+	 */
+	@Test
+	public void testSparseUsers() {
+		StringDictionary d = new StringDictionary();
+		for (int i = 0; i < 1000; i++) {
+			d.intern("string" + i);
+		}
+		LogStore store = new LogStore(d);
+		store.add(new LogEntry(d, "string900", "01/01/2016 12:00:00AM", "view", "b"));
+		store.add(new LogEntry(d, "string5", "01/01/2016 12:00:00AM", "view", "a"));
+		store.add(new LogEntry(d, "string900", "01/01/2015 12:00:00AM", "view", "c"));
+		UserIndex index = new UserIndex(store, new TimeIndex(store));
+
+		int late = d.lookUp("string900");
+		assertEquals(2, index.getEnd(late) - index.getStart(late));
+		assertEquals(2, index.getRow(index.getStart(late)));
+		assertEquals(0, index.getRow(index.getStart(late) + 1));
+		int early = d.lookUp("string5");
+		assertEquals(1, index.getEnd(early) - index.getStart(early));
+		assertEquals(1, index.getRow(index.getStart(early)));
+		int none = d.lookUp("string6");
+		assertEquals(index.getStart(none), index.getEnd(none));
+	}
+
+}
@@ -83,17 +83,15 @@ public class HashTableTest {
 		HashTable<LogEntry> ht = new HashTable<LogEntry>();
     	ArrayList<LogEntry> out = new ArrayList<LogEntry>();
 		
-    	// Reset static counter for total log entries within a time interval
-    	LogEntry.total = 0;
-    	
-    	assertTrue(0 == LogEntry.total);
+    	// Counter for total log entries within a time interval
+    	int total = 0;
     	
     	// 3. Loop through the unsorted list of log entries
     	for (int i = 0; i < logs.size(); i++) {
     		// Get the current log entry
     		LogEntry curr = logs.get(i);
 			// Increment counter that keeps track of total number of entries over the interval
-			LogEntry.total++;
+			total++;
 			// 3a. Look up the current entry
     		LogEntry lookedUp = ht.lookUp(curr);
     		if (lookedUp == null) {
@@ -106,7 +104,7 @@ public class HashTableTest {
     		}
     	}
     	
-    	assertTrue(16 == LogEntry.total);
+    	assertTrue(16 == total);
     	
     	out.sort(new ARComparator());
     	assertEquals(3, out.size());
@@ -0,0 +1,67 @@
+package edu.ncsu.csc316.security_log.dictionary;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the LongIntHashTable class
+ *
+ * @author Noah Benveniste
+ */
+public class LongIntHashTableTest {
+
+	/**
+	 * Tests put and get, including growing the table past its initial capacity
+	 */
+	@Test
+	public void testPutGet() {
+		LongIntHashTable ht = new LongIntHashTable();
+		assertEquals(LongIntHashTable.NO_VALUE, ht.get(0));
+
+		ht.put(0, 7);
+		ht.put(-1L, 8);
+		ht.put(3L << 32 | 5, 9);
+		assertEquals(3, ht.size());
+		assertEquals(7, ht.get(0));
+		assertEquals(8, ht.get(-1L));
+		assertEquals(9, ht.get(3L << 32 | 5));
+		assertEquals(LongIntHashTable.NO_VALUE, ht.get(5L << 32 | 3));
+
+		// Overwrite a value
+		ht.put(0, 10);
+		assertEquals(10, ht.get(0));
+		assertEquals(3, ht.size());
+
+		int oldLength = ht.getHashTableLength();
+		for (int i = 0; i < 1000; i++) {
+			ht.put((long) i << 32, i);
+		}
+		assertTrue(ht.getHashTableLength() > oldLength);
+		for (int i = 1; i < 1000; i++) {
+			assertEquals(i, ht.get((long) i << 32));
+		}
+		assertEquals(8, ht.get(-1L));
+	}
+
+	/**
+	 * Tests clear()
+	 */
+	@Test
+	public void testClear() {
+		LongIntHashTable ht = new LongIntHashTable();
+		for (int i = 0; i < 100; i++) {
+			ht.put(i, i);
+		}
+		int length = ht.getHashTableLength();
+		ht.clear();
+		assertEquals(0, ht.size());
+		assertEquals(length, ht.getHashTableLength());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(LongIntHashTable.NO_VALUE, ht.get(i));
+		}
+		ht.put(42, 1);
+		assertEquals(1, ht.get(42));
+	}
+
+}
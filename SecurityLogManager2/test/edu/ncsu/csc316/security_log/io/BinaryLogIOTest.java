@@ -0,0 +1,210 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static edu.ncsu.csc316.security_log.io.LogStoreAssert.assertSameRows;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Tests for BinaryLogIO
+ *
+ * @author Noah Benveniste
+ */
+public class BinaryLogIOTest {
+
+	/**
+	 * Tests that a saved store loads back with the same rows and ids
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		LogStore store = new SecurityLogIO().readLogStoreFromFile("input/activityLog_medium.txt");
+		// A time stamp TimeStamp.format() does not reproduce
+		store.add(new LogEntry(store.getDictionary(), "fzalcala", "01/01/2016 00:15:00AM", "view", "caf\u00e9"));
+		File f = File.createTempFile("snapshot", ".bin");
+		try {
+			BinaryLogIO io = new BinaryLogIO();
+			io.write(f.getPath(), store.getDictionary(), store);
+			assertTrue(BinaryLogIO.isSnapshot(f.getPath()));
+			assertFalse(BinaryLogIO.isSnapshot("input/activityLog_medium.txt"));
+			// Much smaller than the text
+			assertTrue(f.length() * 3 < new File("input/activityLog_medium.txt").length());
+
+			StringDictionary dictionary = new StringDictionary();
+			LogStore loaded = io.read(f.getPath(), dictionary);
+			assertSameRows(store, loaded);
+			assertEquals(store.getDictionary().size(), dictionary.size());
+			for (int row = 0; row < store.size(); row++) {
+				assertEquals(store.getUser(row), loaded.getUser(row));
+				assertEquals(store.getTime(row), loaded.getTime(row));
+			}
+			assertEquals("01/01/2016 00:15:00AM", loaded.getTimeStamp(store.size() - 1).getOriginalString());
+
+			// SecurityLogIO loads snapshots too, into a dictionary that already has other ids
+			StringDictionary shared = new StringDictionary();
+			shared.intern("someone");
+			shared.intern("caf\u00e9");
+			assertSameRows(store, new SecurityLogIO().readLogStoreFromFile(f.getPath(), shared));
+		} finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Tests saving several stores, and saving nothing
+	 */
+	@Test
+	public void testWriteStores() throws IOException {
+		StringDictionary dictionary = new StringDictionary();
+		SecurityLogIO text = new SecurityLogIO();
+		LogStore medium = text.readLogStoreFromFile("input/activityLog_medium.txt", dictionary);
+		LogStore small = text.readLogStoreFromFile("input/activityLog_small.txt", dictionary);
+		LogStore empty = new LogStore(dictionary);
+		LogStore both = new LogStore(dictionary);
+		both.addAll(small);
+		both.addAll(medium);
+		File f = File.createTempFile("snapshot", ".bin");
+		try {
+			BinaryLogIO io = new BinaryLogIO();
+			io.write(f.getPath(), dictionary, empty, small, medium);
+			assertSameRows(both, io.read(f.getPath(), new StringDictionary()));
+
+			io.write(f.getPath(), dictionary);
+			assertEquals(0, io.read(f.getPath(), new StringDictionary()).size());
+
+			try {
+				io.write(f.getPath(), new StringDictionary(), small);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Stores must share a dictionary", e.getMessage());
+			}
+			// The failed write left the last snapshot in place
+			assertTrue(BinaryLogIO.isSnapshot(f.getPath()));
+		} finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Tests that a snapshot of a few rows of a large dictionary holds only the
+	 * strings those rows use
+	 */
+	@Test
+	public void testUsedStrings() throws IOException {
+		StringDictionary dictionary = new StringDictionary();
+		for (int i = 0; i < 100000; i++) {
+			dictionary.intern("user" + i);
+		}
+		LogStore store = new LogStore(dictionary);
+		store.add(new LogEntry(dictionary, "user99999", "01/01/2016 12:15:00AM", "view", "report"));
+		store.add(new LogEntry(dictionary, "user5", "01/01/2016 12:16:00AM", "view", "user99999"));
+		File f = File.createTempFile("snapshot", ".bin");
+		try {
+			BinaryLogIO io = new BinaryLogIO();
+			io.write(f.getPath(), dictionary, store);
+			assertTrue(f.length() < 200);
+
+			StringDictionary loadedDictionary = new StringDictionary();
+			LogStore loaded = io.read(f.getPath(), loadedDictionary);
+			assertSameRows(store, loaded);
+			// In the order of their ids when saved
+			assertEquals(4, loadedDictionary.size());
+			assertEquals("user5", loadedDictionary.get(0));
+			assertEquals("user99999", loadedDictionary.get(1));
+			assertEquals(1, loaded.getUser(0));
+			assertEquals(1, loaded.getResource(1));
+
+			// Loading into the saving dictionary keeps its ids
+			assertSameRows(store, io.read(f.getPath(), dictionary));
+			assertEquals(100002, dictionary.size());
+		} finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Tests that files that are not snapshots are rejected
+	 */
+	@Test
+	public void testInvalidFiles() throws IOException {
+		BinaryLogIO io = new BinaryLogIO();
+		try {
+			io.read("input/activityLog_small.txt", new StringDictionary());
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Not a security log snapshot", e.getMessage());
+		}
+
+		LogStore store = new SecurityLogIO().readLogStoreFromFile("input/activityLog_small.txt");
+		File f = File.createTempFile("snapshot", ".bin");
+		try {
+			io.write(f.getPath(), store.getDictionary(), store);
+			RandomAccessFile raf = new RandomAccessFile(f, "rw");
+			try {
+				raf.seek(4);
+				raf.writeInt(99);
+			} finally {
+				raf.close();
+			}
+			try {
+				io.read(f.getPath(), new StringDictionary());
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Unsupported snapshot version", e.getMessage());
+			}
+
+			io.write(f.getPath(), store.getDictionary(), store);
+			raf = new RandomAccessFile(f, "rw");
+			try {
+				raf.setLength(raf.length() - 5);
+			} finally {
+				raf.close();
+			}
+			try {
+				io.read(f.getPath(), new StringDictionary());
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Snapshot is corrupt", e.getMessage());
+			}
+
+			// A negative id, as the last row's resource, whether or not the ids are remapped
+			io.write(f.getPath(), store.getDictionary(), store);
+			byte[] bytes = Files.readAllBytes(f.toPath());
+			int rows = store.size();
+			ByteBuffer last = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length + 4));
+			// Every id of the small log takes one byte, so the resource block is the last rows bytes
+			assertEquals(rows, last.getLong(bytes.length - rows - 8));
+			last.putLong(bytes.length - rows - 8, rows + 4);
+			last.position(bytes.length - 1);
+			last.put(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+			Files.write(f.toPath(), last.array());
+			StringDictionary shared = new StringDictionary();
+			shared.intern("someone");
+			for (StringDictionary dictionary : new StringDictionary[] {new StringDictionary(), shared}) {
+				try {
+					io.read(f.getPath(), dictionary);
+					fail();
+				} catch (IllegalArgumentException e) {
+					assertEquals("Snapshot is corrupt", e.getMessage());
+				}
+			}
+
+			Files.write(f.toPath(), "US".getBytes(StandardCharsets.UTF_8));
+			assertFalse(BinaryLogIO.isSnapshot(f.getPath()));
+		} finally {
+			f.delete();
+		}
+	}
+
+}
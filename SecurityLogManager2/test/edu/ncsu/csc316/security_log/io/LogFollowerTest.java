@@ -0,0 +1,147 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Tests for LogFollower
+ *
+ * @author Noah Benveniste
+ */
+public class LogFollowerTest {
+
+	/** The header line of a log file */
+	private static final String HEADER = "USERNAME, TIMESTAMP, ACTION, RESOURCE\n";
+
+	/**
+	 * Appends text to a file
+	 *
+	 * @param f the file
+	 * @param text the text to append
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void write( File f, String text ) throws IOException {
+		FileOutputStream out = new FileOutputStream(f, true);
+		try {
+			out.write(text.getBytes(StandardCharsets.UTF_8));
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Builds a line of a log file
+	 *
+	 * @param user the user
+	 * @param second the second of the time stamp
+	 *
+	 * @return the line, ending in '\n'
+	 */
+	private static String line( String user, int second ) {
+		return String.format("%s, 05/04/2015 02:09:%02dPM, sort, ICD-9 Code 196%n", user, second);
+	}
+
+	/**
+	 * Tests that only complete lines are read, each of them once
+	 */
+	@Test
+	public void testPoll() throws IOException {
+		File f = File.createTempFile("followed", ".txt");
+		f.deleteOnExit();
+		StringDictionary d = new StringDictionary();
+		LogFollower follower = new LogFollower(f.getPath(), d);
+		try {
+			// An empty file, then a header that is still being written
+			assertEquals(0, follower.poll().size());
+			write(f, "USERNAME, TIME");
+			assertEquals(0, follower.poll().size());
+			write(f, "STAMP, ACTION, RESOURCE\n" + line("fzalcala", 1) + line("lqmadden", 2));
+			LogStore batch = follower.poll();
+			assertEquals(2, batch.size());
+			assertEquals("lqmadden", d.get(batch.getUser(1)));
+			assertEquals(0, follower.poll().size());
+
+			// Half a line waits for the rest
+			String third = line("quhundley", 3);
+			write(f, third.substring(0, 10));
+			assertEquals(0, follower.poll().size());
+			long offset = follower.getOffset();
+			write(f, third.substring(10));
+			batch = follower.poll();
+			assertEquals(1, batch.size());
+			assertEquals("quhundley", d.get(batch.getUser(0)));
+			assertEquals(f.length(), follower.getOffset());
+			assertTrue(follower.getOffset() > offset);
+		} finally {
+			follower.close();
+		}
+	}
+
+	/**
+	 * Tests that a file truncated in place is read again from the top
+	 */
+	@Test
+	public void testTruncate() throws IOException {
+		File f = File.createTempFile("followed", ".txt");
+		f.deleteOnExit();
+		StringDictionary d = new StringDictionary();
+		write(f, HEADER + line("fzalcala", 1) + line("lqmadden", 2));
+		LogFollower follower = new LogFollower(f.getPath(), d);
+		try {
+			assertEquals(2, follower.poll().size());
+			new FileOutputStream(f).close();
+			write(f, HEADER + line("quhundley", 3));
+			LogStore batch = follower.poll();
+			assertEquals(1, batch.size());
+			assertEquals("quhundley", d.get(batch.getUser(0)));
+		} finally {
+			follower.close();
+		}
+	}
+
+	/**
+	 * Tests that the rest of a rotated file is read before the new file
+	 */
+	@Test
+	public void testRotate() throws IOException {
+		File f = File.createTempFile("followed", ".txt");
+		File old = new File(f.getPath() + ".1");
+		f.deleteOnExit();
+		old.deleteOnExit();
+		StringDictionary d = new StringDictionary();
+		write(f, HEADER + line("fzalcala", 1));
+		LogFollower follower = new LogFollower(f.getPath(), d);
+		try {
+			assertEquals(1, follower.poll().size());
+
+			// Lines written just before the rotation, the last without its '\n'
+			String last = line("lqmadden", 3);
+			write(f, line("lqmadden", 2) + last.substring(0, last.length() - 1));
+			Files.move(f.toPath(), old.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			// Moved away but not yet replaced
+			assertEquals(1, follower.poll().size());
+
+			write(f, HEADER + line("quhundley", 4));
+			LogStore batch = follower.poll();
+			assertEquals(2, batch.size());
+			assertEquals("lqmadden", d.get(batch.getUser(0)));
+			assertEquals("quhundley", d.get(batch.getUser(1)));
+			assertEquals(0, follower.poll().size());
+		} finally {
+			follower.close();
+		}
+	}
+
+}
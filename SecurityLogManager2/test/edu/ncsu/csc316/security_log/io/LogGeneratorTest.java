@@ -0,0 +1,111 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.list.ArrayList;
+
+/**
+ * Tests for LogGenerator
+ *
+ * @author Noah Benveniste
+ */
+public class LogGeneratorTest {
+
+	/**
+	 * Tests that generated logs can be read by both readers, follow the settings
+	 * and are the same for the same seed
+	 *
+	 * @throws IOException if a file cannot be written or read
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		LogGenerator g = new LogGenerator(5000);
+		g.setUsers(50);
+		g.setResources(30);
+		g.setStart(LocalDateTime.of(2016, 2, 28, 23, 0, 0));
+		g.setSpan(3 * 24 * 60 * 60);
+		File f = File.createTempFile("generated", ".txt");
+		f.deleteOnExit();
+		g.write(f.getPath());
+
+		SecurityLogIO io = new SecurityLogIO();
+		LogStore store = io.readLogStoreFromFile(f.getPath());
+		assertEquals(5000, store.size());
+		assertEquals(20160228230000L, store.getMinTime());
+		assertTrue(store.getMaxTime() < 20160302230000L);
+		assertTrue(store.getDictionary().lookUp(LogGenerator.getUserName(0)) != -1);
+
+		// In order, and the same as the reference reader
+		ArrayList<LogEntry> scanned = new SecurityLogIO().readLogEntriesWithScanner(f.getPath());
+		for (int i = 0; i < store.size(); i++) {
+			assertEquals(scanned.get(i).toString(), store.getEntry(i).toString());
+			if (i > 0) {
+				assertTrue(store.getTime(i) >= store.getTime(i - 1));
+			}
+		}
+
+		// The most active user is the user of rank 0
+		int[] counts = new int[store.getDictionary().size()];
+		for (int i = 0; i < store.size(); i++) {
+			counts[store.getUser(i)]++;
+		}
+		int top = store.getDictionary().lookUp(LogGenerator.getUserName(0));
+		for (int c : counts) {
+			assertTrue(c <= counts[top]);
+		}
+
+		// The same seed gives the same log; another seed does not
+		ByteArrayOutputStream a = new ByteArrayOutputStream();
+		g.write(a);
+		assertArrayEquals(Files.readAllBytes(f.toPath()), a.toByteArray());
+		g.setSeed(1);
+		ByteArrayOutputStream b = new ByteArrayOutputStream();
+		g.write(b);
+		assertFalse(java.util.Arrays.equals(a.toByteArray(), b.toByteArray()));
+	}
+
+	/**
+	 * Tests writing rows out of order
+	 *
+	 * @throws IOException if a file cannot be written or read
+	 */
+	@Test
+	public void testOutOfOrder() throws IOException {
+		// One row a minute, with a tenth of the rows up to ten minutes early
+		LogGenerator g = new LogGenerator(2000);
+		g.setSpan(2000 * 60);
+		g.setOutOfOrder(0.1);
+		g.setMaxLateness(600);
+		File f = File.createTempFile("generated", ".txt");
+		f.deleteOnExit();
+		g.write(f.getPath());
+
+		LogStore store = new SecurityLogIO().readLogStoreFromFile(f.getPath());
+		assertEquals(2000, store.size());
+		int late = 0;
+		for (int i = 1; i < store.size(); i++) {
+			if (store.getTime(i) < store.getTime(i - 1)) {
+				late++;
+			}
+		}
+		assertTrue(late > 100 && late < 300);
+
+		try {
+			g.setOutOfOrder(1.5);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Out of order ratio must be between 0 and 1", e.getMessage());
+		}
+	}
+
+}
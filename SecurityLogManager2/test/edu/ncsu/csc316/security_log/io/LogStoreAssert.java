@@ -0,0 +1,41 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static org.junit.Assert.assertEquals;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+
+/**
+ * Checks shared by the tests of the files log stores are saved in
+ *
+ * @author Noah Benveniste
+ */
+final class LogStoreAssert {
+
+	/**
+	 * Not constructed; the checks are static
+	 */
+	private LogStoreAssert() {
+	}
+
+	/**
+	 * Checks that two stores hold the same rows in the same order, with the
+	 * same time stamp bounds and original time stamp text
+	 *
+	 * @param expected the expected store
+	 * @param actual the actual store
+	 */
+	static void assertSameRows( LogStore expected, LogStore actual ) {
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.getMinTime(), actual.getMinTime());
+		assertEquals(expected.getMaxTime(), actual.getMaxTime());
+		for (int row = 0; row < expected.size(); row++) {
+			LogEntry e = expected.getEntry(row);
+			LogEntry a = actual.getEntry(row);
+			assertEquals(e.toString(), a.toString());
+			assertEquals(e.getTimeStamp().getVal(), a.getTimeStamp().getVal());
+			assertEquals(e.getTimeStamp().getOriginalString(), a.getTimeStamp().getOriginalString());
+		}
+	}
+
+}
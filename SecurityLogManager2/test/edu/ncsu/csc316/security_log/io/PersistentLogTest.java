@@ -0,0 +1,160 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static edu.ncsu.csc316.security_log.io.LogStoreAssert.assertSameRows;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Tests for PersistentLog
+ *
+ * @author Noah Benveniste
+ */
+public class PersistentLogTest {
+
+	/**
+	 * Creates an empty temporary directory
+	 *
+	 * @return the directory
+	 *
+	 * @throws IOException if the directory cannot be created
+	 */
+	private static File directory() throws IOException {
+		return Files.createTempDirectory("persistent").toFile();
+	}
+
+	/**
+	 * Deletes a directory and its files
+	 *
+	 * @param dir the directory
+	 */
+	private static void delete( File dir ) {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		dir.delete();
+	}
+
+	/**
+	 * Counts the files in a directory whose names start with a prefix
+	 *
+	 * @param dir the directory
+	 * @param prefix the prefix
+	 *
+	 * @return the number of files
+	 */
+	private static int count( File dir, String prefix ) {
+		int n = 0;
+		for (String name : dir.list()) {
+			if (name.startsWith(prefix)) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Tests that appended rows are recovered from segments and the write-ahead
+	 * log, and that full write-ahead logs are compacted
+	 */
+	@Test
+	public void testRecover() throws IOException {
+		File dir = directory();
+		try {
+			StringDictionary d = new StringDictionary();
+			SecurityLogIO text = new SecurityLogIO();
+			LogStore medium = text.readLogStoreFromFile("input/activityLog_medium.txt", d);
+			LogStore small = text.readLogStoreFromFile("input/activityLog_small.txt", d);
+			// A time stamp TimeStamp.format() does not reproduce
+			small.add(new LogEntry(d, "fzalcala", "01/01/2016 00:15:00AM", "view", "caf\u00e9"));
+
+			PersistentLog log = new PersistentLog(dir.getPath(), d, 1000);
+			assertEquals(0, log.getRecovered().size());
+			log.append(medium);
+			log.append(small);
+			log.append(new LogStore(d));
+			log.close();
+			// The medium log filled a write-ahead log, which became a segment
+			assertEquals(1, count(dir, "segment-"));
+			assertEquals(1, count(dir, "wal-"));
+
+			LogStore all = new LogStore(d);
+			all.addAll(medium);
+			all.addAll(small);
+			log = new PersistentLog(dir.getPath(), new StringDictionary(), 1000);
+			assertSameRows(all, log.getRecovered());
+			log.compact();
+			// The replayed log and the new, empty one are gone
+			assertEquals(2, count(dir, "segment-"));
+			assertEquals(1, count(dir, "wal-"));
+			log.close();
+
+			log = new PersistentLog(dir.getPath(), new StringDictionary(), 1000);
+			assertSameRows(all, log.getRecovered());
+			log.close();
+
+			try {
+				new PersistentLog(dir.getPath(), d, 0);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Must compact at least one row", e.getMessage());
+			}
+		} finally {
+			delete(dir);
+		}
+	}
+
+	/**
+	 * Tests recovery after crashes: a write-ahead log cut short, a segment
+	 * saved before its write-ahead log was deleted, and a segment being saved
+	 */
+	@Test
+	public void testCrash() throws IOException {
+		File dir = directory();
+		try {
+			StringDictionary d = new StringDictionary();
+			LogStore small = new SecurityLogIO().readLogStoreFromFile("input/activityLog_small.txt", d);
+			PersistentLog log = new PersistentLog(dir.getPath(), d);
+			log.append(small);
+			log.append(small);
+			log.close();
+
+			// Cut the second record short
+			File wal = new File(dir, "wal-0000000000.log");
+			RandomAccessFile raf = new RandomAccessFile(wal, "rw");
+			try {
+				raf.setLength(raf.length() - 1);
+			} finally {
+				raf.close();
+			}
+			// A segment of the same rows, as if compaction stopped before deleting the log
+			new BinaryLogIO().write(new File(dir, "segment-0000000001.bin").getPath(), d, small);
+			Files.copy(wal.toPath(), new File(dir, "wal-0000000001.log").toPath());
+			Files.write(new File(dir, "segment-0000000002.bin.tmp").toPath(), new byte[] {1, 2, 3});
+
+			log = new PersistentLog(dir.getPath(), new StringDictionary());
+			LogStore twice = new LogStore(d);
+			twice.addAll(small);
+			twice.addAll(small);
+			assertSameRows(twice, log.getRecovered());
+			log.close();
+			assertFalse(new File(dir, "wal-0000000001.log").exists());
+			assertFalse(new File(dir, "segment-0000000002.bin.tmp").exists());
+		} finally {
+			delete(dir);
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+import edu.ncsu.csc316.security_log.data.TimeStamp;
+import edu.ncsu.csc316.security_log.list.ArrayList;
+
+/**
+ * Tests SecurityLogIO
+ *
+ * @author Noah Benveniste
+ */
+public class SecurityLogIOTest {
+
+	/**
+	 * Tests that the memory mapped parser produces the same entries and time
+	 * stamp bounds as the Scanner based parser
+	 *
+	 * @throws IOException if an input file cannot be read
+	 */
+	@Test
+	public void testReadLogEntriesFromFile() throws IOException {
+		String[] files = {"input/activityLog_small.txt", "input/activityLog_medium.txt"};
+		for (String file : files) {
+			SecurityLogIO mapped = new SecurityLogIO();
+			SecurityLogIO scanner = new SecurityLogIO();
+			ArrayList<LogEntry> expected = scanner.readLogEntriesWithScanner(file);
+			ArrayList<LogEntry> actual = mapped.readLogEntriesFromFile(file);
+
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i).toString(), actual.get(i).toString());
+			}
+			assertEquals(scanner.minTimeStamp, mapped.minTimeStamp);
+			assertEquals(scanner.maxTimeStamp, mapped.maxTimeStamp);
+		}
+	}
+
+	/**
+	 * Tests that loading a file in many small parallel chunks keeps file order
+	 * and merges the chunks' time stamp bounds
+	 *
+	 * @throws IOException if an input file cannot be read
+	 */
+	@Test
+	public void testParallelLogLoader() throws IOException {
+		SecurityLogIO scanner = new SecurityLogIO();
+		ArrayList<LogEntry> expected = scanner.readLogEntriesWithScanner("input/activityLog_medium.txt");
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		ParallelLogLoader loader = new ParallelLogLoader(pool, 1000);
+		LogStore actual = loader.load("input/activityLog_medium.txt", new StringDictionary());
+		pool.shutdown();
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), actual.getEntry(i).toString());
+		}
+		assertEquals(scanner.minTimeStamp, actual.getMinTime());
+		assertEquals(scanner.maxTimeStamp, actual.getMaxTime());
+	}
+
+	/**
+	 * Tests reading files with Windows line endings, a missing trailing newline
+	 * and malformed lines
+	 *
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testReadLogEntriesFromFileFormatting() throws IOException {
+		File f = File.createTempFile("activityLog", ".txt");
+		f.deleteOnExit();
+
+		FileWriter w = new FileWriter(f);
+		w.write("USERNAME, TIMESTAMP, ACTION, RESOURCE\r\n"
+				+ "fzalcala, 04/26/2017 12:33:15PM, sort, ICD-9 Code 196\r\n"
+				+ "quhundley, 08/04/2017 11:01:45AM, import, office visit OV04312");
+		w.close();
+
+		SecurityLogIO io = new SecurityLogIO();
+		ArrayList<LogEntry> logs = io.readLogEntriesFromFile(f.getPath());
+		assertEquals(2, logs.size());
+		assertEquals("fzalcala, 04/26/2017 12:33:15PM, sort, ICD-9 Code 196", logs.get(0).toString());
+		assertEquals("quhundley, 08/04/2017 11:01:45AM, import, office visit OV04312", logs.get(1).toString());
+		assertEquals(20170426123315L, io.minTimeStamp);
+		assertEquals(20170804110145L, io.maxTimeStamp);
+
+		w = new FileWriter(f);
+		w.write("USERNAME, TIMESTAMP, ACTION, RESOURCE\n"
+				+ "fzalcala, 04/26/2017 12:33:15PM, sort\n");
+		w.close();
+		try {
+			io.readLogEntriesFromFile(f.getPath());
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Error when reading input file", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that time stamps the TimeStamp constructor accepts load with the
+	 * same value and text, though they are not real 12 hour times
+	 *
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testReadLenientTimeStamps() throws IOException {
+		File f = File.createTempFile("activityLog", ".txt");
+		f.deleteOnExit();
+
+		String[] times = {"01/01/2017 13:00:00PM", "02/30/2017 11:00:00AM", "03/01/2017 23:15:00",
+				"03/02/2017 11:00:00AM later", "03/03/2017 00:14:58PM", "03/04/2017 09:00:00PM"};
+		StringBuilder text = new StringBuilder("USERNAME, TIMESTAMP, ACTION, RESOURCE\n");
+		for (String time : times) {
+			text.append("fzalcala, ").append(time).append(", sort, ICD-9 Code 196\n");
+		}
+		FileWriter w = new FileWriter(f);
+		w.write(text.toString());
+		w.close();
+
+		LogStore store = new SecurityLogIO().readLogStoreFromFile(f.getPath());
+		assertEquals(times.length, store.size());
+		for (int row = 0; row < times.length; row++) {
+			assertEquals(times[row], store.getTimeStamp(row).getOriginalString());
+			assertEquals(new TimeStamp(times[row]).getVal(), store.getTime(row));
+		}
+		// Only the stamps format() does not rebuild keep their text
+		assertEquals(4, store.getRawTimeCount());
+	}
+
+}
@@ -0,0 +1,128 @@
+package edu.ncsu.csc316.security_log.io;
+
+import static edu.ncsu.csc316.security_log.io.LogStoreAssert.assertSameRows;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Tests for WriteAheadLog
+ *
+ * @author Noah Benveniste
+ */
+public class WriteAheadLogTest {
+
+	/**
+	 * Tests that written records are replayed, and that replay stops at a
+	 * record cut short or damaged
+	 */
+	@Test
+	public void testReplay() throws IOException {
+		StringDictionary d = new StringDictionary();
+		LogStore small = new SecurityLogIO().readLogStoreFromFile("input/activityLog_small.txt", d);
+		LogStore odd = new LogStore(d);
+		odd.add(new LogEntry(d, "fzalcala", "01/01/2016 00:15:00AM", "view", "caf\u00e9"));
+		File f = File.createTempFile("wal", ".log");
+		Path path = f.toPath();
+		try {
+			WriteAheadLog wal = new WriteAheadLog(path);
+			long first = wal.write(small);
+			wal.sync(first);
+			long second = wal.write(odd);
+			assertTrue(second > first);
+			assertEquals(second, wal.size());
+			wal.close();
+
+			LogStore both = new LogStore(d);
+			both.addAll(small);
+			both.addAll(odd);
+			assertSameRows(both, WriteAheadLog.replay(path, new StringDictionary()));
+
+			// A crash in the middle of the second record loses only that record
+			RandomAccessFile raf = new RandomAccessFile(f, "rw");
+			try {
+				raf.setLength(second - 3);
+			} finally {
+				raf.close();
+			}
+			assertSameRows(small, WriteAheadLog.replay(path, new StringDictionary()));
+
+			// So does a damaged byte in it
+			wal = new WriteAheadLog(path);
+			wal.write(small);
+			wal.write(odd);
+			wal.close();
+			raf = new RandomAccessFile(f, "rw");
+			try {
+				raf.seek(second - 2);
+				raf.write(raf.read() ^ 0x40);
+			} finally {
+				raf.close();
+			}
+			assertSameRows(small, WriteAheadLog.replay(path, new StringDictionary()));
+
+			// A file cut off in its header has no records
+			raf = new RandomAccessFile(f, "rw");
+			try {
+				raf.setLength(3);
+			} finally {
+				raf.close();
+			}
+			assertEquals(0, WriteAheadLog.replay(path, d).size());
+			try {
+				WriteAheadLog.replay(new File("input/activityLog_small.txt").toPath(), d);
+				fail();
+			} catch (IllegalArgumentException e) {
+				assertEquals("Not a write-ahead log", e.getMessage());
+			}
+		} finally {
+			f.delete();
+		}
+	}
+
+	/**
+	 * Tests that records written by many threads at once are all replayed
+	 */
+	@Test
+	public void testConcurrentWrites() throws Exception {
+		final StringDictionary d = new StringDictionary();
+		final LogStore small = new SecurityLogIO().readLogStoreFromFile("input/activityLog_small.txt", d);
+		File f = File.createTempFile("wal", ".log");
+		try {
+			final WriteAheadLog wal = new WriteAheadLog(f.toPath());
+			ExecutorService pool = Executors.newFixedThreadPool(4);
+			Future<?>[] results = new Future<?>[40];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						wal.sync(wal.write(small));
+						return null;
+					}
+				});
+			}
+			for (Future<?> r : results) {
+				r.get();
+			}
+			pool.shutdown();
+			wal.close();
+			assertEquals(40 * small.size(), WriteAheadLog.replay(f.toPath(), new StringDictionary()).size());
+		} finally {
+			f.delete();
+		}
+	}
+
+}
@@ -383,6 +383,33 @@ public class ArrayListTest {
         
     }
     
+    /**
+     * Tests the sortStable() method
+     */
+    @Test
+    public void testSortStable() {
+        // Sort strings by their first letter only; ties keep their original order
+        ArrayList<String> list = new ArrayList<String>();
+        list.add("b2");
+        list.add("a1");
+        list.add("b1");
+        list.add("c1");
+        list.add("a2");
+        list.add("b3");
+        
+        list.sortStable(new Comparator<String>() {
+            @Override
+            public int compareTo(String a, String b) {
+                return a.charAt(0) - b.charAt(0);
+            }
+        });
+        
+        String[] expected = {"a1", "a2", "b2", "b1", "b3", "c1"};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+    }
+    
     /**
      * Tests growArray()
      */
@@ -424,6 +451,20 @@ public class ArrayListTest {
         assertEquals(2, a.size());
         assertTrue(1 == a.get(0));
         assertTrue(2 == a.get(1));
+
+        // A list many times this one's capacity, then adding past the new capacity
+        ArrayList<Integer> small = new ArrayList<Integer>(1);
+        ArrayList<Integer> big = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            big.add(i);
+        }
+        small.add(-1);
+        small.addAll(big);
+        small.add(100);
+        assertEquals(102, small.size());
+        for (int i = 0; i < small.size(); i++) {
+            assertTrue(i - 1 == small.get(i));
+        }
     }
     
     /**
@@ -0,0 +1,151 @@
+package edu.ncsu.csc316.security_log.list;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.comparator.UserComparator;
+import edu.ncsu.csc316.security_log.comparator.UserOnlyComparator;
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Tests for RadixSort
+ *
+ * @author Noah Benveniste
+ */
+public class RadixSortTest {
+
+	/**
+	 * Tests sorting long keys, carrying values, against a stable merge sort
+	 */
+	@Test
+	public void testSortKeys() {
+		Random r = new Random(316);
+		long[][] inputs = new long[5][10000];
+		for (int i = 0; i < 10000; i++) {
+			inputs[0][i] = r.nextLong();
+			inputs[1][i] = 20150101000000L + r.nextInt(3) * 10000000000L + r.nextInt(240000);
+			inputs[2][i] = r.nextInt(5) - 2;
+			inputs[3][i] = i % 3 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+			inputs[4][i] = 42;
+		}
+		for (long[] in : inputs) {
+			long[] keys = in.clone();
+			int[] values = new int[keys.length];
+			Long[][] expected = new Long[keys.length][];
+			for (int i = 0; i < keys.length; i++) {
+				values[i] = i;
+				expected[i] = new Long[] {keys[i], (long) i};
+			}
+			Sorting.mergeSort(expected, 0, expected.length, (a, b) -> Long.compare(a[0], b[0]));
+			RadixSort.sort(keys, values, 0, keys.length);
+			for (int i = 0; i < keys.length; i++) {
+				assertEquals((long) expected[i][0], keys[i]);
+				assertEquals((long) expected[i][1], values[i]);
+			}
+		}
+
+		// A sub range is sorted without touching the rest
+		long[] keys = {9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+		int[] values = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+		RadixSort.sort(keys, values, 2, 8);
+		assertArrayEquals(new long[] {9, 8, 2, 3, 4, 5, 6, 7, 1, 0}, keys);
+		assertArrayEquals(new int[] {0, 1, 7, 6, 5, 4, 3, 2, 8, 9}, values);
+	}
+
+	/**
+	 * Tests that sorting entries by user and time stamp gives the same order as
+	 * the merge sort, and that ArrayList switches to it for large lists
+	 */
+	@Test
+	public void testSortEntries() {
+		Random r = new Random(316);
+		StringDictionary d = new StringDictionary();
+		String[] actions = {"view", "sort", "import", "delete"};
+		int n = 5000;
+		LogEntry[] entries = new LogEntry[n];
+		ArrayList<LogEntry> list = new ArrayList<LogEntry>();
+		ArrayList<LogEntry> users = new ArrayList<LogEntry>();
+		for (int i = 0; i < n; i++) {
+			// Few distinct times so many entries tie on both keys
+			String time = String.format("%02d/01/2016 0%d:00:%02dPM", 1 + r.nextInt(12), 1 + r.nextInt(3), r.nextInt(2));
+			entries[i] = new LogEntry(d, "user" + r.nextInt(50), time, actions[r.nextInt(4)], "resource" + r.nextInt(3));
+			list.add(entries[i]);
+			users.add(entries[i]);
+		}
+		LogEntry[] expected = entries.clone();
+		Sorting.mergeSort(expected, 0, n, new UserComparator());
+		RadixSort.sort(entries, 0, n, new UserComparator());
+		assertArrayEquals(expected, entries);
+
+		list.sort(new UserComparator());
+		for (int i = 0; i < n; i++) {
+			assertSame(expected[i], list.get(i));
+		}
+
+		// Sorting by user alone keeps each user's entries in their original order
+		LogEntry[] byUser = new LogEntry[n];
+		for (int i = 0; i < n; i++) {
+			byUser[i] = users.get(i);
+		}
+		Sorting.mergeSort(byUser, 0, n, new UserOnlyComparator());
+		users.sortStable(new UserOnlyComparator());
+		for (int i = 0; i < n; i++) {
+			assertSame(byUser[i], users.get(i));
+		}
+	}
+
+	/**
+	 * Tests that entries sorted while strings that rank among theirs are
+	 * interned still come out in order. Every key an entry gives interns one,
+	 * as another thread sharing the dictionary might between two keys.
+	 */
+	@Test
+	public void testSortWhileInterning() {
+		Random r = new Random(217);
+		final StringDictionary d = new StringDictionary();
+		int n = 2000;
+		LogEntry[] entries = new LogEntry[n];
+		for (int i = 0; i < n; i++) {
+			String time = String.format("01/01/2016 0%d:00:%02dPM", 1 + r.nextInt(9), r.nextInt(60));
+			entries[i] = new LogEntry(d, "user" + r.nextInt(200), time, "view", "resource");
+		}
+		// Strings between the users, so each one moves the ranks of only some of them
+		final int[] interned = {0};
+		for (int i = 0; i < n; i++) {
+			entries[i] = new LogEntry(d, entries[i].getUserId(), entries[i].getTimeStamp(),
+					entries[i].getActionId(), entries[i].getResourceId()) {
+				@Override
+				public int getUserId() {
+					d.intern("user" + interned[0] % 200 + "x" + interned[0]++);
+					return super.getUserId();
+				}
+			};
+		}
+		LogEntry[] expected = entries.clone();
+		Sorting.mergeSort(expected, 0, n, new UserComparator());
+		RadixSort.sort(entries, 0, n, new UserComparator());
+		// LogEntry.equals() only looks at the action and resource
+		for (int i = 0; i < n; i++) {
+			assertSame(expected[i], entries[i]);
+		}
+	}
+
+	/**
+	 * Tests that entries with their own dictionaries are not radix sorted
+	 */
+	@Test
+	public void testEncodable() {
+		LogEntry[] a = new LogEntry[3];
+		StringDictionary d = new StringDictionary();
+		a[0] = new LogEntry(d, "b", "01/01/2016 01:00:00PM", "view", "x");
+		a[1] = new LogEntry(d, "a", "01/01/2016 01:00:00PM", "view", "x");
+		a[2] = new LogEntry("c", "01/01/2016 01:00:00PM", "view", "x");
+		assertTrue(RadixSort.encodable(a, 0, 2, new UserComparator()));
+		assertFalse(RadixSort.encodable(a, 0, 3, new UserComparator()));
+	}
+
+}
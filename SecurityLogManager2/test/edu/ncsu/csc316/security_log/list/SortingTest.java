@@ -0,0 +1,184 @@
+package edu.ncsu.csc316.security_log.list;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.comparator.Comparator;
+
+/**
+ * Tests for Sorting
+ *
+ * @author Noah Benveniste
+ */
+public class SortingTest {
+
+	/** Orders integers ascending */
+	private static final Comparator<Integer> ASCENDING = new Comparator<Integer>() {
+		@Override
+		public int compareTo( Integer a, Integer b ) {
+			return Integer.compare(a, b);
+		}
+	};
+
+	/** Orders pairs by their first value only */
+	private static final Comparator<int[]> BY_KEY = new Comparator<int[]>() {
+		@Override
+		public int compareTo( int[] a, int[] b ) {
+			return Integer.compare(a[0], b[0]);
+		}
+	};
+
+	/**
+	 * Builds inputs that are hard for simple quick sorts
+	 *
+	 * @param n the length of each input
+	 *
+	 * @return the inputs
+	 */
+	private static Integer[][] inputs( int n ) {
+		Random r = new Random(316);
+		Integer[][] in = new Integer[7][n];
+		for (int i = 0; i < n; i++) {
+			in[0][i] = r.nextInt();
+			in[1][i] = i;
+			in[2][i] = n - i;
+			in[3][i] = 7;
+			in[4][i] = r.nextInt(3);
+			in[5][i] = i < n / 2 ? i : n - i;
+			in[6][i] = i % 100 == 0 ? r.nextInt() : i;
+		}
+		return in;
+	}
+
+	/**
+	 * Checks that a sort gives the same result as Arrays.sort()
+	 *
+	 * @param in the input
+	 * @param stable whether to use the stable sort
+	 */
+	private static void check( Integer[] in, boolean stable ) {
+		Integer[] expected = in.clone();
+		Arrays.sort(expected);
+		Integer[] actual = in.clone();
+		if (stable) {
+			Sorting.mergeSort(actual, 0, actual.length, ASCENDING);
+		} else {
+			Sorting.introSort(actual, 0, actual.length, ASCENDING);
+		}
+		assertArrayEquals(expected, actual);
+	}
+
+	/**
+	 * Tests introSort() on random, sorted, reversed, equal and nearly sorted inputs
+	 */
+	@Test
+	public void testIntroSort() {
+		for (int n : new int[] {0, 1, 2, 5, Sorting.INSERTION_THRESHOLD + 1, 1000, 100000}) {
+			for (Integer[] in : inputs(n)) {
+				check(in, false);
+			}
+		}
+
+		// A sub range is sorted without touching the rest
+		Integer[] a = {9, 8, 7, 6, 5, 4, 3, 2, 1, 0};
+		Sorting.introSort(a, 2, 8, ASCENDING);
+		assertArrayEquals(new Integer[] {9, 8, 2, 3, 4, 5, 6, 7, 1, 0}, a);
+	}
+
+	/**
+	 * Tests that a million equal or sorted keys do not overflow the stack
+	 */
+	@Test
+	public void testIntroSortDepth() {
+		for (Integer[] in : inputs(1000000)) {
+			check(in, false);
+		}
+	}
+
+	/**
+	 * Tests the heap sort fallback directly
+	 */
+	@Test
+	public void testHeapSort() {
+		for (Integer[] in : inputs(1001)) {
+			Integer[] expected = in.clone();
+			Arrays.sort(expected);
+			Sorting.heapSort(in, 0, in.length, ASCENDING);
+			assertArrayEquals(expected, in);
+		}
+	}
+
+	/**
+	 * Tests mergeSort() on random, sorted, reversed, equal and nearly sorted inputs
+	 */
+	@Test
+	public void testMergeSort() {
+		for (int n : new int[] {0, 1, 2, 5, Sorting.MIN_RUN + 1, 1000, 100000}) {
+			for (Integer[] in : inputs(n)) {
+				check(in, true);
+			}
+		}
+	}
+
+	/**
+	 * Tests that mergeSort() keeps equal elements in their original order
+	 */
+	@Test
+	public void testMergeSortStable() {
+		Random r = new Random(316);
+		for (int n : new int[] {10, 100, 10000}) {
+			int[][] a = new int[n][];
+			for (int i = 0; i < n; i++) {
+				// Keys in descending runs and random order, second value is the original position
+				a[i] = new int[] {i < n / 2 ? (n - i) / 10 : r.nextInt(20), i};
+			}
+			Sorting.mergeSort(a, 0, n, BY_KEY);
+			for (int i = 1; i < n; i++) {
+				assertTrue(a[i - 1][0] <= a[i][0]);
+				if (a[i - 1][0] == a[i][0]) {
+					assertTrue(a[i - 1][1] < a[i][1]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that parallelMergeSort() gives exactly the same result as mergeSort(),
+	 * including the order of equal elements
+	 */
+	@Test
+	public void testParallelMergeSort() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int n : new int[] {0, 10, Sorting.PARALLEL_GRAIN + 1, 300000}) {
+				for (Integer[] in : inputs(n)) {
+					Integer[] expected = in.clone();
+					Arrays.sort(expected);
+					Sorting.parallelMergeSort(in, 0, n, ASCENDING, pool);
+					assertArrayEquals(expected, in);
+				}
+			}
+
+			Random r = new Random(316);
+			int n = 200000;
+			int[][] a = new int[n][];
+			for (int i = 0; i < n; i++) {
+				a[i] = new int[] {i < n / 4 ? i / 100 : r.nextInt(50), i};
+			}
+			int[][] b = a.clone();
+			Sorting.mergeSort(a, 0, n, BY_KEY);
+			Sorting.parallelMergeSort(b, 0, n, BY_KEY, pool);
+			for (int i = 0; i < n; i++) {
+				assertSame(a[i], b[i]);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
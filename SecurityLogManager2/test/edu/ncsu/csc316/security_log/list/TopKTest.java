@@ -0,0 +1,78 @@
+package edu.ncsu.csc316.security_log.list;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.comparator.Comparator;
+
+/**
+ * Tests for TopK
+ *
+ * @author Noah Benveniste
+ */
+public class TopKTest {
+
+	/** Orders integers descending, so the largest are kept */
+	private static final Comparator<Integer> DESCENDING = new Comparator<Integer>() {
+		@Override
+		public int compareTo( Integer a, Integer b ) {
+			return Integer.compare(b, a);
+		}
+	};
+
+	/**
+	 * Tests that the kept elements are the first k of a full sort
+	 */
+	@Test
+	public void testOffer() {
+		Random r = new Random(316);
+		for (int k : new int[] {1, 2, 10, 50, 2000}) {
+			Integer[] in = new Integer[1000];
+			for (int i = 0; i < in.length; i++) {
+				in[i] = r.nextInt(300);
+			}
+			TopK<Integer> top = new TopK<Integer>(k, DESCENDING);
+			for (Integer e : in) {
+				top.offer(e);
+			}
+			Arrays.sort(in);
+			ArrayList<Integer> out = top.toList();
+			assertEquals(Math.min(k, in.length), out.size());
+			for (int i = 0; i < out.size(); i++) {
+				assertEquals(in[in.length - 1 - i], out.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Tests peek(), isFull() and the return value of offer()
+	 */
+	@Test
+	public void testPeek() {
+		TopK<Integer> top = new TopK<Integer>(2, DESCENDING);
+		assertNull(top.peek());
+		assertFalse(top.isFull());
+		assertTrue(top.offer(5));
+		assertEquals(Integer.valueOf(5), top.peek());
+		assertTrue(top.offer(7));
+		assertTrue(top.isFull());
+		assertEquals(Integer.valueOf(5), top.peek());
+		assertFalse(top.offer(3));
+		assertFalse(top.offer(5));
+		assertTrue(top.offer(6));
+		assertEquals(Integer.valueOf(6), top.peek());
+		assertEquals(2, top.size());
+
+		try {
+			new TopK<Integer>(0, DESCENDING);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Must keep at least one element", e.getMessage());
+		}
+	}
+
+}
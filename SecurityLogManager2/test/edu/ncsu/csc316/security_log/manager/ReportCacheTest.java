@@ -0,0 +1,107 @@
+package edu.ncsu.csc316.security_log.manager;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import edu.ncsu.csc316.security_log.data.LogStore;
+import edu.ncsu.csc316.security_log.data.StringDictionary;
+
+/**
+ * Tests for ReportCache
+ *
+ * @author Noah Benveniste
+ */
+public class ReportCacheTest {
+
+	/**
+	 * Tests lookups, statistics and least recently used eviction
+	 */
+	@Test
+	public void testEviction() {
+		ReportCache cache = new ReportCache(2);
+		assertNull(cache.getProfile(1, 2, 0));
+		cache.putProfile(1, 2, 0, 1, 2, "a");
+		cache.putProfile(1, 2, 3, 1, 2, "b");
+		assertEquals("a", cache.getProfile(1, 2, 0));
+		assertEquals("b", cache.getProfile(1, 2, 3));
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// "a" is now the least recently used
+		cache.putUserReport(7, "c");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		assertNull(cache.getProfile(1, 2, 0));
+		assertEquals("b", cache.getProfile(1, 2, 3));
+		assertEquals("c", cache.getUserReport(7));
+		assertNull(cache.getUserReport(8));
+
+		// Replacing an entry does not evict another
+		cache.putUserReport(7, "d");
+		assertEquals(2, cache.size());
+		assertEquals("d", cache.getUserReport(7));
+
+		cache.setCapacity(1);
+		assertEquals(1, cache.size());
+		assertEquals("d", cache.getUserReport(7));
+		cache.setCapacity(0);
+		cache.putUserReport(7, "e");
+		assertEquals(0, cache.size());
+		try {
+			cache.setCapacity(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Cache capacity must not be negative", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that an appended batch removes exactly the reports it changes
+	 */
+	@Test
+	public void testInvalidate() {
+		StringDictionary d = new StringDictionary();
+		int alice = d.intern("alice");
+		int bob = d.intern("bob");
+		ReportCache cache = new ReportCache(ReportCache.DEFAULT_CAPACITY);
+		cache.putProfile(100, 200, 0, 100, 200, "inside");
+		cache.putProfile(300, 400, 0, 300, 400, "outside");
+		cache.putProfile(500, 400, 0, 1, 0, "empty");
+		cache.putProfile(900, 950, 0, 901, Long.MAX_VALUE, "after");
+		cache.putUserReport(alice, "alice");
+		cache.putUserReport(bob, "bob");
+
+		// The batch spans 150 to 350 but has no row between 300 and 400
+		LogStore batch = new LogStore(d, 2);
+		batch.add(150, null, alice, alice, alice);
+		batch.add(250, null, alice, alice, alice);
+		batch.add(299, null, alice, alice, alice);
+		cache.invalidate(batch);
+		assertNull(cache.getProfile(100, 200, 0));
+		assertEquals("outside", cache.getProfile(300, 400, 0));
+		assertEquals("empty", cache.getProfile(500, 400, 0));
+		assertEquals("after", cache.getProfile(900, 950, 0));
+		assertNull(cache.getUserReport(alice));
+		assertEquals("bob", cache.getUserReport(bob));
+
+		// A batch too large to scan is sorted instead
+		LogStore big = new LogStore(d, 100);
+		for (int i = 0; i < 100; i++) {
+			big.add(1000 + 2 * i, null, bob, bob, bob);
+		}
+		cache.putProfile(1001, 1001, 0, 1001, 1001, "odd");
+		cache.putProfile(1010, 1010, 0, 1010, 1010, "even");
+		cache.invalidate(big);
+		assertEquals("outside", cache.getProfile(300, 400, 0));
+		assertEquals("odd", cache.getProfile(1001, 1001, 0));
+		assertNull(cache.getProfile(1010, 1010, 0));
+		assertNull(cache.getProfile(900, 950, 0));
+		assertNull(cache.getUserReport(bob));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNull(cache.getProfile(300, 400, 0));
+	}
+
+}
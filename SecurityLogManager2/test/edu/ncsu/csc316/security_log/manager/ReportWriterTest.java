@@ -0,0 +1,59 @@
+package edu.ncsu.csc316.security_log.manager;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Tests for ReportWriter
+ *
+ * @author Noah Benveniste
+ */
+public class ReportWriterTest {
+
+	/**
+	 * Tests that appendPercent() matches String.format() for every count of
+	 * totals up to 400, and for large counts
+	 */
+	@Test
+	public void testAppendPercent() {
+		for (int total = 1; total <= 400; total++) {
+			for (int count = 0; count <= total; count++) {
+				ReportWriter w = new ReportWriter();
+				w.appendPercent(count, total);
+				assertEquals(String.format("%.1f%%", (((double) count) / total) * 100), w.toString());
+			}
+		}
+		int[][] large = {{1, 80}, {1, 2000}, {1999999, 2000000}, {2000000000, 2000000001}, {7, 1 << 30}};
+		for (int[] p : large) {
+			ReportWriter w = new ReportWriter();
+			w.appendPercent(p[0], p[1]);
+			assertEquals(String.format("%.1f%%", (((double) p[0]) / p[1]) * 100), w.toString());
+		}
+	}
+
+	/**
+	 * Tests that a long report reaches the target in buffer sized pieces with
+	 * nothing lost
+	 */
+	@Test
+	public void testFlush() throws IOException {
+		StringWriter out = new StringWriter();
+		ReportWriter w = new ReportWriter(out);
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			w.append("line ").append(i).endLine();
+			expected.append("line ").append(i).append('\n');
+			assertTrue(expected.length() - out.getBuffer().length() < ReportWriter.BUFFER_SIZE + 16);
+		}
+		assertTrue(out.getBuffer().length() > 0);
+		w.append("]");
+		w.flush();
+		expected.append("]");
+		assertEquals(expected.toString(), out.toString());
+	}
+
+}
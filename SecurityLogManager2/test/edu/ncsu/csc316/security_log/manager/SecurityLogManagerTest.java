@@ -2,11 +2,26 @@ package edu.ncsu.csc316.security_log.manager;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
+import edu.ncsu.csc316.security_log.data.LogEntry;
+import edu.ncsu.csc316.security_log.data.TimeStamp;
 import edu.ncsu.csc316.security_log.io.SecurityLogIO;
+import edu.ncsu.csc316.security_log.list.ArrayList;
 
 /**
  * Test class for SecurityLogManager
@@ -39,6 +54,8 @@ public class SecurityLogManagerTest {
     private static final String BAD_END_TIME = "05/04/2015 02:09:39PM";
     private static final String GOOD_START_TIME = "07/18/2015 07:57:41PM";
     private static final String GOOD_END_TIME = "09/21/2017 08:50:14AM";
+    private static final java.time.format.DateTimeFormatter FORMAT =
+            java.time.format.DateTimeFormatter.ofPattern("MM/dd/yyyy hh:mm:ssa", java.util.Locale.US);
     
     /**
      * Tests generateOperationalProfile()
@@ -67,6 +84,629 @@ public class SecurityLogManagerTest {
         
     }
     
+    /**
+     * Tests that generateOperationalProfile() with a line limit gives the first
+     * lines of the full profile
+     */
+    @Test
+    public void testGenerateOperationalProfileTopK() {
+        SecurityLogManager manager = new SecurityLogManager("input/activityLog_medium.txt");
+        String start = "01/01/1980 12:00:00AM";
+        String end = "01/01/2020 12:00:00AM";
+        String[] full = manager.generateOperationalProfile(start, end).split("\n");
+        for (int k : new int[] {1, 3, 10, 50, full.length}) {
+            String[] top = manager.generateOperationalProfile(start, end, k).split("\n");
+            int lines = Math.min(k, full.length - 2);
+            assertEquals(lines + 2, top.length);
+            for (int i = 0; i <= lines; i++) {
+                assertEquals(full[i], top[i]);
+            }
+            assertEquals("]", top[lines + 1]);
+        }
+        
+        assertEquals(NO_ACTIVITY, manager.generateOperationalProfile(BAD_START_TIME, BAD_END_TIME, 5));
+        try {
+            manager.generateOperationalProfile(start, end, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Number of lines must be at least 1", e.getMessage());
+        }
+    }
+    
+    /**
+     * Tests that the streaming reports write the same text as the String reports
+     * @throws IOException if a report cannot be written
+     */
+    @Test
+    public void testStreamingReports() throws IOException {
+        SecurityLogManager manager = new SecurityLogManager("input/activityLog_medium.txt");
+        String start = "01/01/1980 12:00:00AM";
+        String end = "01/01/2020 12:00:00AM";
+        StringWriter out = new StringWriter();
+        manager.generateOperationalProfile(start, end, out);
+        assertEquals(manager.generateOperationalProfile(start, end), out.toString());
+        
+        out = new StringWriter();
+        manager.generateOperationalProfile(BAD_START_TIME, BAD_END_TIME, out);
+        assertEquals(NO_ACTIVITY, out.toString());
+        
+        for (String user : new String[] {"fzalcala", "nobody"}) {
+            out = new StringWriter();
+            manager.getUserReport(user, out);
+            assertEquals(manager.getUserReport(user), out.toString());
+        }
+    }
+    
+    /**
+     * Tests that reports generated by many threads at once match the reports
+     * generated one at a time, and that repeating a profile gives the same counts
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentReports() throws Exception {
+        final SecurityLogManager manager = new SecurityLogManager("input/activityLog_medium.txt");
+        final String[] starts = {"01/01/1980 12:00:00AM", "01/03/2015 07:12:20AM", "06/15/2015 01:00:00PM"};
+        final String[] ends = {"01/01/2020 12:00:00AM", "03/01/2015 12:00:00AM", "12/31/2016 11:59:59PM"};
+        final String[] users = {"fzalcala", "lqmadden", "nobody"};
+        final String[] expected = new String[starts.length + users.length];
+        for (int i = 0; i < starts.length; i++) {
+            expected[i] = manager.generateOperationalProfile(starts[i], ends[i]);
+            assertEquals(expected[i], manager.generateOperationalProfile(starts[i], ends[i]));
+        }
+        for (int i = 0; i < users.length; i++) {
+            expected[starts.length + i] = manager.getUserReport(users[i]);
+        }
+        
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new java.util.ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 64; t++) {
+                final int q = t % expected.length;
+                results.add(pool.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int r = 0; r < 20; r++) {
+                            String actual = q < starts.length
+                                    ? manager.generateOperationalProfile(starts[q], ends[q])
+                                    : manager.getUserReport(users[q - starts.length]);
+                            if (!expected[q].equals(actual)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Tests that appending the entries of a file in batches gives the same
+     * reports as loading the file
+     * @throws IOException if the file is poorly formatted
+     */
+    @Test
+    public void testAppend() throws IOException {
+        SecurityLogManager loaded = new SecurityLogManager("input/activityLog_medium.txt");
+        SecurityLogManager appended = new SecurityLogManager();
+        assertEquals(0, appended.size());
+        assertEquals(NO_ACTIVITY, appended.generateOperationalProfile(GOOD_START_TIME, GOOD_END_TIME));
+        
+        ArrayList<LogEntry> entries = new SecurityLogIO().readLogEntriesFromFile("input/activityLog_medium.txt");
+        int i = 0;
+        for (int batch = 1; i < entries.size(); batch = batch * 3 % 97 + 1) {
+            LogEntry[] b = new LogEntry[Math.min(batch, entries.size() - i)];
+            for (int j = 0; j < b.length; j++) {
+                b[j] = entries.get(i++);
+            }
+            appended.append(b);
+        }
+        assertEquals(entries.size(), appended.size());
+        
+        String start = "01/01/1980 12:00:00AM";
+        String end = "01/01/2020 12:00:00AM";
+        assertEquals(loaded.generateOperationalProfile(start, end), appended.generateOperationalProfile(start, end));
+        assertEquals(loaded.generateOperationalProfile(GOOD_START_TIME, GOOD_END_TIME),
+                appended.generateOperationalProfile(GOOD_START_TIME, GOOD_END_TIME));
+        for (String user : new String[] {"fzalcala", "lqmadden", "nobody"}) {
+            assertEquals(loaded.getUserReport(user), appended.getUserReport(user));
+        }
+        
+        // A file appended twice counts each entry twice
+        appended.appendFile("input/activityLog_small.txt");
+        appended.appendFile("input/activityLog_small.txt");
+        SecurityLogManager small = new SecurityLogManager();
+        small.appendFile("input/activityLog_small.txt");
+        small.appendFile("input/activityLog_small.txt");
+        assertTrue(small.generateOperationalProfile(GOOD_START_TIME, GOOD_END_TIME)
+                .contains("sort ICD-9 Code 196: frequency: 20, percentage: 83.3%"));
+        assertEquals(entries.size() + small.size(), appended.size());
+    }
+    
+    /**
+     * Tests that reports running while entries are appended see whole batches only
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testAppendWhileQuerying() throws Exception {
+        final SecurityLogManager manager = new SecurityLogManager();
+        final int batches = 200;
+        final int batchSize = 7;
+        final String start = "01/01/2015 12:00:00AM";
+        final String end = "01/01/2016 12:00:00AM";
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> readers = new java.util.ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 3; t++) {
+                readers.add(pool.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        int seen = 0;
+                        while (seen < batches * batchSize) {
+                            String profile = manager.generateOperationalProfile(start, end);
+                            int count = 0;
+                            for (String line : profile.split("\n")) {
+                                int f = line.indexOf("frequency: ");
+                                if (f >= 0) {
+                                    count += Integer.parseInt(line.substring(f + 11, line.indexOf(',', f)));
+                                }
+                            }
+                            // Whole batches only, and never fewer rows than an earlier query saw
+                            if (count % batchSize != 0 || count < seen) {
+                                return false;
+                            }
+                            seen = count;
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (int b = 0; b < batches; b++) {
+                LogEntry[] batch = new LogEntry[batchSize];
+                for (int j = 0; j < batchSize; j++) {
+                    batch[j] = new LogEntry("user" + b, String.format("%02d/%02d/2015 01:00:0%dPM", 1 + b % 12, 1 + j, j),
+                            "view", "resource" + j);
+                }
+                manager.append(batch);
+            }
+            for (Future<Boolean> reader : readers) {
+                assertTrue(reader.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Tests that lines added to a followed file show up in later reports
+     * @throws Exception if the file cannot be written
+     */
+    @Test
+    public void testFollow() throws Exception {
+        File f = File.createTempFile("followed", ".txt");
+        f.deleteOnExit();
+        Files.copy(Paths.get("input/activityLog_small.txt"), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        SecurityLogManager loaded = new SecurityLogManager("input/activityLog_small.txt");
+        SecurityLogManager manager = new SecurityLogManager();
+        manager.follow(f.getPath());
+        assertEquals(loaded.generateOperationalProfile(GOOD_START_TIME, GOOD_END_TIME),
+                manager.generateOperationalProfile(GOOD_START_TIME, GOOD_END_TIME));
+        int size = manager.size();
+        assertEquals(0, manager.poll());
+        
+        byte[] more = "newuser, 05/04/2016 02:09:40PM, sort, ICD-9 Code 196\n".getBytes(StandardCharsets.UTF_8);
+        Files.write(f.toPath(), more, StandardOpenOption.APPEND);
+        assertEquals(1, manager.poll());
+        assertEquals(size + 1, manager.size());
+        assertEquals("Activity Report for newuser[\n   05/04/2016 02:09:40PM - sort ICD-9 Code 196\n]",
+                manager.getUserReport("newuser"));
+        
+        // The background poller picks up later lines on its own
+        manager.startPolling(5);
+        Files.write(f.toPath(), more, StandardOpenOption.APPEND);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (manager.size() < size + 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(size + 2, manager.size());
+        manager.stopFollowing();
+        
+        try {
+            manager.startPolling(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Polling period must be positive", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests dropping old days, once and by a retention policy
+     */
+    @Test
+    public void testRetention() {
+        SecurityLogManager loaded = new SecurityLogManager("input/activityLog_medium.txt");
+        SecurityLogManager manager = new SecurityLogManager("input/activityLog_medium.txt");
+        String cutoff = "01/01/2017 12:00:00AM";
+        String start = "01/01/1980 12:00:00AM";
+        String end = "01/01/2020 12:00:00AM";
+        int dropped = manager.dropBefore(cutoff);
+        assertTrue(dropped > 0);
+        assertEquals(loaded.size() - dropped, manager.size());
+        assertEquals(loaded.generateOperationalProfile(cutoff, end), manager.generateOperationalProfile(start, end));
+        assertEquals(0, manager.dropBefore(cutoff));
+
+        // Only the latest day is kept, and entries older than it are dropped as they are appended
+        manager.setRetention(1);
+        int size = manager.size();
+        assertTrue(size > 0 && size < loaded.size() - dropped);
+        manager.append(new LogEntry("olduser", "01/01/1990 09:00:00AM", "view", "office visit OV00001"));
+        assertEquals(size, manager.size());
+        assertEquals("Activity Report for olduser[\n   No activity was recorded.\n]", manager.getUserReport("olduser"));
+        manager.setRetention(0);
+        manager.append(new LogEntry("olduser", "01/01/1990 09:00:00AM", "view", "office visit OV00001"));
+        assertEquals(size + 1, manager.size());
+
+        try {
+            manager.setRetention(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Retention must not be negative", e.getMessage());
+        }
+        try {
+            manager.dropBefore("yesterday");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid time stamp", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that appended entries survive a restart through a persisted directory
+     * @throws IOException if the directory cannot be created
+     */
+    @Test
+    public void testPersistence() throws IOException {
+        File dir = Files.createTempDirectory("persisted").toFile();
+        try {
+            SecurityLogManager loaded = new SecurityLogManager("input/activityLog_medium.txt");
+            loaded.appendFile("input/activityLog_small.txt");
+            SecurityLogManager manager = new SecurityLogManager();
+            assertEquals(0, manager.persistTo(dir.getPath()));
+            manager.appendFile("input/activityLog_medium.txt");
+            manager.append(new SecurityLogIO().readLogEntriesFromFile("input/activityLog_small.txt").get(0));
+            try {
+                manager.persistTo(dir.getPath());
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertEquals("Entries can only be persisted from an empty manager", e.getMessage());
+            }
+            // Not closed, as after a crash
+
+            SecurityLogManager restarted = new SecurityLogManager();
+            assertEquals(manager.size(), restarted.persistTo(dir.getPath()));
+            ArrayList<LogEntry> small = new SecurityLogIO().readLogEntriesFromFile("input/activityLog_small.txt");
+            LogEntry[] rest = new LogEntry[small.size() - 1];
+            for (int i = 1; i < small.size(); i++) {
+                rest[i - 1] = small.get(i);
+            }
+            restarted.append(rest);
+            restarted.closePersistence();
+            manager.closePersistence();
+
+            SecurityLogManager again = new SecurityLogManager();
+            assertEquals(loaded.size(), again.persistTo(dir.getPath()));
+            String start = "01/01/1980 12:00:00AM";
+            String end = "01/01/2020 12:00:00AM";
+            assertEquals(loaded.generateOperationalProfile(start, end), again.generateOperationalProfile(start, end));
+            for (String user : new String[] {"fzalcala", "quhundley"}) {
+                assertEquals(loaded.getUserReport(user), again.getUserReport(user));
+            }
+            again.closePersistence();
+        } finally {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    f.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+
+    /**
+     * Tests that entries appended by many threads at once are recovered in the
+     * order reports saw them. The entries differ only in how their time stamps
+     * are written, so a user report shows their order.
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void testConcurrentPersistence() throws Exception {
+        File dir = Files.createTempDirectory("persisted").toFile();
+        try {
+            final SecurityLogManager manager = new SecurityLogManager();
+            manager.persistTo(dir.getPath());
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<Future<Boolean>> results = new java.util.ArrayList<Future<Boolean>>();
+            for (int t = 0; t < 8; t++) {
+                final String time = t % 2 == 0 ? "01/01/2016 12:00:00AM" : "01/01/2016 00:00:00AM";
+                results.add(pool.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int r = 0; r < 25; r++) {
+                            manager.append(new LogEntry("tie", time, "view", "office visit OV00001"));
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> r : results) {
+                assertTrue(r.get());
+            }
+            pool.shutdown();
+            String report = manager.getUserReport("tie");
+            manager.closePersistence();
+            
+            SecurityLogManager restarted = new SecurityLogManager();
+            assertEquals(200, restarted.persistTo(dir.getPath()));
+            assertEquals(report, restarted.getUserReport("tie"));
+            restarted.closePersistence();
+        } finally {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    f.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+
+    /**
+     * Tests that cached reports are reused, and match freshly generated ones
+     * after appends
+     */
+    @Test
+    public void testReportCache() {
+        SecurityLogManager cached = new SecurityLogManager("input/activityLog_medium.txt");
+        SecurityLogManager fresh = new SecurityLogManager("input/activityLog_medium.txt");
+        fresh.setCacheCapacity(0);
+        String start = "01/01/1980 12:00:00AM";
+        String end = "01/01/2020 12:00:00AM";
+        String later = "01/01/2030 12:00:00AM";
+        String report = cached.generateOperationalProfile(start, end);
+        assertSame(report, cached.generateOperationalProfile(start, end));
+        assertSame(cached.getUserReport("fzalcala"), cached.getUserReport("fzalcala"));
+        assertEquals(2, cached.getCacheHits());
+        assertEquals(2, cached.getCacheMisses());
+
+        // Each append changes some reports; the rest are still served from the cache
+        LogEntry[] batches = {
+            new LogEntry("fzalcala", "05/04/2016 02:09:40PM", "sort", "ICD-9 Code 196"),
+            new LogEntry("newuser", "01/01/2025 09:00:00AM", "view", "office visit OV00001"),
+            new LogEntry("newuser", "06/01/2031 09:00:00AM", "view", "office visit OV00001"),
+        };
+        for (LogEntry e : batches) {
+            // The last window lies between two appended entries, so its profile goes from
+            // no activity to an empty list without any entry inside it
+            String[][] windows = {{start, end}, {end, later}, {later, "01/01/2040 12:00:00AM"}, {end, start},
+                {"01/01/2026 12:00:00AM", "01/01/2027 12:00:00AM"}};
+            for (String[] w : windows) {
+                cached.generateOperationalProfile(w[0], w[1]);
+                cached.generateOperationalProfile(w[0], w[1], 2);
+            }
+            for (String user : new String[] {"fzalcala", "lqmadden", "newuser"}) {
+                cached.getUserReport(user);
+            }
+            cached.append(e);
+            fresh.append(e);
+            for (String[] w : windows) {
+                assertEquals(fresh.generateOperationalProfile(w[0], w[1]), cached.generateOperationalProfile(w[0], w[1]));
+                assertEquals(fresh.generateOperationalProfile(w[0], w[1], 2),
+                        cached.generateOperationalProfile(w[0], w[1], 2));
+            }
+            for (String user : new String[] {"fzalcala", "lqmadden", "newuser"}) {
+                assertEquals(fresh.getUserReport(user), cached.getUserReport(user));
+            }
+        }
+        assertEquals("OperationalProfile[\n]",
+                cached.generateOperationalProfile("01/01/2026 12:00:00AM", "01/01/2027 12:00:00AM"));
+        assertEquals(0, fresh.getCacheHits());
+        assertTrue(cached.getCacheHits() > 30);
+
+        // Dropping entries removes every cached report
+        cached.dropBefore("01/01/2017 12:00:00AM");
+        fresh.dropBefore("01/01/2017 12:00:00AM");
+        assertEquals(fresh.generateOperationalProfile(start, end), cached.generateOperationalProfile(start, end));
+        assertEquals(fresh.getUserReport("lqmadden"), cached.getUserReport("lqmadden"));
+    }
+
+    /**
+     * Tests that a batch of profiles matches the profiles generated one at a time
+     */
+    @Test
+    public void testBatchProfiles() {
+        SecurityLogManager batch = new SecurityLogManager("input/activityLog_medium.txt");
+        SecurityLogManager single = new SecurityLogManager("input/activityLog_medium.txt");
+        single.setCacheCapacity(0);
+        
+        // Every month and every quarter from 2015 through 2017, which overlap, and
+        // intervals that are repeated, reversed, empty or outside the log
+        java.util.ArrayList<String[]> list = new java.util.ArrayList<String[]>();
+        for (int m = 0; m < 36; m++) {
+            list.add(new String[] {month(m), month(m + 1)});
+            if (m % 3 == 0) {
+                list.add(new String[] {month(m), month(m + 3)});
+            }
+        }
+        list.add(new String[] {"01/01/1980 12:00:00AM", "01/01/2020 12:00:00AM"});
+        list.add(new String[] {month(5), month(1)});
+        list.add(new String[] {month(4), month(4)});
+        list.add(new String[] {"01/01/1980 12:00:00AM", "01/01/1981 12:00:00AM"});
+        list.add(new String[] {"01/01/2019 12:00:00AM", "01/01/2020 12:00:00AM"});
+        list.add(new String[] {GOOD_START_TIME, GOOD_END_TIME});
+        list.add(new String[] {GOOD_START_TIME, GOOD_END_TIME});
+        String[][] windows = list.toArray(new String[list.size()][]);
+        
+        String[] reports = batch.generateOperationalProfiles(windows);
+        assertEquals(windows.length, reports.length);
+        for (int i = 0; i < windows.length; i++) {
+            assertEquals(single.generateOperationalProfile(windows[i][0], windows[i][1]), reports[i]);
+        }
+        assertEquals(NO_ACTIVITY, reports[windows.length - 4]);
+        
+        // The profiles are cached, and an append replaces only the ones it changes
+        long hits = batch.getCacheHits();
+        assertArrayEquals(reports, batch.generateOperationalProfiles(windows));
+        assertEquals(hits + windows.length, batch.getCacheHits());
+        LogEntry entry = new LogEntry("newuser", "01/01/2025 09:00:00AM", "view", "office visit OV00001");
+        batch.append(entry);
+        single.append(entry);
+        reports = batch.generateOperationalProfiles(windows);
+        for (int i = 0; i < windows.length; i++) {
+            assertEquals(single.generateOperationalProfile(windows[i][0], windows[i][1]), reports[i]);
+        }
+        assertEquals("OperationalProfile[\n]", reports[windows.length - 3]);
+        assertEquals(0, batch.generateOperationalProfiles(new String[0][]).length);
+        
+        try {
+            batch.generateOperationalProfiles(new String[][] {{GOOD_START_TIME}});
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Each window must have a start time and an end time", e.getMessage());
+        }
+    }
+    
+    /**
+     * Tests that a sliding profile matches the profile of its window as it slides
+     * forward and back, as entries are appended and as days are dropped
+     */
+    @Test
+    public void testSlidingProfile() throws IOException {
+        java.time.LocalDateTime latest = java.time.LocalDateTime.parse(TimeStamp.format(
+                new SecurityLogIO().readLogStoreFromFile("input/activityLog_medium.txt").getMaxTime()), FORMAT);
+        SecurityLogManager manager = new SecurityLogManager("input/activityLog_medium.txt");
+        int minutes = 60 * 24 * 45;
+        SlidingProfile all = manager.openSlidingProfile(minutes);
+        SlidingProfile top = manager.openSlidingProfile(minutes, 3);
+        
+        // The window starts at the latest entry, then slides a week at a time, and once back
+        checkSliding(manager, all, top, minutes, latest, true);
+        java.time.LocalDateTime end = java.time.LocalDateTime.of(2014, 12, 1, 0, 0);
+        for (int week = 0; week < 170; week++) {
+            checkSliding(manager, all, top, minutes, end.plusWeeks(week).plusMinutes(week * 7), false);
+        }
+        checkSliding(manager, all, top, minutes, end.plusWeeks(60), false);
+        
+        // Entries appended inside, before and after the window
+        manager.append(new LogEntry("newuser", "02/10/2016 09:00:00AM", "view", "office visit OV00001"),
+                new LogEntry("newuser", "01/01/2010 09:00:00AM", "view", "office visit OV00001"),
+                new LogEntry("newuser", "06/01/2016 09:00:00AM", "view", "office visit OV00001"));
+        checkSliding(manager, all, top, minutes, end.plusWeeks(62), false);
+        checkSliding(manager, all, top, minutes, end.plusWeeks(80), false);
+        manager.dropBefore("05/01/2016 12:00:00AM");
+        checkSliding(manager, all, top, minutes, end.plusWeeks(80), false);
+        checkSliding(manager, all, top, minutes, latest, true);
+        
+        // A closed profile gets no more entries
+        all.close();
+        String before = all.refresh();
+        manager.append(new LogEntry("newuser", "12/01/2017 09:00:00AM", "view", "office visit OV00001"));
+        assertEquals(before, all.refresh());
+        assertEquals(manager.generateOperationalProfile(latest.minusMinutes(minutes).format(FORMAT),
+                latest.format(FORMAT), 3), top.refresh());
+        
+        try {
+            manager.openSlidingProfile(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Window must be at least one minute", e.getMessage());
+        }
+        try {
+            manager.openSlidingProfile(5, 0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Number of lines must be at least 1", e.getMessage());
+        }
+        
+        // An empty log has no activity until entries are appended
+        SecurityLogManager empty = new SecurityLogManager();
+        SlidingProfile p = empty.openSlidingProfile(60);
+        assertEquals(NO_ACTIVITY, p.refresh());
+        empty.append(new LogEntry("newuser", "02/10/2016 09:00:00AM", "view", "office visit OV00001"),
+                new LogEntry("newuser", "02/10/2016 09:30:00AM", "sort", "office visit OV00001"));
+        assertEquals(empty.generateOperationalProfile("02/10/2016 08:30:00AM", "02/10/2016 09:30:00AM"), p.refresh());
+        // End times are read as leniently as generateOperationalProfile() reads them
+        assertEquals(empty.generateOperationalProfile("02/10/2016 08:45:00AM", "02/10/2016 09:45:00"),
+                p.refresh("02/10/2016 09:45:00"));
+        assertEquals(empty.generateOperationalProfile("02/10/2016 21:00:00AM", "02/10/2016 22:00:00AM"),
+                p.refresh("02/10/2016 22:00:00AM"));
+    }
+    
+    /**
+     * Refreshes two sliding profiles of the same window and checks them against
+     * the profiles of the window
+     * 
+     * @param manager the manager the profiles were opened from
+     * @param all the profile of every line
+     * @param top the profile of the first 3 lines
+     * @param minutes the length of the window in minutes
+     * @param end the end of the window
+     * @param latest true to refresh the profiles to end at the latest entry, which is at end
+     */
+    private static void checkSliding( SecurityLogManager manager, SlidingProfile all, SlidingProfile top,
+            int minutes, java.time.LocalDateTime end, boolean latest ) {
+        String startTime = end.minusMinutes(minutes).format(FORMAT);
+        String endTime = end.format(FORMAT);
+        String actual = latest ? all.refresh() : all.refresh(endTime);
+        String actualTop = latest ? top.refresh() : top.refresh(endTime);
+        assertEquals(manager.generateOperationalProfile(startTime, endTime), actual);
+        assertEquals(manager.generateOperationalProfile(startTime, endTime, 3), actualTop);
+    }
+    
+    /**
+     * Gets the first moment of a month
+     * 
+     * @param m the number of months since January 2015
+     * 
+     * @return the time stamp
+     */
+    private static String month( int m ) {
+        return String.format("%02d/01/%d 12:00:00AM", m % 12 + 1, 2015 + m / 12);
+    }
+
+    /**
+     * Tests that a saved snapshot loads back into the same reports
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Test
+    public void testSave() throws IOException {
+        SecurityLogManager manager = new SecurityLogManager("input/activityLog_medium.txt");
+        manager.appendFile("input/activityLog_small.txt");
+        File f = File.createTempFile("snapshot", ".bin");
+        f.deleteOnExit();
+        manager.save(f.getPath());
+
+        SecurityLogManager loaded = new SecurityLogManager(f.getPath());
+        assertEquals(manager.size(), loaded.size());
+        String start = "01/01/1980 12:00:00AM";
+        String end = "01/01/2020 12:00:00AM";
+        assertEquals(manager.generateOperationalProfile(start, end), loaded.generateOperationalProfile(start, end));
+        for (String user : new String[] {"fzalcala", "lqmadden", "quhundley", "nobody"}) {
+            assertEquals(manager.getUserReport(user), loaded.getUserReport(user));
+        }
+
+        // A snapshot can be appended like a log file
+        SecurityLogManager appended = new SecurityLogManager("input/activityLog_small.txt");
+        appended.appendFile(f.getPath());
+        assertEquals(2 * manager.size() - new SecurityLogManager("input/activityLog_medium.txt").size(), appended.size());
+        f.delete();
+    }
+
     /**
      * Tests getUserReport()
      * @throws IOException if the file is poorly formatted